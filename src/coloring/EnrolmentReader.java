@@ -0,0 +1,164 @@
+package coloring;
+
+import graph.CompactGraph;
+import graph.ConflictGraphBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads enrolments, one course per line in the form {@code COURSE TITLE, STUDENT 1, ... ,
+ * STUDENT N}, into a {@link ConflictGraphBuilder}. A line reading {@code done} ends the input
+ * early, as it does on the console.
+ *
+ * The input is read from a channel in fixed-size chunks and parsed as bytes: tokens are found
+ * by scanning for commas and line ends, and course and student names are interned to int ids
+ * in a {@link NameTable} without creating a {@code String} per token. Only a new course creates
+ * objects, its title and its {@link Course}. Memory is bounded by the distinct courses and
+ * students and their enrolments, not by the size of the input.
+ */
+public final class EnrolmentReader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ConflictGraphBuilder<String, Course> builder = new ConflictGraphBuilder<>();
+    private final NameTable courses = new NameTable();
+    private final NameTable students = new NameTable();
+    private boolean done;
+
+    /**
+     * Reads the enrolments in a file
+     * @param path the file
+     * @return the reader
+     * @throws IOException if the file can't be read
+     */
+    public EnrolmentReader read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel);
+        }
+    }
+
+    /**
+     * Reads enrolments from a channel until the channel ends or a line reads {@code done}.
+     * The channel is not closed.
+     * @param channel the channel
+     * @return the reader
+     * @throws IOException if the channel can't be read
+     */
+    public EnrolmentReader read(ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        done = false;
+        while (!done) {
+            boolean end = channel.read(buffer) < 0;
+            int consumed = parse(buffer.array(), buffer.position(), end);
+            if (end) break;
+
+            buffer.flip();
+            buffer.position(consumed);
+            buffer.compact();
+            if (!buffer.hasRemaining()) {
+                // a single line is longer than the buffer
+                ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Get the number of distinct courses read so far
+     * @return the number of courses
+     */
+    public int courseCount() {
+        return courses.size();
+    }
+
+    /**
+     * Get the number of distinct students read so far
+     * @return the number of students
+     */
+    public int studentCount() {
+        return students.size();
+    }
+
+    /**
+     * Builds the conflict graph of the courses read so far
+     * @return a new CompactGraph with an edge between every two courses that share a student
+     */
+    public CompactGraph<String, Course> build() {
+        return builder.build();
+    }
+
+    /**
+     * Parses every complete line in {@code bytes[0, limit)}, and the incomplete last line too
+     * at the end of the input
+     * @return the index after the last line parsed
+     */
+    private int parse(byte[] bytes, int limit, boolean end) {
+        int start = 0;
+        for (int i = 0; i < limit && !done; i++) {
+            if (bytes[i] == '\n') {
+                line(bytes, start, i);
+                start = i + 1;
+            }
+        }
+        if (end && start < limit && !done) {
+            line(bytes, start, limit);
+            start = limit;
+        }
+        return start;
+    }
+
+    private void line(byte[] bytes, int from, int to) {
+        int course = -1;
+        int start = from;
+        for (int i = from; i <= to; i++) {
+            if (i < to && bytes[i] != ',') continue;
+
+            int tokenFrom = start;
+            int tokenTo = i;
+            while (tokenFrom < tokenTo && isSpace(bytes[tokenFrom])) tokenFrom++;
+            while (tokenTo > tokenFrom && isSpace(bytes[tokenTo - 1])) tokenTo--;
+            start = i + 1;
+
+            if (course < 0) {
+                if (tokenFrom == tokenTo) return;
+                if (isDone(bytes, tokenFrom, tokenTo) && i == to) {
+                    done = true;
+                    return;
+                }
+                course = course(bytes, tokenFrom, tokenTo);
+            } else if (tokenFrom < tokenTo) {
+                builder.addMember(students.intern(bytes, tokenFrom, tokenTo), course);
+            }
+        }
+    }
+
+    private int course(byte[] bytes, int from, int to) {
+        int id = courses.intern(bytes, from, to);
+        if (id == builder.vertexCount()) {
+            String title = courses.name(id);
+            builder.addVertex(title, new Course(title));
+        }
+        return id;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private static boolean isDone(byte[] bytes, int from, int to) {
+        if (to - from != 4) return false;
+        String done = "done";
+        for (int i = 0; i < 4; i++) {
+            if ((bytes[from + i] | 0x20) != done.charAt(i)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,71 @@
+package coloring;
+
+import graph.CompactGraph;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class EnrolmentReaderTest {
+
+    private static EnrolmentReader read(String input) throws IOException {
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        return new EnrolmentReader().read(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    @DisplayName("Courses sharing a student conflict, and names are interned once")
+    void testRead() throws IOException {
+        EnrolmentReader reader = read("MCO364, Sam, Mike\r\nMCO243,Sam , Nancy\n\nMCO368, Wanda\nMCO152, Wanda, Nancy");
+        CompactGraph<String, Course> graph = reader.build();
+
+        Assertions.assertEquals(4, reader.courseCount());
+        Assertions.assertEquals(4, reader.studentCount());
+        Assertions.assertEquals(3, graph.edgeCount());
+        Assertions.assertTrue(graph.hasEdge("MCO364", "MCO243"));
+        Assertions.assertTrue(graph.hasEdge("MCO243", "MCO152"));
+        Assertions.assertTrue(graph.hasEdge("MCO368", "MCO152"));
+        Assertions.assertEquals("MCO368", graph.dataAt(graph.indexOf("MCO368")).getTitle());
+    }
+
+    @Test
+    @DisplayName("Reading stops at a line reading done")
+    void testDone() throws IOException {
+        EnrolmentReader reader = read("MCO364, Sam\nMCO243, Sam\nDone\nMCO368, Sam\n");
+
+        Assertions.assertEquals(2, reader.courseCount());
+        Assertions.assertEquals(1, reader.build().edgeCount());
+    }
+
+    @Test
+    @DisplayName("A file with lines longer than the read buffer is read whole")
+    void testFile() throws IOException {
+        StringBuilder input = new StringBuilder();
+        for (int course = 0; course < 50; course++) {
+            input.append("Course ").append(course);
+            for (int student = course % 2; student < 10000; student += 2) {
+                input.append(", Student ").append(student);
+            }
+            input.append('\n');
+        }
+        Path file = Files.createTempFile("enrolments", ".csv");
+        try {
+            Files.write(file, input.toString().getBytes(StandardCharsets.UTF_8));
+            EnrolmentReader reader = new EnrolmentReader().read(file);
+            CompactGraph<String, Course> graph = reader.build();
+
+            Assertions.assertEquals(50, reader.courseCount());
+            Assertions.assertEquals(10000, reader.studentCount());
+            Assertions.assertEquals(2 * (25 * 24 / 2), graph.edgeCount());
+            Assertions.assertFalse(graph.hasEdge("Course 0", "Course 1"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
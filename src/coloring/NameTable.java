@@ -0,0 +1,104 @@
+package coloring;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Interns names read as UTF-8 bytes to dense int ids, numbered from 0 in the order they are
+ * first seen. The bytes of every distinct name are kept once, in a single array, and are
+ * looked up in an open-addressing hash table, so looking up a name that was seen before
+ * creates no objects.
+ */
+final class NameTable {
+
+    private byte[] bytes = new byte[1 << 12];
+    private int length;
+    private int[] starts = new int[65];
+    private int[] hashes = new int[64];
+    private int[] slots = new int[128];
+    private int size;
+
+    /**
+     * Get the number of distinct names
+     * @return the number of names
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the id of a name, adding it if it wasn't seen before
+     * @param source the array holding the name
+     * @param from the index of the first byte of the name
+     * @param to the index after the last byte of the name
+     * @return the id of the name
+     */
+    int intern(byte[] source, int from, int to) {
+        int hash = hash(source, from, to);
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0) {
+                id = add(source, from, to, hash);
+                slots[slot] = id + 1;
+                if (size * 2 > slots.length) rehash();
+                return id;
+            }
+            if (hashes[id] == hash && matches(id, source, from, to)) return id;
+        }
+    }
+
+    /**
+     * Get the name with the given id
+     * @param id the id
+     * @return the name, decoded from UTF-8
+     */
+    String name(int id) {
+        return new String(bytes, starts[id], starts[id + 1] - starts[id], StandardCharsets.UTF_8);
+    }
+
+    private int add(byte[] source, int from, int to, int hash) {
+        int count = to - from;
+        if (length + count > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(length + count, bytes.length * 2));
+        System.arraycopy(source, from, bytes, length, count);
+        length += count;
+
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size * 2);
+            starts = Arrays.copyOf(starts, size * 2 + 1);
+        }
+        hashes[size] = hash;
+        starts[size + 1] = length;
+        return size++;
+    }
+
+    private boolean matches(int id, byte[] source, int from, int to) {
+        int start = starts[id];
+        if (starts[id + 1] - start != to - from) return false;
+        for (int i = from; i < to; i++) {
+            if (bytes[start++] != source[i]) return false;
+        }
+        return true;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (slots[slot] != 0) slot = (slot + 1) & mask;
+            slots[slot] = id + 1;
+        }
+    }
+
+    private static int hash(byte[] source, int from, int to) {
+        int h = 0x811c9dc5;
+        for (int i = from; i < to; i++) {
+            h = (h ^ source[i]) * 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+}
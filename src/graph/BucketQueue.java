@@ -0,0 +1,113 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A priority queue of vertex indices with small int keys, kept as one doubly linked list per
+ * key. Inserting, removing and changing a key take O(1); extracting the smallest or largest
+ * key scans from a hint that is moved whenever a key passes it, which is O(1) amortized when
+ * keys only move in one direction, as they do in the orderings used for colouring.
+ */
+final class BucketQueue {
+
+    private final int[] heads;
+    private final int[] next;
+    private final int[] previous;
+    private final int[] keys;
+    private int size;
+    private int top = -1;
+    private int bottom;
+
+    /**
+     * Constructor
+     * @param capacity the number of vertices, which are numbered from 0
+     * @param maxKey the largest key any vertex will have
+     */
+    BucketQueue(int capacity, int maxKey) {
+        heads = new int[maxKey + 1];
+        next = new int[capacity];
+        previous = new int[capacity];
+        keys = new int[capacity];
+        Arrays.fill(heads, -1);
+        Arrays.fill(keys, -1);
+        bottom = maxKey + 1;
+    }
+
+    /**
+     * Adds a vertex at the front of its key's list
+     * @param v the vertex
+     * @param key the key
+     */
+    void insert(int v, int key) {
+        keys[v] = key;
+        previous[v] = -1;
+        next[v] = heads[key];
+        if (heads[key] >= 0) previous[heads[key]] = v;
+        heads[key] = v;
+        top = Math.max(top, key);
+        bottom = Math.min(bottom, key);
+        size++;
+    }
+
+    /**
+     * Removes a vertex from the queue
+     * @param v the vertex
+     */
+    void remove(int v) {
+        if (previous[v] >= 0) next[previous[v]] = next[v];
+        else heads[keys[v]] = next[v];
+        if (next[v] >= 0) previous[next[v]] = previous[v];
+        keys[v] = -1;
+        size--;
+    }
+
+    /**
+     * Moves a vertex that is in the queue to a new key
+     * @param v the vertex
+     * @param key the new key
+     */
+    void update(int v, int key) {
+        remove(v);
+        insert(v, key);
+    }
+
+    boolean contains(int v) {
+        return keys[v] >= 0;
+    }
+
+    int key(int v) {
+        return keys[v];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes a vertex with the largest key; among equal keys, the one inserted last
+     * @return the vertex, or -1 if the queue is empty
+     */
+    int pollMax() {
+        if (size == 0) return -1;
+        while (heads[top] < 0) top--;
+        int v = heads[top];
+        remove(v);
+        return v;
+    }
+
+    /**
+     * Removes a vertex with the smallest key; among equal keys, the one inserted last
+     * @return the vertex, or -1 if the queue is empty
+     */
+    int pollMin() {
+        if (size == 0) return -1;
+        while (heads[bottom] < 0) bottom++;
+        int v = heads[bottom];
+        remove(v);
+        return v;
+    }
+}
@@ -0,0 +1,480 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Cliques and independent sets of an {@link IndexedGraph}. A clique is a set of pairwise
+ * adjacent vertices, so a graph needs at least as many colours as its largest clique has
+ * vertices; an independent set is a set of pairwise non-adjacent vertices, which can all
+ * share a colour. Self-loops are ignored.
+ *
+ * Cliques are found with Bron-Kerbosch with pivoting, started once per vertex in degeneracy
+ * order (Eppstein, Loeffler and Strash): the search from a vertex only looks at its neighbours
+ * later in the order, of which there are at most the graph's degeneracy, so it works on a
+ * small bitset adjacency matrix of that neighbourhood. The searches from different vertices
+ * are independent and run in parallel. The search for a maximum clique branches on the same
+ * matrices, but prunes with a greedy colouring of the candidates instead of pivoting.
+ */
+public final class Cliques {
+
+    private static final int SEQUENTIAL_THRESHOLD = 64;
+    // look a neighbour's edges up one by one if it has this many times more than the search has vertices
+    private static final int HUB_FACTOR = 8;
+
+    private Cliques() {}
+
+    /**
+     * Performs the given action on every maximal clique, that is every clique that no other
+     * vertex can be added to. The action is called from several threads at once, and gets
+     * a new array every time.
+     * @param graph the graph
+     * @param action the action to perform on the vertex indices of each clique
+     */
+    public static void forEachMaximalClique(IndexedGraph<?, ?> graph, Consumer<int[]> action) {
+        Search search = new Search(graph, action, 0);
+        ForkJoinPool.commonPool().invoke(new Expand(search, 0, graph.vertexCount()));
+    }
+
+    /**
+     * Finds a largest clique. Its size is a lower bound on the number of colours any
+     * colouring of the graph uses.
+     * @param graph the graph
+     * @return the vertex indices of the clique, sorted
+     */
+    public static int[] maximumClique(IndexedGraph<?, ?> graph) {
+        // Long.MAX_VALUE nanoseconds from now is about 292 years away
+        return maximumClique(graph, System.nanoTime() + Long.MAX_VALUE);
+    }
+
+    /**
+     * Finds a largest clique, or gives up at a deadline. The search starts from a clique
+     * grown greedily, so even if it gives up at once the clique is not trivial.
+     * @param graph the graph
+     * @param deadline the {@link System#nanoTime()} to give up at
+     * @return the vertex indices of the largest clique found, sorted
+     */
+    static int[] maximumClique(IndexedGraph<?, ?> graph, long deadline) {
+        Search search = new Search(graph, null, deadline);
+        int[] greedy = search.greedyClique();
+        search.found(greedy, greedy.length);
+        ForkJoinPool.commonPool().invoke(new Expand(search, 0, graph.vertexCount()));
+        int[] clique = search.bestClique.clone();
+        Arrays.sort(clique);
+        return clique;
+    }
+
+    /**
+     * Finds a large independent set with the minimum-degree greedy heuristic: the vertex with
+     * the fewest remaining neighbours is taken, then removed with its neighbours, until no
+     * vertex remains. The set is maximal, but not necessarily maximum.
+     * @param graph the graph
+     * @return the vertex indices of the set, sorted
+     */
+    public static int[] independentSet(IndexedGraph<?, ?> graph) {
+        int size = graph.vertexCount();
+        BucketQueue queue = new BucketQueue(size, GraphColoring.maxDegree(graph));
+        for (int v = 0; v < size; v++) {
+            queue.insert(v, graph.degree(v));
+        }
+
+        int[] set = new int[size];
+        int count = 0;
+        while (!queue.isEmpty()) {
+            int v = queue.pollMin();
+            set[count++] = v;
+            int degree = graph.degree(v);
+            for (int i = 0; i < degree; i++) {
+                int w = graph.neighbor(v, i);
+                if (!queue.contains(w)) continue;
+                queue.remove(w);
+                int wDegree = graph.degree(w);
+                for (int j = 0; j < wDegree; j++) {
+                    int u = graph.neighbor(w, j);
+                    if (queue.contains(u)) queue.update(u, queue.key(u) - 1);
+                }
+            }
+        }
+        int[] result = Arrays.copyOf(set, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Checks that every two distinct vertices of a set are adjacent
+     * @param graph the graph
+     * @param vertices the vertex indices of the set
+     * @return true if the vertices form a clique, false otherwise
+     */
+    public static boolean isClique(IndexedGraph<?, ?> graph, int[] vertices) {
+        for (int i = 0; i < vertices.length; i++) {
+            for (int j = i + 1; j < vertices.length; j++) {
+                if (vertices[i] == vertices[j] || !graph.hasEdge(vertices[i], vertices[j])) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that no two distinct vertices of a set are adjacent
+     * @param graph the graph
+     * @param vertices the vertex indices of the set
+     * @return true if the vertices form an independent set, false otherwise
+     */
+    public static boolean isIndependentSet(IndexedGraph<?, ?> graph, int[] vertices) {
+        for (int i = 0; i < vertices.length; i++) {
+            for (int j = i + 1; j < vertices.length; j++) {
+                if (vertices[i] == vertices[j] || graph.hasEdge(vertices[i], vertices[j])) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The state shared by the searches from every vertex: the degeneracy order, and either
+     * the action to perform on maximal cliques or the largest clique found so far and the
+     * deadline of the search for it
+     */
+    private static final class Search {
+        private final IndexedGraph<?, ?> graph;
+        private final Consumer<int[]> action;
+        private final int[] order;
+        private final int[] position;
+        private final long deadline;
+        private volatile boolean timedOut;
+        private final AtomicInteger best = new AtomicInteger();
+        private volatile int[] bestClique = new int[0];
+        // the local index of every vertex in the current search of a thread, -1 outside it
+        private final ThreadLocal<int[]> localIndices;
+
+        Search(IndexedGraph<?, ?> graph, Consumer<int[]> action, long deadline) {
+            this.graph = graph;
+            this.action = action;
+            this.deadline = deadline;
+            this.order = GraphColoring.degeneracyOrder(graph);
+            this.position = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                position[order[i]] = i;
+            }
+            this.localIndices = ThreadLocal.withInitial(() -> {
+                int[] indices = new int[order.length];
+                Arrays.fill(indices, -1);
+                return indices;
+            });
+        }
+
+        /**
+         * Checks if the search for a maximum clique has run past its deadline
+         */
+        boolean isTimedOut() {
+            if (action == null && !timedOut && System.nanoTime() - deadline > 0) timedOut = true;
+            return timedOut;
+        }
+
+        /**
+         * Grows a clique from the last vertex of the degeneracy order, which lies in the
+         * densest core of the graph, by its neighbours from the latest in the order back
+         */
+        int[] greedyClique() {
+            if (order.length == 0) return new int[0];
+            int v = order[order.length - 1];
+            int degree = graph.degree(v);
+            long[] neighbors = new long[degree];
+            for (int i = 0; i < degree; i++) {
+                int w = graph.neighbor(v, i);
+                neighbors[i] = (long) position[w] << 32 | w;
+            }
+            Arrays.sort(neighbors);
+            int[] clique = new int[degree + 1];
+            int size = 0;
+            clique[size++] = v;
+            for (int i = degree - 1; i >= 0; i--) {
+                int w = (int) neighbors[i];
+                boolean adjacent = true;
+                for (int j = 0; j < size && adjacent; j++) {
+                    adjacent = w != clique[j] && graph.hasEdge(w, clique[j]);
+                }
+                if (adjacent) clique[size++] = w;
+            }
+            return Arrays.copyOf(clique, size);
+        }
+
+        /**
+         * Searches the cliques whose vertex earliest in the degeneracy order is v. When
+         * looking for a maximum clique, the neighbours earlier in the order are left out,
+         * since they can only show that a clique is not maximal.
+         */
+        void searchFrom(int v) {
+            int degree = graph.degree(v);
+            int[] later = new int[degree];
+            int[] earlier = new int[degree];
+            int laterCount = 0;
+            int earlierCount = 0;
+            for (int i = 0; i < degree; i++) {
+                int w = graph.neighbor(v, i);
+                if (position[w] > position[v]) {
+                    later[laterCount++] = w;
+                } else if (w != v) {
+                    earlier[earlierCount++] = w;
+                }
+            }
+            if (action == null) {
+                if (laterCount + 1 <= best.get()) return;
+                earlierCount = 0;
+            }
+
+            // local vertices are the later neighbours, then the earlier ones
+            int local = laterCount + earlierCount;
+            int[] vertices = Arrays.copyOf(later, local);
+            System.arraycopy(earlier, 0, vertices, laterCount, earlierCount);
+            int[] localIndex = localIndices.get();
+            for (int i = 0; i < local; i++) {
+                localIndex[vertices[i]] = i;
+            }
+
+            // the rows of later neighbours cover every local vertex, the rows of earlier ones
+            // only the later neighbours, since no earlier neighbour is ever a candidate again
+            int words = (local + 63) >>> 6;
+            long[][] rows = new long[local][];
+            for (int i = 0; i < local; i++) {
+                rows[i] = new long[i < laterCount ? words : (laterCount + 63) >>> 6];
+            }
+            for (int i = 0; i < laterCount; i++) {
+                int u = vertices[i];
+                int uDegree = graph.degree(u);
+                if (uDegree <= HUB_FACTOR * local) {
+                    for (int j = 0; j < uDegree; j++) {
+                        connect(rows, laterCount, i, localIndex[graph.neighbor(u, j)]);
+                    }
+                } else {
+                    for (int j = 0; j < local; j++) {
+                        if (graph.hasEdge(u, vertices[j])) connect(rows, laterCount, i, j);
+                    }
+                }
+            }
+            for (int i = 0; i < local; i++) {
+                localIndex[vertices[i]] = -1;
+            }
+
+            long[] candidates = new long[words];
+            for (int i = 0; i < laterCount; i++) {
+                candidates[i >>> 6] |= 1L << i;
+            }
+            long[] excluded = new long[words];
+            for (int i = laterCount; i < local; i++) {
+                excluded[i >>> 6] |= 1L << i;
+            }
+            int[] clique = new int[laterCount + 1];
+            clique[0] = v;
+            if (action == null) {
+                if (laterCount == 0) {
+                    found(clique, 1);
+                } else {
+                    expandMaximum(vertices, sortByDegree(vertices, rows), clique, 1, candidates);
+                }
+            } else {
+                expand(vertices, rows, clique, 1, candidates, excluded);
+            }
+        }
+
+        /**
+         * Sets the bits for an edge from the later neighbour at local index i to the local
+         * vertex j, if there is one
+         */
+        private static void connect(long[][] rows, int laterCount, int i, int j) {
+            if (j < 0 || j == i) return;
+            rows[i][j >>> 6] |= 1L << j;
+            if (j >= laterCount) rows[j][i >>> 6] |= 1L << i;
+        }
+
+        /**
+         * Renumbers the local vertices of a maximum clique search, which are all later
+         * neighbours, by non-increasing degree within the neighbourhood. The greedy colouring
+         * of {@link #expandMaximum} goes through the candidates in this order, which keeps
+         * the number of colours, and so the bound, low.
+         * @return the rows in the new order
+         */
+        private static long[][] sortByDegree(int[] vertices, long[][] rows) {
+            int local = vertices.length;
+            int[] starts = new int[local + 1];
+            for (long[] row : rows) {
+                starts[local - count(row)]++;
+            }
+            for (int key = 0; key < local; key++) {
+                starts[key + 1] += starts[key];
+            }
+            int[] newIndex = new int[local];
+            for (int i = 0; i < local; i++) {
+                newIndex[i] = starts[local - 1 - count(rows[i])]++;
+            }
+
+            int[] oldVertices = vertices.clone();
+            long[][] sorted = new long[local][rows.length > 0 ? rows[0].length : 0];
+            for (int i = 0; i < local; i++) {
+                vertices[newIndex[i]] = oldVertices[i];
+                long[] row = sorted[newIndex[i]];
+                for (int word = 0; word < rows[i].length; word++) {
+                    for (long bits = rows[i][word]; bits != 0; bits &= bits - 1) {
+                        int j = newIndex[word * 64 + Long.numberOfTrailingZeros(bits)];
+                        row[j >>> 6] |= 1L << j;
+                    }
+                }
+            }
+            return sorted;
+        }
+
+        /**
+         * Extends a clique by every candidate that is not adjacent to the pivot, the vertex
+         * of the candidates and excluded vertices with the most neighbours among the
+         * candidates. Every candidate is adjacent to the whole clique; an excluded vertex is
+         * too, but every clique containing it has been searched already.
+         */
+        private void expand(int[] vertices, long[][] rows, int[] clique, int size, long[] candidates, long[] excluded) {
+            int remaining = count(candidates);
+            if (remaining == 0) {
+                if (count(excluded) == 0) found(clique, size);
+                return;
+            }
+
+            long[] pivot = null;
+            int most = -1;
+            for (int word = 0; word < candidates.length; word++) {
+                for (long bits = candidates[word] | excluded[word]; bits != 0; bits &= bits - 1) {
+                    long[] row = rows[word * 64 + Long.numberOfTrailingZeros(bits)];
+                    int neighbors = countAnd(candidates, row);
+                    if (neighbors > most) {
+                        most = neighbors;
+                        pivot = row;
+                    }
+                }
+            }
+
+            long[] branches = candidates.clone();
+            for (int word = 0; word < pivot.length; word++) {
+                branches[word] &= ~pivot[word];
+            }
+            for (int word = 0; word < branches.length; word++) {
+                for (long bits = branches[word]; bits != 0; bits &= bits - 1) {
+                    int i = word * 64 + Long.numberOfTrailingZeros(bits);
+                    clique[size] = vertices[i];
+                    expand(vertices, rows, clique, size + 1, and(candidates, rows[i]), and(excluded, rows[i]));
+                    candidates[word] &= ~(1L << i);
+                    excluded[word] |= 1L << i;
+                }
+            }
+        }
+
+        /**
+         * Extends a clique by the candidates like {@link #expand}, but only looks for cliques
+         * larger than the largest found so far. The candidates are coloured greedily first;
+         * a clique can't have more vertices than colours, so the branches of candidates with
+         * colours no higher than the clique would need to grow are cut off (Tomita's MCQ).
+         */
+        private void expandMaximum(int[] vertices, long[][] rows, int[] clique, int size, long[] candidates) {
+            if (isTimedOut()) return;
+            int remaining = count(candidates);
+            int[] order = new int[remaining];
+            int[] colors = new int[remaining];
+            long[] uncolored = candidates.clone();
+            int colored = 0;
+            for (int color = 1; colored < remaining; color++) {
+                long[] available = uncolored.clone();
+                for (int word = 0; word < available.length; word++) {
+                    while (available[word] != 0) {
+                        int i = word * 64 + Long.numberOfTrailingZeros(available[word]);
+                        uncolored[word] &= ~(1L << i);
+                        long[] row = rows[i];
+                        for (int w = word; w < row.length; w++) {
+                            available[w] &= ~row[w];
+                        }
+                        available[word] &= ~(1L << i);
+                        order[colored] = i;
+                        colors[colored++] = color;
+                    }
+                }
+            }
+
+            for (int k = remaining - 1; k >= 0; k--) {
+                if (size + colors[k] <= best.get() || timedOut) return;
+                int i = order[k];
+                clique[size] = vertices[i];
+                long[] next = and(candidates, rows[i]);
+                if (count(next) == 0) {
+                    found(clique, size + 1);
+                } else {
+                    expandMaximum(vertices, rows, clique, size + 1, next);
+                }
+                candidates[i >>> 6] &= ~(1L << i);
+            }
+        }
+
+        void found(int[] clique, int size) {
+            if (action != null) {
+                action.accept(Arrays.copyOf(clique, size));
+                return;
+            }
+            synchronized (this) {
+                if (size > best.get()) {
+                    bestClique = Arrays.copyOf(clique, size);
+                    best.set(size);
+                }
+            }
+        }
+
+        private static int count(long[] bits) {
+            int count = 0;
+            for (long word : bits) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+
+        private static int countAnd(long[] bits, long[] row) {
+            int count = 0;
+            for (int word = Math.min(bits.length, row.length) - 1; word >= 0; word--) {
+                count += Long.bitCount(bits[word] & row[word]);
+            }
+            return count;
+        }
+
+        private static long[] and(long[] bits, long[] row) {
+            long[] result = new long[bits.length];
+            for (int word = Math.min(bits.length, row.length) - 1; word >= 0; word--) {
+                result[word] = bits[word] & row[word];
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Runs the searches from a range of the degeneracy order, splitting it until it is small
+     * enough. The searches from the end of the order, where the densest part of the graph
+     * is, go first, so that a large clique is found early and prunes the rest.
+     */
+    private static final class Expand extends RecursiveAction {
+        private final Search search;
+        private final int from;
+        private final int to;
+
+        Expand(Search search, int from, int to) {
+            this.search = search;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SEQUENTIAL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Expand(search, middle, to), new Expand(search, from, middle));
+                return;
+            }
+            for (int i = to - 1; i >= from && !search.isTimedOut(); i--) {
+                search.searchFrom(search.order[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package graph;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+class CliquesTest {
+
+    /**
+     * Finds the maximal cliques of a small graph by checking every subset of its vertices
+     */
+    private static Set<Set<Integer>> bruteForceMaximalCliques(IndexedGraph<?, ?> graph) {
+        int size = graph.vertexCount();
+        Set<Set<Integer>> cliques = new HashSet<>();
+        for (int subset = 1; subset < 1 << size; subset++) {
+            if (!isClique(graph, subset)) continue;
+            boolean maximal = true;
+            for (int v = 0; v < size && maximal; v++) {
+                if ((subset & 1 << v) == 0 && isClique(graph, subset | 1 << v)) maximal = false;
+            }
+            if (maximal) {
+                Set<Integer> clique = new HashSet<>();
+                for (int v = 0; v < size; v++) {
+                    if ((subset & 1 << v) != 0) clique.add(v);
+                }
+                cliques.add(clique);
+            }
+        }
+        return cliques;
+    }
+
+    private static boolean isClique(IndexedGraph<?, ?> graph, int subset) {
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            for (int w = v + 1; w < graph.vertexCount(); w++) {
+                if ((subset & 1 << v) != 0 && (subset & 1 << w) != 0 && !graph.hasEdge(v, w)) return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    @DisplayName("Every maximal clique is enumerated once, and the largest is found")
+    void testMaximalCliques(){
+        for (int seed = 0; seed < 20; seed++) {
+            CompactGraph<Integer, Integer> graph = GraphColoringTest.randomGraph(14, 20 + 4 * seed, seed);
+            Set<Set<Integer>> expected = bruteForceMaximalCliques(graph);
+
+            Set<Set<Integer>> found = ConcurrentHashMap.newKeySet();
+            Cliques.forEachMaximalClique(graph, clique -> {
+                Set<Integer> set = new HashSet<>();
+                for (int v : clique) {
+                    set.add(v);
+                }
+                Assertions.assertTrue(found.add(set));
+            });
+            Assertions.assertEquals(expected, found);
+
+            int largest = expected.stream().mapToInt(Set::size).max().orElse(0);
+            int[] clique = Cliques.maximumClique(graph);
+            Assertions.assertEquals(largest, clique.length);
+            Assertions.assertTrue(Cliques.isClique(graph, clique));
+        }
+    }
+
+    @Test
+    @DisplayName("A planted clique is found in a large sparse graph and bounds the colouring")
+    void testPlantedClique(){
+        GraphLoader<Integer, Integer> loader = GraphLoader.create();
+        for (int i = 0; i < 20000; i++) {
+            loader.addVertex(i, i);
+        }
+        Random random = new Random(4);
+        for (int i = 0; i < 100000; i++) {
+            loader.addEdge(random.nextInt(20000), random.nextInt(20000));
+        }
+        int[] planted = random.ints(0, 20000).distinct().limit(15).toArray();
+        for (int i = 0; i < planted.length; i++) {
+            for (int j = i + 1; j < planted.length; j++) {
+                loader.addEdge(planted[i], planted[j]);
+            }
+        }
+        CompactGraph<Integer, Integer> graph = loader.load().freeze();
+
+        int[] clique = Cliques.maximumClique(graph);
+        Assertions.assertTrue(Cliques.isClique(graph, clique));
+        Assertions.assertEquals(15, clique.length);
+        int[] expected = Arrays.stream(planted).map(graph::indexOf).sorted().toArray();
+        Assertions.assertArrayEquals(expected, clique);
+        Assertions.assertTrue(GraphColoring.colorCount(GraphColoring.dsatur(graph)) >= clique.length);
+    }
+
+    @Test
+    @DisplayName("The independent set is independent and maximal")
+    void testIndependentSet(){
+        CompactGraph<Integer, Integer> graph = GraphColoringTest.randomGraph(3000, 15000, 8);
+        int[] set = Cliques.independentSet(graph);
+
+        Assertions.assertTrue(Cliques.isIndependentSet(graph, set));
+        boolean[] inSet = new boolean[graph.vertexCount()];
+        for (int v : set) {
+            inSet[v] = true;
+        }
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            if (inSet[v]) continue;
+            boolean blocked = false;
+            for (int i = 0; i < graph.degree(v) && !blocked; i++) {
+                blocked = inSet[graph.neighbor(v, i)];
+            }
+            Assertions.assertTrue(blocked, "vertex " + v + " could be added");
+        }
+        Assertions.assertFalse(Cliques.isIndependentSet(graph, Cliques.maximumClique(graph)));
+    }
+}
@@ -0,0 +1,90 @@
+package graph;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Turns keys or vertex data into bytes for a {@link GraphFile}, and back. The length of every
+ * encoded value is stored in the file, so a codec doesn't have to write it. Encoding the same
+ * value twice must give the same bytes, because keys are looked up by their encoding.
+ * @param <T> Type of the values
+ */
+public interface Codec<T> {
+
+    /**
+     * Writes a value
+     * @param value the value to write
+     * @param out the output to write to
+     * @throws IOException if the output can't be written
+     */
+    void write(T value, DataOutput out) throws IOException;
+
+    /**
+     * Reads a value
+     * @param buffer a buffer holding exactly the bytes written for the value, from its
+     *               position to its limit
+     * @return the value
+     */
+    T read(ByteBuffer buffer);
+
+    /**
+     * Get a codec for strings, which are stored as UTF-8
+     * @return the codec
+     */
+    static Codec<String> strings() {
+        return new Codec<String>() {
+            @Override
+            public void write(String value, DataOutput out) throws IOException {
+                out.write(value.getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public String read(ByteBuffer buffer) {
+                if (buffer.hasArray()) {
+                    return new String(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), StandardCharsets.UTF_8);
+                }
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    /**
+     * Get a codec for integers
+     * @return the codec
+     */
+    static Codec<Integer> integers() {
+        return new Codec<Integer>() {
+            @Override
+            public void write(Integer value, DataOutput out) throws IOException {
+                out.writeInt(value);
+            }
+
+            @Override
+            public Integer read(ByteBuffer buffer) {
+                return buffer.getInt(buffer.position());
+            }
+        };
+    }
+
+    /**
+     * Get a codec for longs
+     * @return the codec
+     */
+    static Codec<Long> longs() {
+        return new Codec<Long>() {
+            @Override
+            public void write(Long value, DataOutput out) throws IOException {
+                out.writeLong(value);
+            }
+
+            @Override
+            public Long read(ByteBuffer buffer) {
+                return buffer.getLong(buffer.position());
+            }
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Weisfeiler-Lehman colour refinement. Every vertex starts out coloured by its degree, and in
+ * each round its colour is replaced by a hash of its own colour and the multiset of its
+ * neighbours' colours. Refinement stops when a round no longer splits any colour class.
+ *
+ * Colours are computed the same way in every graph, so they can be compared across graphs:
+ * an isomorphism always maps a vertex to a vertex of the same colour.
+ */
+final class ColorRefinement {
+
+    private static final int MAX_ROUNDS = 10;
+    private static final long SELF_LOOP = 0x632BE59BD9B4E019L;
+
+    private ColorRefinement() {}
+
+    /**
+     * Refines the colours of a graph's vertices
+     * @param graph the graph to colour
+     * @return the colour of every vertex, by index
+     */
+    static long[] refine(IndexedGraph<?, ?> graph) {
+        int size = graph.vertexCount();
+        long[] colors = new long[size];
+        long[] next = new long[size];
+        for (int v = 0; v < size; v++) {
+            colors[v] = mix(graph.degree(v)) + (graph.hasEdge(v, v) ? SELF_LOOP : 0);
+        }
+
+        int classes = countDistinct(colors);
+        for (int round = 0; round < MAX_ROUNDS && classes < size; round++) {
+            for (int v = 0; v < size; v++) {
+                long neighbourhood = 0;
+                int degree = graph.degree(v);
+                for (int i = 0; i < degree; i++) {
+                    neighbourhood += mix(colors[graph.neighbor(v, i)]);
+                }
+                next[v] = mix(colors[v] * 0x9E3779B97F4A7C15L + neighbourhood);
+            }
+            long[] swap = colors;
+            colors = next;
+            next = swap;
+
+            int refined = countDistinct(colors);
+            if (refined == classes) break;
+            classes = refined;
+        }
+        return colors;
+    }
+
+    /**
+     * Combines the colours of all vertices into a single order-independent hash
+     * @param colors the vertex colours
+     * @return the hash
+     */
+    static long hash(long[] colors) {
+        long hash = colors.length;
+        for (long color : colors) {
+            hash += mix(color);
+        }
+        return hash;
+    }
+
+    private static int countDistinct(long[] colors) {
+        long[] sorted = colors.clone();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) distinct++;
+        }
+        return distinct;
+    }
+
+    /**
+     * The SplitMix64 finalizer, used to spread values over all 64 bits before they are summed.
+     */
+    static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,164 @@
+package graph;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The result of colouring an {@link IndexedGraph}: a colour for every vertex index, numbered
+ * from 0. The colouring is kept outside the vertices' data, so the same graph can be coloured
+ * any number of times, on any number of threads. The grouping of vertices by colour is only
+ * built the first time it is asked for.
+ * @param <K> Type of the keys
+ * @param <V> Type of the vertices
+ */
+public final class Coloring<K, V> {
+
+    private final IndexedGraph<K, V> graph;
+    private final int[] colors;
+    private final int colorCount;
+    private volatile Groups groups;
+
+    /**
+     * Constructor
+     * @param graph the coloured graph
+     * @param colors the colour of every vertex, by index
+     */
+    Coloring(IndexedGraph<K, V> graph, int[] colors) {
+        this.graph = graph;
+        this.colors = colors;
+        this.colorCount = GraphColoring.colorCount(colors);
+    }
+
+    /**
+     * Get the coloured graph
+     * @return the graph
+     */
+    public IndexedGraph<K, V> getGraph() {
+        return graph;
+    }
+
+    /**
+     * Get the number of colours used
+     * @return the number of colours
+     */
+    public int colorCount() {
+        return colorCount;
+    }
+
+    /**
+     * Get the colour of the vertex at the given index
+     * @param index the vertex index
+     * @return the colour of the vertex
+     */
+    public int colorOf(int index) {
+        return colors[index];
+    }
+
+    /**
+     * Get the colour of the vertex with the given key
+     * @param key the vertex key
+     * @return the colour of the vertex
+     */
+    public int colorOf(K key) {
+        int index = graph.indexOf(key);
+        if (index < 0) throw new VertexNotInGraphException("Vertex{" + key + "} is not a member of the graph");
+        return colors[index];
+    }
+
+    /**
+     * Get the colour of every vertex
+     * @return a copy of the colours, by vertex index
+     */
+    public int[] toArray() {
+        return colors.clone();
+    }
+
+    /**
+     * Get the number of vertices with the given colour
+     * @param color the colour
+     * @return the number of vertices
+     */
+    public int sizeOf(int color) {
+        Groups groups = groups();
+        return groups.offsets[color + 1] - groups.offsets[color];
+    }
+
+    /**
+     * Get the keys of the vertices with the given colour
+     * @param color the colour
+     * @return an unmodifiable list view of the keys, in vertex index order
+     */
+    public List<K> keysOf(int color) {
+        Groups groups = groups();
+        int from = groups.offsets[color];
+        int size = groups.offsets[color + 1] - from;
+        return new AbstractList<K>() {
+            @Override
+            public K get(int i) {
+                if (i < 0 || i >= size) throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+                return graph.keyAt(groups.members[from + i]);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Get the objects stored in the vertices with the given colour
+     * @param color the colour
+     * @return an unmodifiable list view of the objects, in vertex index order
+     */
+    public List<V> dataOf(int color) {
+        Groups groups = groups();
+        int from = groups.offsets[color];
+        int size = groups.offsets[color + 1] - from;
+        return new AbstractList<V>() {
+            @Override
+            public V get(int i) {
+                if (i < 0 || i >= size) throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+                return graph.dataAt(groups.members[from + i]);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private Groups groups() {
+        Groups groups = this.groups;
+        if (groups == null) {
+            groups = new Groups(colors, colorCount);
+            this.groups = groups;
+        }
+        return groups;
+    }
+
+    /**
+     * The vertex indices sorted by colour with a counting sort, and where each colour starts
+     */
+    private static final class Groups {
+        final int[] offsets;
+        final int[] members;
+
+        Groups(int[] colors, int colorCount) {
+            offsets = new int[colorCount + 1];
+            for (int color : colors) {
+                offsets[color + 1]++;
+            }
+            for (int c = 0; c < colorCount; c++) {
+                offsets[c + 1] += offsets[c];
+            }
+            int[] cursor = Arrays.copyOf(offsets, colorCount);
+            members = new int[colors.length];
+            for (int v = 0; v < colors.length; v++) {
+                members[cursor[colors[v]]++] = v;
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package graph;
+
+/**
+ * The vertex orderings {@link GraphColoring} can colour a graph with. They trade speed for
+ * the number of colours used, so the choice can be made per run.
+ */
+public enum ColoringStrategy {
+
+    /**
+     * Largest degree first (Welsh-Powell). Fast, sequential.
+     */
+    LARGEST_FIRST {
+        @Override
+        public int[] color(IndexedGraph<?, ?> graph) {
+            return GraphColoring.welshPowell(graph);
+        }
+    },
+
+    /**
+     * Largest degree first on all cores, with speculative colouring and conflict repair.
+     */
+    PARALLEL {
+        @Override
+        public int[] color(IndexedGraph<?, ?> graph) {
+            return GraphColoring.parallel(graph);
+        }
+    },
+
+    /**
+     * Smallest degree last. Never needs more colours than the graph's degeneracy plus one.
+     */
+    SMALLEST_LAST {
+        @Override
+        public int[] color(IndexedGraph<?, ?> graph) {
+            return GraphColoring.smallestLast(graph);
+        }
+    },
+
+    /**
+     * Most coloured neighbours first.
+     */
+    INCREMENTAL_DEGREE {
+        @Override
+        public int[] color(IndexedGraph<?, ?> graph) {
+            return GraphColoring.incrementalDegree(graph);
+        }
+    },
+
+    /**
+     * Most distinct neighbour colours first. Usually the fewest colours, and the slowest.
+     */
+    DSATUR {
+        @Override
+        public int[] color(IndexedGraph<?, ?> graph) {
+            return GraphColoring.dsatur(graph);
+        }
+    };
+
+    /**
+     * Colours a graph
+     * @param graph the graph to colour
+     * @return the colour of every vertex, by index, numbered from 0
+     */
+    public abstract int[] color(IndexedGraph<?, ?> graph);
+}
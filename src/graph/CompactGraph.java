@@ -0,0 +1,288 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of a {@link Graph} in compressed sparse row (CSR) form. Every key is
+ * mapped to a dense int index, and the neighbours of vertex {@code i} are stored, sorted and
+ * without duplicates, in {@code targets[offsets[i]]} to {@code targets[offsets[i + 1] - 1]}.
+ * Edge weights, if any, are kept in a parallel {@code double[]}. Neighbour iteration, degree,
+ * weight and edge lookup don't allocate.
+ * @param <K> Type of the keys
+ * @param <V> Type of the vertices
+ */
+public final class CompactGraph<K, V> implements IndexedGraph<K, V> {
+
+    private final Object[] keys;
+    private final Object[] data;
+    private final Map<K, Integer> indices;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private final long edgeCount;
+
+    /**
+     * Constructor for an unweighted graph
+     * @param keys the vertex keys, by index
+     * @param data the vertex data, by index
+     * @param indices a mapping of keys to indices
+     * @param offsets offsets of each vertex's neighbours in targets, of length keys.length + 1
+     * @param targets the neighbour indices of all vertices
+     */
+    CompactGraph(Object[] keys, Object[] data, Map<K, Integer> indices, int[] offsets, int[] targets) {
+        this(keys, data, indices, offsets, targets, null);
+    }
+
+    /**
+     * Constructor. The adjacency of every vertex is sorted and stripped of duplicates, so
+     * the arrays don't have to be normalized by the caller. Of duplicate edges, the weight of
+     * the last one is kept.
+     * @param keys the vertex keys, by index
+     * @param data the vertex data, by index
+     * @param indices a mapping of keys to indices
+     * @param offsets offsets of each vertex's neighbours in targets, of length keys.length + 1
+     * @param targets the neighbour indices of all vertices
+     * @param weights the weight of every entry in targets, or null if every weight is 1
+     */
+    CompactGraph(Object[] keys, Object[] data, Map<K, Integer> indices, int[] offsets, int[] targets, double[] weights) {
+        this.keys = keys;
+        this.data = data;
+        this.indices = indices;
+        this.offsets = offsets;
+        this.targets = weights == null ? normalize(offsets, targets) : normalize(offsets, targets, weights);
+        this.weights = weights == null ? null : Arrays.copyOf(weights, this.targets.length);
+
+        long count = 0;
+        for (int v = 0; v < keys.length; v++) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                if (this.targets[i] >= v) count++;
+            }
+        }
+        this.edgeCount = count;
+    }
+
+    /**
+     * Creates a compact snapshot of a graph
+     * @param graph the graph to snapshot
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return a new CompactGraph
+     */
+    static <K, V> CompactGraph<K, V> of(Graph<K, V> graph) {
+        Collection<Vertex<K, V>> vertices = graph.getVertices();
+        int size = vertices.size();
+        Object[] keys = new Object[size];
+        Object[] data = new Object[size];
+        Map<K, Integer> indices = new HashMap<>(size * 4 / 3 + 1);
+
+        int index = 0;
+        long total = 0;
+        for (Vertex<K, V> vertex : vertices) {
+            keys[index] = vertex.getId();
+            data[index] = vertex.getData();
+            indices.put(vertex.getId(), index++);
+            total += vertex.getDegree();
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new UnsupportedOperationException("graph has too many edges for a compact snapshot");
+        }
+
+        boolean weighted = vertices.stream().anyMatch(Vertex::isWeighted);
+        int[] offsets = new int[size + 1];
+        int[] targets = new int[(int) total];
+        double[] weights = weighted ? new double[(int) total] : null;
+        int position = 0;
+        index = 0;
+        for (Vertex<K, V> vertex : vertices) {
+            offsets[index++] = position;
+            List<Vertex<K, V>> neighbors = vertex.getAdjacentVertices();
+            for (int i = 0; i < neighbors.size(); i++) {
+                if (weighted) weights[position] = vertex.weightAt(i);
+                targets[position++] = indices.get(neighbors.get(i).getId());
+            }
+        }
+        offsets[size] = position;
+
+        return new CompactGraph<>(keys, data, indices, offsets, targets, weights);
+    }
+
+    /**
+     * Creates a compact copy of the subgraph induced by a set of vertices that no edge leaves,
+     * such as a connected component
+     * @param graph the graph to copy from
+     * @param members holds the indices of the vertices to copy from {@code from} to {@code to}
+     * @param from the position of the first vertex in members
+     * @param to the position after the last vertex in members
+     * @param local the new index of every copied vertex, by its index in the graph
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return a new CompactGraph
+     */
+    static <K, V> CompactGraph<K, V> induced(IndexedGraph<K, V> graph, int[] members, int from, int to, int[] local) {
+        int size = to - from;
+        Object[] keys = new Object[size];
+        Object[] data = new Object[size];
+        Map<K, Integer> indices = new HashMap<>(size * 4 / 3 + 1);
+        int[] offsets = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            int v = members[from + i];
+            keys[i] = graph.keyAt(v);
+            data[i] = graph.dataAt(v);
+            indices.put(graph.keyAt(v), i);
+            offsets[i + 1] = offsets[i] + graph.degree(v);
+        }
+
+        int[] targets = new int[offsets[size]];
+        double[] weights = null;
+        for (int i = 0; i < size; i++) {
+            int v = members[from + i];
+            int degree = graph.degree(v);
+            for (int n = 0; n < degree; n++) {
+                targets[offsets[i] + n] = local[graph.neighbor(v, n)];
+                double weight = graph.weight(v, n);
+                if (weight != 1.0 && weights == null) {
+                    weights = new double[targets.length];
+                    Arrays.fill(weights, 1.0);
+                }
+                if (weights != null) weights[offsets[i] + n] = weight;
+            }
+        }
+        return new CompactGraph<>(keys, data, indices, offsets, targets, weights);
+    }
+
+    /**
+     * Sorts the neighbours of each vertex and removes duplicates, compacting the targets
+     * array and rewriting the offsets in place.
+     * @return the compacted targets array
+     */
+    static int[] normalize(int[] offsets, int[] targets) {
+        int write = 0;
+        int start = offsets[0];
+        for (int v = 0; v < offsets.length - 1; v++) {
+            int end = offsets[v + 1];
+            Arrays.sort(targets, start, end);
+            offsets[v] = write;
+            for (int i = start; i < end; i++) {
+                if (i == start || targets[i] != targets[i - 1]) {
+                    targets[write++] = targets[i];
+                }
+            }
+            start = end;
+        }
+        offsets[offsets.length - 1] = write;
+        return write == targets.length ? targets : Arrays.copyOf(targets, write);
+    }
+
+    /**
+     * Sorts the neighbours of each vertex together with their weights and removes duplicates,
+     * keeping the weight of the last duplicate. Compacts the targets and weights arrays in
+     * place and rewrites the offsets.
+     * @return the compacted targets array
+     */
+    static int[] normalize(int[] offsets, int[] targets, double[] weights) {
+        int write = 0;
+        int start = offsets[0];
+        long[] order = new long[16];
+        double[] sorted = new double[16];
+        for (int v = 0; v < offsets.length - 1; v++) {
+            int end = offsets[v + 1];
+            int length = end - start;
+            if (length > order.length) {
+                order = new long[Math.max(length, order.length * 2)];
+                sorted = new double[order.length];
+            }
+            for (int i = 0; i < length; i++) {
+                order[i] = (long) targets[start + i] << 32 | i;
+                sorted[i] = weights[start + i];
+            }
+            Arrays.sort(order, 0, length);
+
+            offsets[v] = write;
+            for (int i = 0; i < length; i++) {
+                int target = (int) (order[i] >>> 32);
+                double weight = sorted[(int) order[i]];
+                if (write > offsets[v] && targets[write - 1] == target) {
+                    weights[write - 1] = weight;
+                } else {
+                    targets[write] = target;
+                    weights[write++] = weight;
+                }
+            }
+            start = end;
+        }
+        offsets[offsets.length - 1] = write;
+        return write == targets.length ? targets : Arrays.copyOf(targets, write);
+    }
+
+    @Override
+    public int vertexCount() {
+        return keys.length;
+    }
+
+    @Override
+    public long edgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int indexOf(K key) {
+        Integer index = indices.get(key);
+        return index == null ? -1 : index;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public K keyAt(int index) {
+        return (K) keys[index];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V dataAt(int index) {
+        return (V) data[index];
+    }
+
+    @Override
+    public int degree(int index) {
+        return offsets[index + 1] - offsets[index];
+    }
+
+    @Override
+    public int neighbor(int index, int i) {
+        return targets[offsets[index] + i];
+    }
+
+    @Override
+    public double weight(int index, int i) {
+        return weights == null ? 1.0 : weights[offsets[index] + i];
+    }
+
+    /**
+     * Checks if any edge has a weight other than 1
+     * @return true if the graph stores weights, false otherwise
+     */
+    public boolean isWeighted() {
+        return weights != null;
+    }
+
+    @Override
+    public boolean hasEdge(int from, int to) {
+        return Arrays.binarySearch(targets, offsets[from], offsets[from + 1], to) >= 0;
+    }
+
+    /**
+     * Checks if there is an edge between the vertices with the given keys
+     * @param key1 key of the vertex on one side of the edge
+     * @param key2 key of the vertex on the other side of the edge
+     * @return true if both keys are in the graph and the edge exists, false otherwise
+     */
+    public boolean hasEdge(K key1, K key2) {
+        int from = indexOf(key1);
+        int to = indexOf(key2);
+        return from >= 0 && to >= 0 && hasEdge(from, to);
+    }
+}
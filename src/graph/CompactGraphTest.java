@@ -0,0 +1,61 @@
+package graph;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+class CompactGraphTest {
+
+    private Graph<String, Integer> triangleWithTail() {
+        return Graph.<String, Integer>create()
+                .addVertices(Arrays.asList(1, 2, 3, 4), i -> "v" + i)
+                .addEdges(Arrays.asList(
+                        Pair.of("v1", "v2"),
+                        Pair.of("v2", "v3"),
+                        Pair.of("v3", "v1"),
+                        Pair.of("v3", "v4")));
+    }
+
+    @Test
+    @DisplayName("A frozen graph has the same vertices, degrees and edges as the source graph")
+    void testFreeze(){
+        CompactGraph<String, Integer> compact = triangleWithTail().freeze();
+
+        Assertions.assertEquals(4, compact.vertexCount());
+        Assertions.assertEquals(4, compact.edgeCount());
+        Assertions.assertEquals(3, compact.degree(compact.indexOf("v3")));
+        Assertions.assertEquals(1, compact.degree(compact.indexOf("v4")));
+        Assertions.assertEquals(Integer.valueOf(4), compact.dataAt(compact.indexOf("v4")));
+
+        Assertions.assertTrue(compact.hasEdge("v1", "v3"));
+        Assertions.assertTrue(compact.hasEdge("v4", "v3"));
+        Assertions.assertFalse(compact.hasEdge("v1", "v4"));
+        Assertions.assertFalse(compact.hasEdge("v1", "missing"));
+        Assertions.assertEquals(-1, compact.indexOf("missing"));
+    }
+
+    @Test
+    @DisplayName("Neighbours of a frozen vertex are sorted by index")
+    void testNeighboursAreSorted(){
+        CompactGraph<String, Integer> compact = triangleWithTail().freeze();
+
+        for (int v = 0; v < compact.vertexCount(); v++) {
+            for (int i = 1; i < compact.degree(v); i++) {
+                Assertions.assertTrue(compact.neighbor(v, i - 1) < compact.neighbor(v, i));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A frozen graph does not change when the source graph changes")
+    void testFreezeIsASnapshot(){
+        Graph<String, Integer> graph = triangleWithTail();
+        CompactGraph<String, Integer> compact = graph.freeze();
+        graph.removeVertex("v3");
+
+        Assertions.assertEquals(4, compact.vertexCount());
+        Assertions.assertTrue(compact.hasEdge("v3", "v4"));
+    }
+}
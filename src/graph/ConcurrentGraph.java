@@ -0,0 +1,353 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * An undirected graph that many threads can add to, remove from and read at the same time.
+ * Vertices are kept in a {@link ConcurrentHashMap} of keys, and every vertex keeps its
+ * neighbours in a ConcurrentHashMap of the neighbour's key to the edge.
+ *
+ * Writers lock the stripes of the keys they change, so writers working on different parts of
+ * the graph don't wait for each other; a write to an edge holds the stripes of both ends,
+ * taken in stripe order. Readers never lock. Each edge is a single object shared by both
+ * ends and the edge set, and is only visible to readers once its volatile {@code live} flag
+ * is set, which happens after it has been added everywhere. Removing an edge clears the
+ * flag first. A reader therefore sees an edge on both of its ends or on neither, whichever
+ * end it looks from.
+ *
+ * Iterating the vertices, neighbours or edges is weakly consistent, like iterating a
+ * ConcurrentHashMap: it never throws {@link java.util.ConcurrentModificationException}, but
+ * may or may not reflect changes made while it runs.
+ * @param <K> Type of the keys
+ * @param <V> Type of the vertices
+ */
+public final class ConcurrentGraph<K, V> {
+
+    private final ConcurrentHashMap<K, Node<K, V>> vertices = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Pair<K>, Edge<K, V>> edges = new ConcurrentHashMap<>();
+    private final Object[] stripes;
+
+    private ConcurrentGraph(int stripeCount) {
+        stripes = new Object[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    /**
+     * Factory method to create graphs, with four lock stripes per available processor
+     * @param <K> The key type
+     * @param <V> The value type
+     * @return a new, empty graph
+     */
+    public static <K, V> ConcurrentGraph<K, V> create() {
+        return create(4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Factory method to create graphs with a given number of lock stripes. More stripes let
+     * more writers work at the same time, at the cost of one small object each.
+     * @param stripes the number of stripes, rounded up to a power of two
+     * @param <K> The key type
+     * @param <V> The value type
+     * @return a new, empty graph
+     */
+    public static <K, V> ConcurrentGraph<K, V> create(int stripes) {
+        if (stripes < 1) throw new IllegalArgumentException("stripes must be positive: " + stripes);
+        return new ConcurrentGraph<>(Integer.highestOneBit(stripes * 2 - 1));
+    }
+
+    /**
+     * Adds a vertex to the graph. Adding a key that is already in the graph replaces its
+     * data and keeps its edges.
+     * @param key the key of the vertex
+     * @param data the data
+     * @return the graph
+     */
+    public ConcurrentGraph<K, V> addVertex(K key, V data) {
+        synchronized (stripes[stripe(key)]) {
+            Node<K, V> node = vertices.get(key);
+            if (node == null) {
+                vertices.put(key, new Node<>(key, data));
+            } else {
+                node.data = data;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds an edge between two vertices. Adding an edge that is already in the graph does
+     * nothing.
+     * @param key1 key for the vertex on one side of the edge
+     * @param key2 key for the vertex on the other side of the edge
+     * @return the graph
+     * @throws VertexNotInGraphException if either key is not in the graph
+     */
+    public ConcurrentGraph<K, V> addEdge(K key1, K key2) {
+        return addEdge(key1, key2, 1.0, false);
+    }
+
+    /**
+     * Adds a weighted edge between two vertices. If the edge is already in the graph, its
+     * weight is changed.
+     * @param key1 key for the vertex on one side of the edge
+     * @param key2 key for the vertex on the other side of the edge
+     * @param weight the weight of the edge
+     * @return the graph
+     * @throws VertexNotInGraphException if either key is not in the graph
+     */
+    public ConcurrentGraph<K, V> addEdge(K key1, K key2, double weight) {
+        if (Double.isNaN(weight)) throw new IllegalArgumentException("edge weight must be a number");
+        return addEdge(key1, key2, weight, true);
+    }
+
+    private ConcurrentGraph<K, V> addEdge(K key1, K key2, double weight, boolean setWeight) {
+        int stripe1 = stripe(key1);
+        int stripe2 = stripe(key2);
+        synchronized (stripes[Math.min(stripe1, stripe2)]) {
+            synchronized (stripes[Math.max(stripe1, stripe2)]) {
+                Node<K, V> node1 = node(key1);
+                Node<K, V> node2 = node(key2);
+                Edge<K, V> edge = node1.adjacent.get(key2);
+                if (edge != null && edge.live) {
+                    if (setWeight) edge.weight = weight;
+                    return this;
+                }
+                edge = new Edge<>(node1, node2, weight);
+                node1.adjacent.put(key2, edge);
+                node2.adjacent.put(key1, edge);
+                edges.put(edge.pair, edge);
+                edge.live = true;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Removes a vertex and its edges from the graph
+     * @param key the key of the vertex
+     * @return the graph
+     * @throws VertexNotInGraphException if the key is not in the graph
+     */
+    public ConcurrentGraph<K, V> removeVertex(K key) {
+        Node<K, V> removed;
+        synchronized (stripes[stripe(key)]) {
+            removed = vertices.remove(key);
+            if (removed == null) throw new VertexNotInGraphException("Vertex{" + key + "} is not a member of the graph");
+            // every write to these edges needs this stripe, so they can be retired without the neighbours' stripes
+            for (Edge<K, V> edge : removed.adjacent.values()) {
+                edge.live = false;
+                edges.remove(edge.pair, edge);
+            }
+        }
+        for (Edge<K, V> edge : removed.adjacent.values()) {
+            edge.opposite(removed).adjacent.remove(key, edge);
+        }
+        return this;
+    }
+
+    /**
+     * Removes the edge between two vertices, if it exists. Otherwise does nothing.
+     * @param key1 key for the vertex on one side of the edge
+     * @param key2 key for the vertex on the other side of the edge
+     * @return the graph
+     */
+    public ConcurrentGraph<K, V> removeEdge(K key1, K key2) {
+        int stripe1 = stripe(key1);
+        int stripe2 = stripe(key2);
+        synchronized (stripes[Math.min(stripe1, stripe2)]) {
+            synchronized (stripes[Math.max(stripe1, stripe2)]) {
+                Node<K, V> node1 = vertices.get(key1);
+                Node<K, V> node2 = vertices.get(key2);
+                if (node1 == null || node2 == null) return this;
+                Edge<K, V> edge = node1.adjacent.get(key2);
+                if (edge == null || !edge.live) return this;
+                edge.live = false;
+                node1.adjacent.remove(key2, edge);
+                node2.adjacent.remove(key1, edge);
+                edges.remove(edge.pair, edge);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Checks if a vertex is in the graph
+     * @param key the key of the vertex
+     * @return true if the vertex is in the graph
+     */
+    public boolean containsVertex(K key) {
+        return vertices.containsKey(key);
+    }
+
+    /**
+     * Get the data of a vertex
+     * @param key the key of the vertex
+     * @return the data
+     * @throws VertexNotInGraphException if the key is not in the graph
+     */
+    public V getData(K key) {
+        return node(key).data;
+    }
+
+    /**
+     * Checks if there is an edge between two vertices
+     * @param key1 key for the vertex on one side of the edge
+     * @param key2 key for the vertex on the other side of the edge
+     * @return true if both vertices are in the graph and the edge exists, false otherwise
+     */
+    public boolean hasEdge(K key1, K key2) {
+        Node<K, V> node = vertices.get(key1);
+        if (node == null) return false;
+        Edge<K, V> edge = node.adjacent.get(key2);
+        return edge != null && edge.live;
+    }
+
+    /**
+     * Get the weight of the edge between two vertices
+     * @param key1 key for the vertex on one side of the edge
+     * @param key2 key for the vertex on the other side of the edge
+     * @return the weight of the edge, or NaN if there is no such edge
+     * @throws VertexNotInGraphException if either key is not in the graph
+     */
+    public double getWeight(K key1, K key2) {
+        Node<K, V> node = node(key1);
+        node(key2);
+        Edge<K, V> edge = node.adjacent.get(key2);
+        return edge != null && edge.live ? edge.weight : Double.NaN;
+    }
+
+    /**
+     * Get the keys of the vertices adjacent to a vertex
+     * @param key the key of the vertex
+     * @return a new list of the neighbours' keys
+     * @throws VertexNotInGraphException if the key is not in the graph
+     */
+    public List<K> getAdjacentKeys(K key) {
+        List<K> neighbors = new ArrayList<>();
+        Node<K, V> node = node(key);
+        for (Edge<K, V> edge : node.adjacent.values()) {
+            if (edge.live) neighbors.add(edge.opposite(node).key);
+        }
+        return neighbors;
+    }
+
+    /**
+     * Get the number of vertices adjacent to a vertex
+     * @param key the key of the vertex
+     * @return the degree of the vertex
+     * @throws VertexNotInGraphException if the key is not in the graph
+     */
+    public int getDegree(K key) {
+        int degree = 0;
+        for (Edge<K, V> edge : node(key).adjacent.values()) {
+            if (edge.live) degree++;
+        }
+        return degree;
+    }
+
+    /**
+     * Get the keys of the vertices in the graph
+     * @return an unmodifiable, weakly consistent view of the keys
+     */
+    public Set<K> getKeys() {
+        return Collections.unmodifiableSet(vertices.keySet());
+    }
+
+    /**
+     * Get the number of vertices in the graph
+     * @return the number of vertices
+     */
+    public int vertexCount() {
+        return vertices.size();
+    }
+
+    /**
+     * Get the number of edges in the graph
+     * @return the number of edges
+     */
+    public long edgeCount() {
+        return edges.mappingCount();
+    }
+
+    /**
+     * Get a weakly consistent stream of the edges in the graph, each as a pair of keys
+     * @return a stream of edges as pairs of keys
+     */
+    public Stream<Pair<K>> edgeStream() {
+        return edges.values().stream()
+                .filter(edge -> edge.live)
+                .map(edge -> edge.pair);
+    }
+
+    /**
+     * Copies the graph into a new {@link Graph}. The copy is taken while writers keep
+     * working, so it holds every edge that was in the graph for the whole copy and may hold
+     * edges added or removed during it.
+     * @return a new graph with the vertices and edges of this graph
+     */
+    public Graph<K, V> toGraph() {
+        GraphLoader<K, V> loader = GraphLoader.create();
+        for (Node<K, V> node : vertices.values()) {
+            loader.addVertex(node.key, node.data);
+        }
+        for (Edge<K, V> edge : edges.values()) {
+            if (!edge.live) continue;
+            try {
+                loader.addEdge(edge.pair.one(), edge.pair.other(), edge.weight);
+            } catch (VertexNotInGraphException e) {
+                // the vertex was added after the vertices were copied
+            }
+        }
+        return loader.load();
+    }
+
+    private int stripe(K key) {
+        int h = key == null ? 0 : key.hashCode();
+        h ^= h >>> 16;
+        return h & (stripes.length - 1);
+    }
+
+    private Node<K, V> node(K key) {
+        Node<K, V> node = vertices.get(key);
+        if (node == null) throw new VertexNotInGraphException("Vertex{" + key + "} is not a member of the graph");
+        return node;
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        volatile V data;
+        final ConcurrentHashMap<K, Edge<K, V>> adjacent = new ConcurrentHashMap<>();
+
+        Node(K key, V data) {
+            this.key = key;
+            this.data = data;
+        }
+    }
+
+    private static final class Edge<K, V> {
+        final Pair<K> pair;
+        final Node<K, V> one;
+        final Node<K, V> other;
+        volatile double weight;
+        // set once the edge is in both adjacency maps and the edge set, cleared before it leaves them
+        volatile boolean live;
+
+        Edge(Node<K, V> one, Node<K, V> other, double weight) {
+            this.pair = Pair.of(one.key, other.key);
+            this.one = one;
+            this.other = other;
+            this.weight = weight;
+        }
+
+        Node<K, V> opposite(Node<K, V> node) {
+            return node == one ? other : one;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package graph;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+class ConcurrentGraphTest {
+
+    private static final int VERTICES = 2000;
+    private static final int WRITERS = 8;
+    private static final int EDGES_PER_WRITER = 20000;
+
+    @Test
+    @DisplayName("Edges are added, weighted and removed like in Graph")
+    void testBasics(){
+        ConcurrentGraph<String, Integer> graph = ConcurrentGraph.create(2);
+        graph.addVertex("a", 1).addVertex("b", 2).addVertex("c", 3)
+                .addEdge("a", "b").addEdge("b", "a").addEdge("b", "c", 2.5);
+
+        Assertions.assertEquals(2, graph.edgeCount());
+        Assertions.assertTrue(graph.hasEdge("b", "a"));
+        Assertions.assertEquals(2.5, graph.getWeight("c", "b"));
+        Assertions.assertTrue(Double.isNaN(graph.getWeight("a", "c")));
+        Assertions.assertEquals(2, graph.getDegree("b"));
+
+        graph.addVertex("b", 20);
+        Assertions.assertEquals(20, graph.getData("b"));
+        Assertions.assertEquals(2, graph.getDegree("b"));
+
+        graph.removeVertex("b");
+        Assertions.assertEquals(0, graph.edgeCount());
+        Assertions.assertTrue(graph.getAdjacentKeys("a").isEmpty());
+        Assertions.assertThrows(VertexNotInGraphException.class, () -> graph.addEdge("a", "b"));
+
+        graph.addVertex("b", 2).addEdge("a", "b").removeEdge("b", "a");
+        Assertions.assertFalse(graph.hasEdge("a", "b"));
+    }
+
+    @Test
+    @DisplayName("Concurrent writers keep both ends of every edge in sync while readers run")
+    void testStress() throws Exception {
+        ConcurrentGraph<Integer, Integer> graph = ConcurrentGraph.create();
+        for (int i = 0; i < VERTICES; i++) {
+            graph.addVertex(i, i);
+        }
+
+        // every writer owns the pairs that hash to it, adds them all and removes every third
+        List<Set<Pair<Integer>>> expected = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + 2);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            Set<Pair<Integer>> kept = new HashSet<>();
+            expected.add(kept);
+            int writer = w;
+            writers.add(executor.submit(() -> {
+                Random random = new Random(writer);
+                List<Pair<Integer>> added = new ArrayList<>();
+                while (added.size() < EDGES_PER_WRITER) {
+                    Pair<Integer> pair = Pair.of(random.nextInt(VERTICES), random.nextInt(VERTICES));
+                    if (Math.floorMod(pair.hashCode(), WRITERS) != writer) continue;
+                    graph.addEdge(pair.one(), pair.other());
+                    added.add(pair);
+                }
+                kept.addAll(added);
+                for (int i = 0; i < added.size(); i += 3) {
+                    Pair<Integer> pair = added.get(i);
+                    graph.removeEdge(pair.other(), pair.one());
+                    kept.remove(pair);
+                }
+            }));
+        }
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<Integer>> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            readers.add(executor.submit(() -> {
+                Random random = new Random();
+                int reads = 0;
+                while (writing.get()) {
+                    int v = random.nextInt(VERTICES);
+                    for (int w : graph.getAdjacentKeys(v)) {
+                        reads++;
+                        graph.hasEdge(w, v);
+                    }
+                    graph.edgeStream().limit(100).count();
+                }
+                return reads;
+            }));
+        }
+
+        for (Future<?> writer : writers) {
+            writer.get(60, TimeUnit.SECONDS);
+        }
+        writing.set(false);
+        for (Future<Integer> reader : readers) {
+            Assertions.assertTrue(reader.get(60, TimeUnit.SECONDS) >= 0);
+        }
+        executor.shutdown();
+
+        Set<Pair<Integer>> all = expected.stream().flatMap(Set::stream).collect(Collectors.toSet());
+        Assertions.assertEquals(all, graph.edgeStream().collect(Collectors.toSet()));
+        Assertions.assertEquals(all.size(), graph.edgeCount());
+
+        long ends = 0;
+        for (int v = 0; v < VERTICES; v++) {
+            for (int w : graph.getAdjacentKeys(v)) {
+                Assertions.assertTrue(graph.getAdjacentKeys(w).contains(v));
+                Assertions.assertTrue(all.contains(Pair.of(v, w)));
+                ends += v == w ? 2 : 1;
+            }
+        }
+        Assertions.assertEquals(2 * all.size(), ends);
+    }
+
+    @Test
+    @DisplayName("Removing vertices while edges are added to them leaves no dangling edges")
+    void testConcurrentRemoval() throws Exception {
+        ConcurrentGraph<Integer, Integer> graph = ConcurrentGraph.create(4);
+        for (int i = 0; i < 200; i++) {
+            graph.addVertex(i, i);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int t = 0; t < 3; t++) {
+            int seed = t;
+            tasks.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 50000; i++) {
+                    try {
+                        graph.addEdge(random.nextInt(200), random.nextInt(200));
+                    } catch (VertexNotInGraphException e) {
+                        // the remover got there first
+                    }
+                }
+            }));
+        }
+        tasks.add(executor.submit(() -> {
+            for (int i = 0; i < 200; i += 2) {
+                graph.removeVertex(i);
+            }
+        }));
+        for (Future<?> task : tasks) {
+            task.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Assertions.assertEquals(100, graph.vertexCount());
+        graph.edgeStream().forEach(pair -> {
+            Assertions.assertTrue(graph.containsVertex(pair.one()));
+            Assertions.assertTrue(graph.containsVertex(pair.other()));
+        });
+        for (int v : graph.getKeys()) {
+            for (int w : graph.getAdjacentKeys(v)) {
+                Assertions.assertTrue(graph.containsVertex(w));
+                Assertions.assertTrue(graph.hasEdge(w, v));
+            }
+        }
+        Assertions.assertEquals(graph.edgeCount(), graph.toGraph().getEdgeSet().size());
+    }
+}
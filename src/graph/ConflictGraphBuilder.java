@@ -0,0 +1,186 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builds the conflict graph of a bipartite membership relation: vertices are joined by an
+ * edge whenever they share a group, such as two courses that have a student in common.
+ *
+ * Vertices are numbered in the order they are added, and memberships are recorded as pairs
+ * of int group and vertex numbers, so no objects are created per membership or per conflict.
+ * When the graph is built, the groups are split across the common fork-join pool; each task
+ * encodes the conflicts of its groups as sorted, de-duplicated {@code long}s, and the results
+ * are merged pairwise on the way back up into the adjacency arrays of a {@link CompactGraph}.
+ * @param <K> Type of the keys
+ * @param <V> Type of the vertices
+ */
+public final class ConflictGraphBuilder<K, V> {
+
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
+
+    private final List<K> keys = new ArrayList<>();
+    private final List<V> data = new ArrayList<>();
+    private final Map<K, Integer> indices = new HashMap<>();
+    private int[][] members = new int[16][];
+    private int[] sizes = new int[16];
+    private int groupCount;
+
+    /**
+     * Adds a vertex. Adding a key that was already added replaces its data.
+     * @param key the key of the vertex
+     * @param value the data
+     * @return the number of the vertex, used to add it to groups
+     */
+    public int addVertex(K key, V value) {
+        Integer index = indices.putIfAbsent(key, keys.size());
+        if (index != null) {
+            data.set(index, value);
+            return index;
+        }
+        keys.add(key);
+        data.add(value);
+        return keys.size() - 1;
+    }
+
+    /**
+     * Get the number of vertices added so far
+     * @return the number of vertices
+     */
+    public int vertexCount() {
+        return keys.size();
+    }
+
+    /**
+     * Adds a vertex to a group. Groups are numbered by the caller from 0; dense numbers use
+     * the least memory.
+     * @param group the number of the group
+     * @param vertex the number of the vertex, as returned by {@link #addVertex(Object, Object)}
+     * @return the builder
+     */
+    public ConflictGraphBuilder<K, V> addMember(int group, int vertex) {
+        if (vertex < 0 || vertex >= keys.size()) throw new VertexNotInGraphException("no vertex at position " + vertex);
+        if (group < 0) throw new IllegalArgumentException("group numbers must not be negative: " + group);
+
+        if (group >= members.length) {
+            int length = Math.max(group + 1, members.length * 2);
+            members = Arrays.copyOf(members, length);
+            sizes = Arrays.copyOf(sizes, length);
+        }
+        int[] groupMembers = members[group];
+        if (groupMembers == null) {
+            groupMembers = members[group] = new int[4];
+        } else if (sizes[group] == groupMembers.length) {
+            groupMembers = members[group] = Arrays.copyOf(groupMembers, groupMembers.length * 2);
+        }
+        groupMembers[sizes[group]++] = vertex;
+        groupCount = Math.max(groupCount, group + 1);
+        return this;
+    }
+
+    /**
+     * Builds the conflict graph from the vertices and memberships added so far
+     * @return a new CompactGraph
+     */
+    public CompactGraph<K, V> build() {
+        long[] conflicts = ForkJoinPool.commonPool().invoke(new Conflicts(members, sizes, 0, groupCount));
+
+        int size = keys.size();
+        int[] offsets = new int[size + 1];
+        for (long conflict : conflicts) {
+            offsets[(int) (conflict >>> 32) + 1]++;
+            offsets[(int) conflict + 1]++;
+        }
+        for (int v = 0; v < size; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] cursor = Arrays.copyOf(offsets, size);
+        int[] targets = new int[offsets[size]];
+        for (long conflict : conflicts) {
+            int a = (int) (conflict >>> 32);
+            int b = (int) conflict;
+            targets[cursor[a]++] = b;
+            targets[cursor[b]++] = a;
+        }
+
+        return new CompactGraph<>(keys.toArray(), data.toArray(), new HashMap<>(indices), offsets, targets);
+    }
+
+    /**
+     * Collects the conflicts of a range of groups as sorted, distinct {@code a << 32 | b}
+     * values with {@code a < b}
+     */
+    private static final class Conflicts extends RecursiveTask<long[]> {
+        private final int[][] members;
+        private final int[] sizes;
+        private final int from;
+        private final int to;
+
+        Conflicts(int[][] members, int[] sizes, int from, int to) {
+            this.members = members;
+            this.sizes = sizes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from > SEQUENTIAL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                Conflicts left = new Conflicts(members, sizes, from, middle);
+                left.fork();
+                long[] right = new Conflicts(members, sizes, middle, to).compute();
+                return merge(left.join(), right);
+            }
+
+            long pairs = 0;
+            for (int g = from; g < to; g++) {
+                pairs += (long) sizes[g] * (sizes[g] - 1) / 2;
+            }
+            if (pairs > Integer.MAX_VALUE - 8) {
+                throw new UnsupportedOperationException("too many conflicts in groups " + from + " to " + to);
+            }
+
+            long[] conflicts = new long[(int) pairs];
+            int count = 0;
+            for (int g = from; g < to; g++) {
+                if (members[g] == null) continue;
+                int[] group = Arrays.copyOf(members[g], sizes[g]);
+                Arrays.sort(group);
+                for (int i = 0; i < group.length; i++) {
+                    if (i > 0 && group[i] == group[i - 1]) continue;
+                    for (int j = i + 1; j < group.length; j++) {
+                        if (group[j] != group[j - 1]) conflicts[count++] = (long) group[i] << 32 | group[j];
+                    }
+                }
+            }
+            Arrays.sort(conflicts, 0, count);
+            return distinct(conflicts, count);
+        }
+
+        private static long[] distinct(long[] sorted, int length) {
+            int count = 0;
+            for (int i = 0; i < length; i++) {
+                if (count == 0 || sorted[i] != sorted[count - 1]) sorted[count++] = sorted[i];
+            }
+            return count == sorted.length ? sorted : Arrays.copyOf(sorted, count);
+        }
+
+        private static long[] merge(long[] left, long[] right) {
+            long[] merged = new long[left.length + right.length];
+            int i = 0;
+            int j = 0;
+            int count = 0;
+            while (i < left.length || j < right.length) {
+                long next = j == right.length || (i < left.length && left[i] <= right[j]) ? left[i++] : right[j++];
+                if (count == 0 || merged[count - 1] != next) merged[count++] = next;
+            }
+            return count == merged.length ? merged : Arrays.copyOf(merged, count);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package graph;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+class ConflictGraphBuilderTest {
+
+    @Test
+    @DisplayName("Vertices sharing a group are joined, once, and nothing else is")
+    void testConflicts(){
+        ConflictGraphBuilder<String, Integer> builder = new ConflictGraphBuilder<>();
+        int a = builder.addVertex("a", 1);
+        int b = builder.addVertex("b", 2);
+        int c = builder.addVertex("c", 3);
+        int d = builder.addVertex("d", 4);
+        builder.addMember(0, a).addMember(0, b).addMember(0, b)
+                .addMember(1, a).addMember(1, b).addMember(1, c)
+                .addMember(5, d);
+
+        CompactGraph<String, Integer> graph = builder.build();
+
+        Assertions.assertEquals(4, graph.vertexCount());
+        Assertions.assertEquals(3, graph.edgeCount());
+        Assertions.assertTrue(graph.hasEdge("a", "b"));
+        Assertions.assertTrue(graph.hasEdge("b", "c"));
+        Assertions.assertTrue(graph.hasEdge("a", "c"));
+        Assertions.assertEquals(0, graph.degree(d));
+        Assertions.assertEquals(Integer.valueOf(4), graph.dataAt(graph.indexOf("d")));
+        Assertions.assertThrows(VertexNotInGraphException.class, () -> builder.addMember(0, 4));
+    }
+
+    @Test
+    @DisplayName("The built graph has the same edges as one built pair by pair")
+    void testMatchesGraph(){
+        ConflictGraphBuilder<Integer, Integer> builder = new ConflictGraphBuilder<>();
+        GraphLoader<Integer, Integer> loader = GraphLoader.create();
+        int size = 2000;
+        for (int i = 0; i < size; i++) {
+            builder.addVertex(i, i);
+            loader.addVertex(i, i);
+        }
+        Random random = new Random(12);
+        for (int group = 0; group < 5000; group++) {
+            int[] members = new int[1 + random.nextInt(5)];
+            for (int m = 0; m < members.length; m++) {
+                members[m] = random.nextInt(size);
+                builder.addMember(group, members[m]);
+                for (int other = 0; other < m; other++) {
+                    if (members[other] != members[m]) loader.addEdge(members[other], members[m]);
+                }
+            }
+        }
+
+        CompactGraph<Integer, Integer> built = builder.build();
+        CompactGraph<Integer, Integer> expected = loader.load().freeze();
+
+        Assertions.assertEquals(expected.edgeCount(), built.edgeCount());
+        for (int v = 0; v < size; v++) {
+            int index = built.indexOf(v);
+            Assertions.assertEquals(expected.degree(expected.indexOf(v)), built.degree(index));
+            for (int i = 0; i < built.degree(index); i++) {
+                Assertions.assertTrue(expected.hasEdge(expected.indexOf(v), expected.indexOf(built.keyAt(built.neighbor(index, i)))));
+            }
+        }
+    }
+}
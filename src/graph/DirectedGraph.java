@@ -0,0 +1,180 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * An immutable directed graph in compressed sparse row (CSR) form, like {@link CompactGraph}
+ * but with the out-edges and the in-edges of every vertex kept in two separate CSR arrays.
+ * Both are sorted and without duplicates, so out- and in-neighbours can be iterated and
+ * looked up without allocating. Directed graphs are built with
+ * {@link GraphLoader#loadDirected()}, where every edge points from its first key to its
+ * second, and can be written and mapped with {@link GraphFile}.
+ * @param <K> Type of the keys
+ * @param <V> Type of the vertices
+ */
+public final class DirectedGraph<K, V> implements DirectedIndexedGraph<K, V> {
+
+    private final Object[] keys;
+    private final Object[] data;
+    private final Map<K, Integer> indices;
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final double[] outWeights;
+    private final int[] inOffsets;
+    private final int[] inTargets;
+    private final double[] inWeights;
+    private DirectedGraph<K, V> reverse;
+
+    /**
+     * Constructor. The out-edges of every vertex are sorted and stripped of duplicates, keeping
+     * the weight of the last duplicate, and the in-edges are derived from them.
+     * @param keys the vertex keys, by index
+     * @param data the vertex data, by index
+     * @param indices a mapping of keys to indices
+     * @param offsets offsets of each vertex's out-neighbours in targets, of length keys.length + 1
+     * @param targets the out-neighbour indices of all vertices
+     * @param weights the weight of every entry in targets, or null if every weight is 1
+     */
+    DirectedGraph(Object[] keys, Object[] data, Map<K, Integer> indices, int[] offsets, int[] targets, double[] weights) {
+        this.keys = keys;
+        this.data = data;
+        this.indices = indices;
+        this.outOffsets = offsets;
+        this.outTargets = weights == null
+                ? CompactGraph.normalize(offsets, targets)
+                : CompactGraph.normalize(offsets, targets, weights);
+        this.outWeights = weights == null ? null : Arrays.copyOf(weights, outTargets.length);
+
+        // scattering the edges by target in source order leaves every in-list sorted
+        int size = keys.length;
+        inOffsets = new int[size + 1];
+        for (int target : outTargets) {
+            inOffsets[target + 1]++;
+        }
+        for (int v = 0; v < size; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        int[] cursor = Arrays.copyOf(inOffsets, size);
+        inTargets = new int[outTargets.length];
+        inWeights = weights == null ? null : new double[outTargets.length];
+        for (int v = 0; v < size; v++) {
+            for (int i = outOffsets[v]; i < outOffsets[v + 1]; i++) {
+                int position = cursor[outTargets[i]]++;
+                inTargets[position] = v;
+                if (inWeights != null) inWeights[position] = outWeights[i];
+            }
+        }
+    }
+
+    /**
+     * Constructor for the reverse view of a graph
+     */
+    private DirectedGraph(DirectedGraph<K, V> graph) {
+        this.keys = graph.keys;
+        this.data = graph.data;
+        this.indices = graph.indices;
+        this.outOffsets = graph.inOffsets;
+        this.outTargets = graph.inTargets;
+        this.outWeights = graph.inWeights;
+        this.inOffsets = graph.outOffsets;
+        this.inTargets = graph.outTargets;
+        this.inWeights = graph.outWeights;
+        this.reverse = graph;
+    }
+
+    @Override
+    public int vertexCount() {
+        return keys.length;
+    }
+
+    @Override
+    public long edgeCount() {
+        return outTargets.length;
+    }
+
+    @Override
+    public int indexOf(K key) {
+        Integer index = indices.get(key);
+        return index == null ? -1 : index;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public K keyAt(int index) {
+        return (K) keys[index];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V dataAt(int index) {
+        return (V) data[index];
+    }
+
+    @Override
+    public int degree(int index) {
+        return outOffsets[index + 1] - outOffsets[index];
+    }
+
+    @Override
+    public int neighbor(int index, int i) {
+        return outTargets[outOffsets[index] + i];
+    }
+
+    @Override
+    public double weight(int index, int i) {
+        return outWeights == null ? 1.0 : outWeights[outOffsets[index] + i];
+    }
+
+    @Override
+    public int inDegree(int index) {
+        return inOffsets[index + 1] - inOffsets[index];
+    }
+
+    @Override
+    public int inNeighbor(int index, int i) {
+        return inTargets[inOffsets[index] + i];
+    }
+
+    @Override
+    public double inWeight(int index, int i) {
+        return inWeights == null ? 1.0 : inWeights[inOffsets[index] + i];
+    }
+
+    /**
+     * Checks if there is an edge from one vertex to another
+     * @param from index of the vertex the edge starts at
+     * @param to index of the vertex the edge points to
+     * @return true if the edge exists, false otherwise
+     */
+    @Override
+    public boolean hasEdge(int from, int to) {
+        return Arrays.binarySearch(outTargets, outOffsets[from], outOffsets[from + 1], to) >= 0;
+    }
+
+    /**
+     * Checks if there is an edge from the vertex with one key to the vertex with another
+     * @param key1 key of the vertex the edge starts at
+     * @param key2 key of the vertex the edge points to
+     * @return true if both keys are in the graph and the edge exists, false otherwise
+     */
+    public boolean hasEdge(K key1, K key2) {
+        int from = indexOf(key1);
+        int to = indexOf(key2);
+        return from >= 0 && to >= 0 && hasEdge(from, to);
+    }
+
+    /**
+     * Checks if any edge has a weight other than 1
+     * @return true if the graph stores weights, false otherwise
+     */
+    public boolean isWeighted() {
+        return outWeights != null;
+    }
+
+    @Override
+    public DirectedGraph<K, V> reverse() {
+        if (reverse == null) reverse = new DirectedGraph<>(this);
+        return reverse;
+    }
+}
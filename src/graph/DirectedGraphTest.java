@@ -0,0 +1,157 @@
+package graph;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+class DirectedGraphTest {
+
+    // 0 -> 1 -> 2 -> 0 is a cycle, 2 -> 3 -> 4 hangs off it, 5 is on its own
+    private static DirectedGraph<Integer, String> cycleWithTail() {
+        GraphLoader<Integer, String> loader = GraphLoader.create();
+        for (int i = 0; i < 6; i++) {
+            loader.addVertex(i, "v" + i);
+        }
+        return loader.addEdge(0, 1).addEdge(1, 2).addEdge(2, 0).addEdge(2, 3).addEdge(3, 4).addEdge(3, 4)
+                .loadDirected();
+    }
+
+    @Test
+    @DisplayName("Edges have a direction, and in-edges mirror out-edges")
+    void testDirection(){
+        DirectedGraph<Integer, String> graph = cycleWithTail();
+
+        Assertions.assertEquals(6, graph.vertexCount());
+        Assertions.assertEquals(5, graph.edgeCount());
+        Assertions.assertTrue(graph.hasEdge(2, 3));
+        Assertions.assertFalse(graph.hasEdge(3, 2));
+        Assertions.assertEquals(2, graph.degree(graph.indexOf(2)));
+        Assertions.assertEquals(1, graph.inDegree(graph.indexOf(2)));
+        Assertions.assertEquals(graph.indexOf(1), graph.inNeighbor(graph.indexOf(2), 0));
+        Assertions.assertEquals(0, graph.degree(graph.indexOf(5)) + graph.inDegree(graph.indexOf(5)));
+
+        DirectedGraph<Integer, String> reverse = graph.reverse();
+        Assertions.assertTrue(reverse.hasEdge(3, 2));
+        Assertions.assertFalse(reverse.hasEdge(2, 3));
+        Assertions.assertSame(graph, reverse.reverse());
+        Assertions.assertEquals("v4", reverse.dataAt(reverse.indexOf(4)));
+    }
+
+    @Test
+    @DisplayName("Weights follow their edges into the reverse graph, keeping the last duplicate")
+    void testWeights(){
+        GraphLoader<String, String> loader = GraphLoader.create();
+        loader.addVertex("a", null).addVertex("b", null).addVertex("c", null);
+        DirectedGraph<String, String> graph = loader.addEdge("a", "b", 4.0).addEdge("b", "a", 1.0)
+                .addEdge("b", "c", 2.0).addEdge("a", "b", 3.0)
+                .loadDirected();
+
+        Assertions.assertTrue(graph.isWeighted());
+        Assertions.assertEquals(3, graph.edgeCount());
+        Assertions.assertEquals(3.0, graph.weight(graph.indexOf("a"), 0));
+        Assertions.assertEquals(3.0, graph.inWeight(graph.indexOf("b"), 0));
+        Assertions.assertEquals(5.0, new ShortestPaths(graph).distance(graph.indexOf("a"), graph.indexOf("c")));
+        Assertions.assertEquals(Double.POSITIVE_INFINITY, new ShortestPaths(graph).distance(graph.indexOf("c"), graph.indexOf("a")));
+    }
+
+    @Test
+    @DisplayName("Topological order puts every source before its targets, and rejects cycles")
+    void testTopologicalOrder(){
+        GraphLoader<Integer, String> loader = GraphLoader.create();
+        for (int i = 0; i < 5; i++) {
+            loader.addVertex(i, null);
+        }
+        DirectedGraph<Integer, String> graph = loader.addEdge(3, 1).addEdge(1, 0).addEdge(3, 2).addEdge(2, 0).addEdge(4, 3)
+                .loadDirected();
+
+        int[] order = Traversal.topologicalOrder(graph);
+        int[] position = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            position[order[i]] = i;
+        }
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            for (int i = 0; i < graph.degree(v); i++) {
+                Assertions.assertTrue(position[v] < position[graph.neighbor(v, i)]);
+            }
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Traversal.topologicalOrder(cycleWithTail()));
+    }
+
+    @Test
+    @DisplayName("Strongly connected components are labelled in reverse topological order")
+    void testStronglyConnectedComponents(){
+        DirectedGraph<Integer, String> graph = cycleWithTail();
+        int[] labels = Traversal.stronglyConnectedComponents(graph);
+
+        Assertions.assertEquals(4, Traversal.componentCount(labels));
+        Assertions.assertEquals(labels[graph.indexOf(0)], labels[graph.indexOf(1)]);
+        Assertions.assertEquals(labels[graph.indexOf(0)], labels[graph.indexOf(2)]);
+        Assertions.assertNotEquals(labels[graph.indexOf(3)], labels[graph.indexOf(4)]);
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            for (int i = 0; i < graph.degree(v); i++) {
+                Assertions.assertTrue(labels[v] >= labels[graph.neighbor(v, i)]);
+            }
+        }
+
+        int[] weak = Traversal.components(graph);
+        Assertions.assertEquals(2, Traversal.componentCount(weak));
+        Assertions.assertEquals(weak[graph.indexOf(0)], weak[graph.indexOf(4)]);
+    }
+
+    @Test
+    @DisplayName("Breadth-first search follows edges forwards, in parallel too")
+    void testTraversal(){
+        DirectedGraph<Integer, String> graph = cycleWithTail();
+        Assertions.assertEquals(5, Traversal.breadthFirst(graph, graph.indexOf(0)).length);
+        Assertions.assertEquals(1, Traversal.breadthFirst(graph, graph.indexOf(4)).length);
+        Assertions.assertEquals(5, Traversal.breadthFirst(graph.reverse(), graph.indexOf(4)).length);
+
+        GraphLoader<Integer, Integer> loader = GraphLoader.create();
+        Random random = new Random(5);
+        for (int i = 0; i < 50000; i++) {
+            loader.addVertex(i, i);
+        }
+        for (int i = 0; i < 200000; i++) {
+            loader.addEdge(random.nextInt(50000), random.nextInt(50000));
+        }
+        DirectedGraph<Integer, Integer> large = loader.loadDirected();
+        Assertions.assertArrayEquals(Traversal.distances(large, 0), Traversal.parallelDistances(large, 0));
+    }
+
+    @Test
+    @DisplayName("Directed graphs are exported with their direction")
+    void testExport() throws IOException {
+        StringWriter out = new StringWriter();
+        GraphExporter.write(cycleWithTail(), GraphExporter.Format.DOT, out);
+        String dot = out.toString();
+
+        Assertions.assertTrue(dot.startsWith("digraph {\n  \"5\";\n"));
+        Assertions.assertTrue(dot.contains("  \"2\" -> \"0\";\n"));
+        Assertions.assertEquals(5, cycleWithTail().edgeStream().collect(Collectors.toSet()).size());
+    }
+
+    @Test
+    @DisplayName("Directed graphs survive a round trip through a graph file")
+    void testGraphFile(@TempDir Path directory) throws IOException {
+        DirectedGraph<Integer, String> graph = cycleWithTail();
+        Path path = directory.resolve("directed.graph");
+        GraphFile.write(graph, path, Codec.integers(), Codec.strings());
+
+        MappedDirectedGraph<Integer, String> mapped = GraphFile.mapDirected(path, Codec.integers(), Codec.strings());
+        Assertions.assertEquals(graph.edgeCount(), mapped.edgeCount());
+        Assertions.assertTrue(mapped.hasEdge(2, 3));
+        Assertions.assertFalse(mapped.hasEdge(3, 2));
+        Assertions.assertTrue(mapped.reverse().hasEdge(3, 2));
+        Assertions.assertEquals(1, mapped.inDegree(mapped.indexOf(2)));
+        Assertions.assertEquals("v3", mapped.dataAt(mapped.indexOf(3)));
+        Assertions.assertArrayEquals(Traversal.stronglyConnectedComponents(graph), Traversal.stronglyConnectedComponents(mapped));
+        Assertions.assertThrows(IOException.class, () -> GraphFile.map(path, Codec.integers(), Codec.strings()));
+    }
+}
@@ -0,0 +1,59 @@
+package graph;
+
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An {@link IndexedGraph} whose edges have a direction. The methods inherited from
+ * IndexedGraph describe the out-edges: {@link #degree(int)}, {@link #neighbor(int, int)} and
+ * {@link #weight(int, int)} go from a vertex to the vertices it points to, and
+ * {@link #edgeCount()} counts every edge once, in its own direction. The in-edges are
+ * available through the methods added here, and through {@link #reverse()}.
+ * @param <K> Type of the keys
+ * @param <V> Type of the vertices
+ */
+public interface DirectedIndexedGraph<K, V> extends IndexedGraph<K, V> {
+
+    /**
+     * Get the number of edges pointing to a vertex
+     * @param index the vertex index
+     * @return the in-degree of the vertex
+     */
+    int inDegree(int index);
+
+    /**
+     * Get the i-th vertex with an edge pointing to a vertex. These are numbered from
+     * {@code 0} to {@code inDegree(index) - 1}.
+     * @param index the vertex index
+     * @param i the position in the vertex's in-neighbour list
+     * @return the index of the in-neighbour
+     */
+    int inNeighbor(int index, int i);
+
+    /**
+     * Get the weight of the edge from the i-th in-neighbour of a vertex
+     * @param index the vertex index
+     * @param i the position in the vertex's in-neighbour list
+     * @return the weight of the edge, 1 for graphs without weights
+     */
+    default double inWeight(int index, int i) {
+        return 1.0;
+    }
+
+    /**
+     * Get the graph with every edge turned around, sharing this graph's storage. Traversing
+     * the reverse graph follows the edges backwards.
+     * @return a view of the reverse graph
+     */
+    DirectedIndexedGraph<K, V> reverse();
+
+    /**
+     * Get a lazy stream of the edges in the graph. Every edge is emitted once, as a pair of
+     * its source key, {@link Pair#one()}, and its target key, {@link Pair#other()}.
+     * @return a stream of edges as pairs of keys
+     */
+    @Override
+    default Stream<Pair<K>> edgeStream() {
+        return StreamSupport.stream(new EdgeSpliterator<>(this, 0, vertexCount(), true), false);
+    }
+}
@@ -0,0 +1,107 @@
+package graph;
+
+/**
+ * A binary min-heap of vertex indices keyed by doubles, with the position of every vertex in
+ * the heap kept in an array so that keys can be decreased. Keys are stored next to the
+ * vertices in heap order, and nothing is allocated after construction.
+ *
+ * Positions are only valid while a vertex is in the heap; the caller tracks which vertices
+ * are in it.
+ */
+final class DoubleHeap {
+
+    private final int[] vertices;
+    private final double[] keys;
+    private final int[] positions;
+    private int size;
+
+    /**
+     * Constructor
+     * @param capacity the number of vertices, which bounds both the indices and the size
+     */
+    DoubleHeap(int capacity) {
+        vertices = new int[capacity];
+        keys = new double[capacity];
+        positions = new int[capacity];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds a vertex that isn't in the heap
+     */
+    void insert(int vertex, double key) {
+        int position = size++;
+        vertices[position] = vertex;
+        keys[position] = key;
+        positions[vertex] = position;
+        up(position);
+    }
+
+    /**
+     * Lowers the key of a vertex that is in the heap
+     */
+    void decrease(int vertex, double key) {
+        int position = positions[vertex];
+        keys[position] = key;
+        up(position);
+    }
+
+    /**
+     * Removes the vertex with the smallest key
+     * @return the vertex
+     */
+    int poll() {
+        int min = vertices[0];
+        size--;
+        if (size > 0) {
+            vertices[0] = vertices[size];
+            keys[0] = keys[size];
+            positions[vertices[0]] = 0;
+            down(0);
+        }
+        return min;
+    }
+
+    private void up(int position) {
+        int vertex = vertices[position];
+        double key = keys[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (keys[parent] <= key) break;
+            move(parent, position);
+            position = parent;
+        }
+        vertices[position] = vertex;
+        keys[position] = key;
+        positions[vertex] = position;
+    }
+
+    private void down(int position) {
+        int vertex = vertices[position];
+        double key = keys[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) break;
+            if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+            if (keys[child] >= key) break;
+            move(child, position);
+            position = child;
+        }
+        vertices[position] = vertex;
+        keys[position] = key;
+        positions[vertex] = position;
+    }
+
+    private void move(int from, int to) {
+        vertices[to] = vertices[from];
+        keys[to] = keys[from];
+        positions[vertices[to]] = to;
+    }
+}
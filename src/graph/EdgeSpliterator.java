@@ -0,0 +1,71 @@
+package graph;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Walks the edges of an {@link IndexedGraph} in vertex index order, emitting every edge once:
+ * an undirected edge from the endpoint with the smaller index, and a directed edge from its
+ * source. Nothing is buffered, and a range of vertices can be split off for parallel streams.
+ * @param <K> Type of the keys
+ */
+final class EdgeSpliterator<K> implements Spliterator<Pair<K>> {
+
+    private final IndexedGraph<K, ?> graph;
+    private int vertex;
+    private int position;
+    private final int end;
+    private final boolean directed;
+
+    EdgeSpliterator(IndexedGraph<K, ?> graph, int from, int to) {
+        this(graph, from, to, false);
+    }
+
+    EdgeSpliterator(IndexedGraph<K, ?> graph, int from, int to, boolean directed) {
+        this.graph = graph;
+        this.vertex = from;
+        this.end = to;
+        this.directed = directed;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Pair<K>> action) {
+        while (vertex < end) {
+            int degree = graph.degree(vertex);
+            while (position < degree) {
+                int neighbor = graph.neighbor(vertex, position++);
+                if (directed || neighbor >= vertex) {
+                    action.accept(Pair.of(graph.keyAt(vertex), graph.keyAt(neighbor)));
+                    return true;
+                }
+            }
+            vertex++;
+            position = 0;
+        }
+        return false;
+    }
+
+    @Override
+    public Spliterator<Pair<K>> trySplit() {
+        int from = position == 0 ? vertex : vertex + 1;
+        int middle = (from + end) >>> 1;
+        if (middle <= from) return null;
+        EdgeSpliterator<K> prefix = new EdgeSpliterator<>(graph, vertex, middle, directed);
+        prefix.position = position;
+        vertex = middle;
+        position = 0;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        int vertexCount = graph.vertexCount();
+        return vertexCount == 0 ? 0 : graph.edgeCount() * (end - vertex) / vertexCount;
+    }
+
+    @Override
+    public int characteristics() {
+        // a directed edge and its opposite are equal as Pairs
+        return directed ? NONNULL | IMMUTABLE : NONNULL | DISTINCT | IMMUTABLE;
+    }
+}
@@ -0,0 +1,441 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Colours a graph with as few colours as possible, within a time budget. The search starts
+ * from a greedy colouring, whose colour count is the upper bound, and from a largest clique,
+ * whose size is the lower bound; it stops as soon as the two meet, or when the budget runs
+ * out, and keeps the best colouring found either way. The clique search counts against the
+ * budget too, and keeps the largest clique it has found if the budget runs out first.
+ *
+ * Vertices with fewer neighbours than the lower bound can always be coloured last, so they
+ * are peeled off first, repeatedly. What remains is split into connected components, and
+ * each is searched with DSatur branch-and-bound: the next vertex is the one whose neighbours
+ * use the most distinct colours, it tries every colour they don't use, and a branch is cut
+ * as soon as it needs as many colours as the best colouring so far. The colours around each
+ * vertex are kept as a bitset, and the top levels of the search tree are split into
+ * fork-join tasks.
+ * @param <K> Type of the keys
+ * @param <V> Type of the vertices
+ */
+public final class ExactColoring<K, V> {
+
+    // the depth of the search tree down to which branches are forked
+    private static final int SPLIT_DEPTH = 2;
+    // the number of search nodes between checks of the clock
+    private static final int CLOCK_INTERVAL = 1024;
+
+    private final Coloring<K, V> coloring;
+    private final int[] clique;
+    private final boolean optimal;
+
+    private ExactColoring(Coloring<K, V> coloring, int[] clique, boolean optimal) {
+        this.coloring = coloring;
+        this.clique = clique;
+        this.optimal = optimal;
+    }
+
+    /**
+     * Colours a graph, starting from a {@link GraphColoring#dsatur(IndexedGraph)} colouring
+     * @param graph the graph to colour
+     * @param timeout the longest time to search for
+     * @param unit the unit of the timeout
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return the best colouring found
+     */
+    public static <K, V> ExactColoring<K, V> solve(IndexedGraph<K, V> graph, long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        return solve(graph, new Coloring<>(graph, GraphColoring.dsatur(graph)), deadline);
+    }
+
+    /**
+     * Colours a graph, starting from a given colouring
+     * @param graph the graph to colour
+     * @param start a valid colouring of the graph, to improve on
+     * @param timeout the longest time to search for
+     * @param unit the unit of the timeout
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return the best colouring found, which uses no more colours than start
+     */
+    public static <K, V> ExactColoring<K, V> solve(IndexedGraph<K, V> graph, Coloring<K, V> start, long timeout, TimeUnit unit) {
+        return solve(graph, start, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * Colours a graph, starting from a given colouring, until a {@link System#nanoTime()}
+     * deadline. The clique search shares the deadline, and if it runs out there, the start
+     * colouring is returned as it is.
+     */
+    static <K, V> ExactColoring<K, V> solve(IndexedGraph<K, V> graph, Coloring<K, V> start, long deadline) {
+        int size = graph.vertexCount();
+        int[] clique = Cliques.maximumClique(graph, deadline);
+        int lowerBound = clique.length;
+        int[] colors = new int[size];
+        for (int v = 0; v < size; v++) {
+            colors[v] = start.colorOf(v);
+        }
+        if (start.colorCount() <= lowerBound || System.nanoTime() - deadline > 0) {
+            return new ExactColoring<>(start, clique, start.colorCount() <= lowerBound);
+        }
+
+        // peel off the vertices with fewer than lowerBound neighbours left
+        BucketQueue queue = new BucketQueue(size, GraphColoring.maxDegree(graph));
+        for (int v = 0; v < size; v++) {
+            queue.insert(v, graph.degree(v));
+        }
+        int[] peeled = new int[size];
+        int peeledCount = 0;
+        while (!queue.isEmpty()) {
+            int v = queue.pollMin();
+            int remaining = remainingDegree(graph, queue, v);
+            if (remaining >= lowerBound) {
+                queue.insert(v, remaining);
+                break;
+            }
+            peeled[peeledCount++] = v;
+            int degree = graph.degree(v);
+            for (int i = 0; i < degree; i++) {
+                int w = graph.neighbor(v, i);
+                if (queue.contains(w)) queue.update(w, queue.key(w) - 1);
+            }
+        }
+
+        AtomicBoolean timedOut = new AtomicBoolean();
+        List<Component> components = components(graph, queue, colors, clique, lowerBound, deadline, timedOut);
+        List<Branch> searches = new ArrayList<>();
+        for (Component component : components) {
+            if (component.best.get() > lowerBound) searches.add(new Branch(component, component.start, 0));
+        }
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(searches);
+            }
+        });
+
+        Arrays.fill(colors, -1);
+        for (Component component : components) {
+            int[] best = component.bestColors;
+            for (int i = 0; i < best.length; i++) {
+                colors[component.vertices[i]] = best[i];
+            }
+        }
+        int[] marks = new int[GraphColoring.maxDegree(graph) + 2];
+        for (int i = peeledCount - 1; i >= 0; i--) {
+            colors[peeled[i]] = GraphColoring.firstFit(graph, peeled[i], colors, marks, peeledCount - i);
+        }
+        Coloring<K, V> coloring = new Coloring<>(graph, colors);
+        if (coloring.colorCount() > start.colorCount()) coloring = start;
+        return new ExactColoring<>(coloring, clique, !timedOut.get() || coloring.colorCount() == lowerBound);
+    }
+
+    /**
+     * Counts the neighbours of a vertex that are still in the queue, not counting itself
+     */
+    private static int remainingDegree(IndexedGraph<?, ?> graph, BucketQueue queue, int v) {
+        int count = 0;
+        int degree = graph.degree(v);
+        for (int i = 0; i < degree; i++) {
+            if (queue.contains(graph.neighbor(v, i))) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Splits the vertices left in the queue into connected components, each with its share
+     * of the start colouring and of the clique
+     */
+    private static List<Component> components(IndexedGraph<?, ?> graph, BucketQueue queue, int[] colors, int[] clique,
+                                              int lowerBound, long deadline, AtomicBoolean timedOut) {
+        int size = graph.vertexCount();
+        int[] local = new int[size];
+        Arrays.fill(local, -1);
+        int[] members = new int[size];
+        List<Component> components = new ArrayList<>();
+        for (int source = 0; source < size; source++) {
+            if (!queue.contains(source) || local[source] >= 0) continue;
+            int count = 0;
+            local[source] = 0;
+            members[count++] = source;
+            for (int head = 0; head < count; head++) {
+                int v = members[head];
+                int degree = graph.degree(v);
+                for (int i = 0; i < degree; i++) {
+                    int w = graph.neighbor(v, i);
+                    if (queue.contains(w) && local[w] < 0) {
+                        local[w] = count;
+                        members[count++] = w;
+                    }
+                }
+            }
+            components.add(new Component(graph, Arrays.copyOf(members, count), local, queue, colors, clique,
+                    lowerBound, deadline, timedOut));
+        }
+        return components;
+    }
+
+    /**
+     * Get the best colouring found
+     * @return the colouring
+     */
+    public Coloring<K, V> coloring() {
+        return coloring;
+    }
+
+    /**
+     * Get the clique whose size is the lower bound. If the budget ran out before the clique
+     * search finished, it may not be a largest clique.
+     * @return the vertex indices of the clique, sorted
+     */
+    public int[] clique() {
+        return clique.clone();
+    }
+
+    /**
+     * Get the lower bound on the number of colours, the size of the largest clique found
+     * @return the lower bound
+     */
+    public int lowerBound() {
+        return clique.length;
+    }
+
+    /**
+     * Checks if the colouring is known to use the fewest colours possible, which is the case
+     * if the search finished within its budget or the colouring meets the lower bound
+     * @return true if the colouring is optimal, false if a better one might exist
+     */
+    public boolean isOptimal() {
+        return optimal;
+    }
+
+    /**
+     * A connected component of the vertices that weren't peeled off, with its vertices
+     * numbered from 0, and the best colouring of it found so far
+     */
+    private static final class Component {
+        private final int[] vertices;
+        private final int[][] neighbors;
+        // the vertices by increasing degree
+        private final int[] byDegree;
+        // the start colouring of the component's clique vertices, -1 for the other vertices
+        private final int[] start;
+        private final int width;
+        private final int floor;
+        private final long deadline;
+        private final AtomicBoolean timedOut;
+        private final AtomicInteger best = new AtomicInteger();
+        private volatile int[] bestColors;
+
+        Component(IndexedGraph<?, ?> graph, int[] vertices, int[] local, BucketQueue queue, int[] colors, int[] clique,
+                  int floor, long deadline, AtomicBoolean timedOut) {
+            int size = vertices.length;
+            this.vertices = vertices;
+            this.floor = floor;
+            this.deadline = deadline;
+            this.timedOut = timedOut;
+            this.neighbors = new int[size][];
+            long[] degrees = new long[size];
+            for (int i = 0; i < size; i++) {
+                int v = vertices[i];
+                int[] list = new int[graph.degree(v)];
+                int count = 0;
+                for (int j = 0; j < list.length; j++) {
+                    int w = graph.neighbor(v, j);
+                    if (w != v && queue.contains(w)) list[count++] = local[w];
+                }
+                neighbors[i] = Arrays.copyOf(list, count);
+                degrees[i] = (long) count << 32 | i;
+            }
+            Arrays.sort(degrees);
+            this.byDegree = new int[size];
+            for (int i = 0; i < size; i++) {
+                byDegree[i] = (int) degrees[i];
+            }
+
+            // the start colouring, with its colours renumbered from 0, is the first upper bound
+            int[] renumbered = new int[GraphColoring.colorCount(colors)];
+            Arrays.fill(renumbered, -1);
+            int[] startColors = new int[size];
+            int used = 0;
+            for (int i = 0; i < size; i++) {
+                int color = colors[vertices[i]];
+                if (renumbered[color] < 0) renumbered[color] = used++;
+                startColors[i] = renumbered[color];
+            }
+            this.width = used;
+            this.best.set(used);
+            this.bestColors = startColors;
+
+            // any colouring can be renamed to give the clique colours 0, 1, 2, ...
+            this.start = new int[size];
+            Arrays.fill(start, -1);
+            int color = 0;
+            for (int v : clique) {
+                int i = local[v];
+                if (i >= 0 && i < size && vertices[i] == v) start[i] = color++;
+            }
+        }
+
+        boolean isDone() {
+            return best.get() <= floor || timedOut.get();
+        }
+
+        synchronized void offer(int[] colors, int used) {
+            if (used < best.get()) {
+                bestColors = colors.clone();
+                best.set(used);
+            }
+        }
+    }
+
+    /**
+     * A subtree of the branch-and-bound search of a component, from a partial colouring. The
+     * uncoloured vertices wait in a bucket queue keyed by saturation degree, inserted by
+     * increasing degree so that ties go to the vertices with the most neighbours first. The search
+     * keeps its own stack, since it is as deep as the component is large.
+     */
+    private static final class Branch extends RecursiveAction {
+        private final Component component;
+        private final int[] colors;
+        private final int depth;
+        private int[] counts;
+        private long[] saturation;
+        private int[] saturationDegrees;
+        private BucketQueue queue;
+        private int words;
+        private long nodes;
+
+        Branch(Component component, int[] colors, int depth) {
+            this.component = component;
+            this.colors = colors.clone();
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            int size = colors.length;
+            int width = component.width;
+            words = (width + 63) >>> 6;
+            counts = new int[size * width];
+            saturation = new long[size * words];
+            saturationDegrees = new int[size];
+            queue = new BucketQueue(size, width);
+            int used = 0;
+            for (int v = 0; v < size; v++) {
+                if (colors[v] < 0) continue;
+                int color = colors[v];
+                assign(v, color);
+                used = Math.max(used, color + 1);
+            }
+            for (int v : component.byDegree) {
+                if (colors[v] < 0) queue.insert(v, saturationDegrees[v]);
+            }
+            search(used);
+        }
+
+        private void search(int used) {
+            int levels = queue.size() + 1;
+            int[] vertices = new int[levels];
+            int[] tried = new int[levels];
+            int[] usedBefore = new int[levels];
+            int top = -1;
+            boolean descend = true;
+            while (true) {
+                if (descend) {
+                    int v = branchVertex(depth + top + 1, used);
+                    if (v >= 0) {
+                        vertices[++top] = v;
+                        tried[top] = -1;
+                        usedBefore[top] = used;
+                    }
+                }
+                if (top < 0 || component.isDone()) return;
+
+                // a new colour is only worth trying if the colouring would still beat the best
+                int v = vertices[top];
+                if (tried[top] >= 0) unassign(v, tried[top]);
+                int limit = Math.min(usedBefore[top], component.best.get() - 2);
+                int color = tried[top] + 1;
+                while (color <= limit && !isFree(v, color)) color++;
+                if (color > limit) {
+                    queue.insert(v, saturationDegrees[v]);
+                    top--;
+                    descend = false;
+                    continue;
+                }
+                assign(v, color);
+                tried[top] = color;
+                used = Math.max(usedBefore[top], color + 1);
+                descend = true;
+            }
+        }
+
+        /**
+         * Takes the vertex to branch on at a node of the search tree out of the queue. At the
+         * top levels of the tree, forks a task for every colour it can have instead.
+         * @return the vertex, or -1 if the node is a leaf, is cut off or was forked
+         */
+        private int branchVertex(int depth, int used) {
+            if (component.isDone()) return -1;
+            if (++nodes % CLOCK_INTERVAL == 0 && System.nanoTime() - component.deadline > 0) {
+                component.timedOut.set(true);
+                return -1;
+            }
+            if (queue.isEmpty()) {
+                component.offer(colors, used);
+                return -1;
+            }
+            if (used >= component.best.get()) return -1;
+
+            int v = queue.pollMax();
+            if (depth >= SPLIT_DEPTH) return v;
+            int limit = Math.min(used, component.best.get() - 2);
+            List<Branch> branches = new ArrayList<>();
+            for (int color = 0; color <= limit; color++) {
+                if (isFree(v, color)) {
+                    colors[v] = color;
+                    branches.add(new Branch(component, colors, depth + 1));
+                    colors[v] = -1;
+                }
+            }
+            invokeAll(branches);
+            return -1;
+        }
+
+        private boolean isFree(int v, int color) {
+            return (saturation[v * words + (color >>> 6)] & 1L << color) == 0;
+        }
+
+        private void assign(int v, int color) {
+            colors[v] = color;
+            for (int w : component.neighbors[v]) {
+                if (counts[w * component.width + color]++ == 0) {
+                    saturation[w * words + (color >>> 6)] |= 1L << color;
+                    saturationDegrees[w]++;
+                    if (queue.contains(w)) queue.update(w, saturationDegrees[w]);
+                }
+            }
+        }
+
+        private void unassign(int v, int color) {
+            colors[v] = -1;
+            for (int w : component.neighbors[v]) {
+                if (--counts[w * component.width + color] == 0) {
+                    saturation[w * words + (color >>> 6)] &= ~(1L << color);
+                    saturationDegrees[w]--;
+                    if (queue.contains(w)) queue.update(w, saturationDegrees[w]);
+                }
+            }
+        }
+    }
+}
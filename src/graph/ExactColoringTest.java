@@ -0,0 +1,155 @@
+package graph;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+class ExactColoringTest {
+
+    /**
+     * Finds the chromatic number of a small graph by trying every colouring with k colours
+     */
+    private static int bruteForceChromaticNumber(IndexedGraph<?, ?> graph) {
+        for (int k = 1; ; k++) {
+            if (colorable(graph, new int[graph.vertexCount()], 0, k)) return k;
+        }
+    }
+
+    private static boolean colorable(IndexedGraph<?, ?> graph, int[] colors, int v, int k) {
+        if (v == colors.length) return true;
+        for (int color = 0; color < k; color++) {
+            boolean free = true;
+            for (int w = 0; w < v && free; w++) {
+                free = colors[w] != color || !graph.hasEdge(v, w);
+            }
+            colors[v] = color;
+            if (free && colorable(graph, colors, v + 1, k)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * The Mycielskian of a graph: no larger cliques, but one more colour needed
+     */
+    private static Graph<Integer, Integer> mycielskian(Graph<Integer, Integer> graph) {
+        int size = graph.getVertices().size();
+        Graph<Integer, Integer> result = Graph.create();
+        for (int i = 0; i <= 2 * size; i++) {
+            result.addVertex(i, i);
+        }
+        for (Pair<Integer> edge : graph.edgesAsPairSet()) {
+            int a = edge.one();
+            int b = edge.other();
+            result.addEdge(a, b).addEdge(a, size + b).addEdge(size + a, b);
+        }
+        for (int i = 0; i < size; i++) {
+            result.addEdge(size + i, 2 * size);
+        }
+        return result;
+    }
+
+    @Test
+    @DisplayName("The exact colouring of small random graphs uses the chromatic number of colours")
+    void testSmallGraphs(){
+        for (int seed = 0; seed < 30; seed++) {
+            CompactGraph<Integer, Integer> graph = GraphColoringTest.randomGraph(10, 10 + seed, seed);
+            ExactColoring<Integer, Integer> exact = ExactColoring.solve(graph, 10, TimeUnit.SECONDS);
+
+            Assertions.assertTrue(exact.isOptimal());
+            Assertions.assertEquals(bruteForceChromaticNumber(graph), exact.coloring().colorCount());
+            Assertions.assertTrue(exact.coloring().colorCount() >= exact.lowerBound());
+            Assertions.assertTrue(Cliques.isClique(graph, exact.clique()));
+            int[] colors = new int[graph.vertexCount()];
+            for (int v = 0; v < colors.length; v++) {
+                colors[v] = exact.coloring().colorOf(v);
+            }
+            Assertions.assertTrue(GraphColoring.isValid(graph, colors));
+        }
+    }
+
+    @Test
+    @DisplayName("A bad start colouring of a crown graph is improved to two colours")
+    void testCrownGraph(){
+        Graph<Integer, Integer> crown = Graph.create();
+        for (int i = 0; i < 40; i++) {
+            crown.addVertex(i, i);
+        }
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < 20; j++) {
+                if (i != j) crown.addEdge(i, 20 + j);
+            }
+        }
+        CompactGraph<Integer, Integer> graph = crown.freeze();
+        int[] bad = new int[40];
+        for (int v = 0; v < 40; v++) {
+            bad[v] = graph.keyAt(v) % 20;
+        }
+        ExactColoring<Integer, Integer> exact = ExactColoring.solve(graph, new Coloring<>(graph, bad), 10, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(2, exact.coloring().colorCount());
+        Assertions.assertEquals(2, exact.lowerBound());
+        Assertions.assertTrue(exact.isOptimal());
+    }
+
+    @Test
+    @DisplayName("Optimality is proven above the clique bound, and the budget is kept on hard graphs")
+    void testProofAndBudget(){
+        Graph<Integer, Integer> cycle = Graph.create();
+        for (int i = 0; i < 5; i++) {
+            cycle.addVertex(i, i);
+        }
+        for (int i = 0; i < 5; i++) {
+            cycle.addEdge(i, (i + 1) % 5);
+        }
+        CompactGraph<Integer, Integer> grotzsch = mycielskian(cycle).freeze();
+        ExactColoring<Integer, Integer> exact = ExactColoring.solve(grotzsch, 10, TimeUnit.SECONDS);
+        Assertions.assertEquals(2, exact.lowerBound());
+        Assertions.assertEquals(4, exact.coloring().colorCount());
+        Assertions.assertTrue(exact.isOptimal());
+
+        CompactGraph<Integer, Integer> hard = GraphColoringTest.randomGraph(150, 5600, 3);
+        int greedy = GraphColoring.colorCount(GraphColoring.dsatur(hard));
+        long start = System.nanoTime();
+        exact = ExactColoring.solve(hard, 200, TimeUnit.MILLISECONDS);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // the budget only bounds the search, not the setup around it or the machine's load
+        Assertions.assertTrue(elapsed < 200 + 2000, "took " + elapsed + "ms");
+        Assertions.assertTrue(exact.coloring().colorCount() <= greedy);
+        Assertions.assertTrue(exact.isOptimal() || exact.coloring().colorCount() > exact.lowerBound());
+    }
+
+    @Test
+    @DisplayName("The budget also bounds the clique search on dense graphs, and a spent one returns the start colouring")
+    void testDenseBudget(){
+        GraphLoader<Integer, Integer> loader = GraphLoader.create();
+        for (int i = 0; i < 250; i++) {
+            loader.addVertex(i, i);
+        }
+        Random random = new Random(5);
+        for (int i = 0; i < 250; i++) {
+            for (int j = i + 1; j < 250; j++) {
+                if (random.nextDouble() < 0.9) loader.addEdge(i, j);
+            }
+        }
+        CompactGraph<Integer, Integer> dense = loader.load().freeze();
+        Coloring<Integer, Integer> start = new Coloring<>(dense, GraphColoring.dsatur(dense));
+        long begin = System.nanoTime();
+        ExactColoring<Integer, Integer> exact = ExactColoring.solve(dense, start, 300, TimeUnit.MILLISECONDS);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+
+        Assertions.assertTrue(elapsed < 300 + 2000, "took " + elapsed + "ms");
+        Assertions.assertTrue(Cliques.isClique(dense, exact.clique()));
+        Assertions.assertTrue(exact.coloring().colorCount() <= start.colorCount());
+
+        exact = ExactColoring.solve(dense, start, System.nanoTime() - 1);
+        Assertions.assertSame(start, exact.coloring());
+        Assertions.assertTrue(Cliques.isClique(dense, exact.clique()));
+        Assertions.assertTrue(exact.lowerBound() > 1);
+        Assertions.assertTrue(start.colorCount() > exact.lowerBound());
+        Assertions.assertFalse(exact.isOptimal());
+    }
+}
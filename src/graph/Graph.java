@@ -1,22 +1,50 @@
 package graph;
 
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toSet;
 
 /**
- * An undirected, unweighted graph data structure, represented as a map of keys to vertices,
- * with each vertex containing a list of adjacent vertices.
+ * An undirected graph data structure, represented as a map of keys to vertices, with each
+ * vertex containing a list of adjacent vertices. Edges have a weight, which is 1 unless
+ * the edge is added with {@link #addEdge(Object, Object, double)}.
+ *
+ * A graph is not thread-safe. To let other threads read it while it keeps changing, take
+ * an immutable {@link #snapshot()} and hand that to them.
  * @param <K> Type of the keys
  * @param <V> Type of the vertices
  */
 public class Graph<K, V> {
 
-    private Map<K, Vertex<K, V>> vertices = new HashMap<>();
-    Set<Pair<Vertex<K, V>>> edges = new HashSet<>();
+    private Map<K, Vertex<K, V>> vertices;
+    Set<Pair<Vertex<K, V>>> edges;
+    private int modCount;
+    private GraphCertificate certificate;
+    private int certificateModCount;
+    private List<ValueIndex<K, V, ?>> indexes;
+    private ValueIndex<K, V, V> dataIndex;
+    private GraphSnapshot<K, V> snapshot;
+    // the keys of the vertices added, replaced or removed since the last snapshot, and of
+    // the other changed vertices with the neighbours their edges changed to; null until the
+    // first snapshot
+    private Set<K> changedVertices;
+    private Map<K, Set<K>> changedEdges;
+
+    private Graph() {
+        vertices = new HashMap<>();
+        edges = new HashSet<>();
+    }
 
-    private Graph() {}
+    private Graph(int expectedVertices, int expectedEdges) {
+        vertices = new HashMap<>(expectedVertices * 4 / 3 + 1);
+        edges = new HashSet<>(expectedEdges * 4 / 3 + 1);
+    }
 
     /**
      * Factory method to create graphs. Returns a new graph.
@@ -29,6 +57,17 @@ public class Graph<K, V> {
         return new Graph<>();
     }
 
+    /**
+     * Creates a graph whose internal tables are sized for the expected number of vertices
+     * and edges, so that they don't have to grow while the graph is loaded.
+     * @param expectedVertices the number of vertices to make room for
+     * @param expectedEdges the number of edges to make room for
+     * @return a new graph.Graph instance
+     */
+    static <K, V> Graph<K, V> create(int expectedVertices, int expectedEdges) {
+        return new Graph<>(expectedVertices, expectedEdges);
+    }
+
     /**
      * returns a list of {@link Vertex} objects
      * @return Collection\<Vertex\<K, V>>
@@ -44,8 +83,8 @@ public class Graph<K, V> {
      * @return the graph
      */
     public Graph<K, V> addVertex(K key, V data) {
-        Vertex<K, V> vertex = new Vertex<>(key, data);
-        vertices.put(key, vertex);
+        put(new Vertex<>(key, data));
+        modCount++;
         return this;
     }
 
@@ -56,7 +95,8 @@ public class Graph<K, V> {
      * @return the graph
      */
     public Graph<K, V> addVertex(Vertex<K, V> vertex){
-        vertices.put(vertex.getId(), vertex);
+        put(vertex);
+        modCount++;
 
         for(Vertex<K, V> neighbor : vertex.getAdjacentVertices()) {
             if (!vertices.containsKey(neighbor.getId())) {
@@ -76,14 +116,15 @@ public class Graph<K, V> {
     public Graph<K, V> addVertices(List<V> vertices, Function<V, K> function) {
 
         for (V vertex : vertices) {
-            this.vertices.put(function.apply(vertex), new Vertex<>(function.apply(vertex), vertex));
+            put(new Vertex<>(function.apply(vertex), vertex));
         }
+        modCount++;
         return this;
     }
 
     /**
      * Add a new edge to the graph. If one or both of the vertices are not in the graph
-     * this will throw an exception
+     * this will throw an exception. Adding an edge that is already in the graph does nothing.
      * @param v1 vertex on one side of the edge
      * @param v2 vertex on other side of the edge
      * @return the graph
@@ -91,9 +132,13 @@ public class Graph<K, V> {
     public Graph<K, V> addEdge(Vertex<K, V> v1, Vertex<K, V> v2) {
         checkIfKeysAreInGraph(v1.getId(), v2.getId());
 
-        vertices.get(v2.getId()).addEdge(v1);
-        vertices.get(v1.getId()).addEdge(v2);
-        edges.add(Pair.of(v1, v2));
+        Vertex<K, V> vertex1 = vertices.get(v1.getId());
+        Vertex<K, V> vertex2 = vertices.get(v2.getId());
+        vertex1.addEdge(vertex2);
+        vertex2.addEdge(vertex1);
+        edges.add(Pair.of(vertex1, vertex2));
+        touch(vertex1.getId(), vertex2.getId());
+        modCount++;
         return this;
     }
 
@@ -111,6 +156,38 @@ public class Graph<K, V> {
         return this;
     }
 
+    /**
+     * Adds a weighted edge to the graph using the keys of the vertices. If the edge is
+     * already in the graph, its weight is changed.
+     * @param key1 key for the vertex on one side of the edge
+     * @param key2 key for the vertex on the other side of the edge
+     * @param weight the weight of the edge
+     * @return the graph
+     */
+    public Graph<K, V> addEdge(K key1, K key2, double weight) {
+        if (Double.isNaN(weight)) throw new IllegalArgumentException("edge weight must be a number");
+        checkIfKeysAreInGraph(key1, key2);
+        Vertex<K, V> v1 = vertices.get(key1);
+        Vertex<K, V> v2 = vertices.get(key2);
+        v1.addEdge(v2, weight);
+        v2.addEdge(v1, weight);
+        edges.add(Pair.of(v1, v2));
+        touch(key1, key2);
+        modCount++;
+        return this;
+    }
+
+    /**
+     * Get the weight of the edge between two vertices
+     * @param key1 key for the vertex on one side of the edge
+     * @param key2 key for the vertex on the other side of the edge
+     * @return the weight of the edge, or NaN if there is no such edge
+     */
+    public double getWeight(K key1, K key2) {
+        checkIfKeysAreInGraph(key1, key2);
+        return vertices.get(key1).weightTo(key2);
+    }
+
     /**
      * Removes a node from the graph using the provided key.
      * @param key
@@ -119,11 +196,15 @@ public class Graph<K, V> {
     public Graph<K, V> removeVertex(K key) {
         Vertex<K, V> removed = vertices.remove(key);
         if (removed == null) throw new VertexNotInGraphException("Vertex{" + key + "} is not a member of the graph");
+        unindex(removed);
+        touch(key);
 
         for (Vertex<K, V> neighbor : removed.getAdjacentVertices()) {
-            neighbor.removeEdge(removed);
+            if (neighbor != removed) neighbor.removeEdge(removed);
+            edges.remove(Pair.of(removed, neighbor));
+            touch(neighbor.getId(), key);
         }
-        edges.removeIf(edge -> edge.one().equals(removed) || edge.other().equals(removed));
+        modCount++;
 
         return this;
     }
@@ -145,10 +226,7 @@ public class Graph<K, V> {
      * @return the graph with the edge removed
      */
     public Graph<K, V> removeEdge(Vertex<K, V> v1, Vertex<K, V> v2) {
-        vertices.computeIfPresent(v1.getId(), (id, vertex) -> vertex.removeEdge(v2));
-        vertices.computeIfPresent(v2.getId(), (id, vertex) -> vertex.removeEdge(v1));
-        edges.remove(Pair.of(v1, v2));
-        return this;
+        return removeEdge(v1.getId(), v2.getId());
     }
 
     /**
@@ -158,23 +236,167 @@ public class Graph<K, V> {
      * @return
      */
     public Graph<K, V> removeEdge(K key1, K key2) {
+        Vertex<K, V> v1 = vertices.get(key1);
+        Vertex<K, V> v2 = vertices.get(key2);
+        if (v1 == null || v2 == null) return this;
 
-        vertices.computeIfPresent(key1, (id, vertex) -> vertex.removeEdge(vertices.get(key2)));
-        vertices.computeIfPresent(key2, (id, vertex) -> vertex.removeEdge(vertices.get(key1)));
-        edges.remove(Pair.of(vertices.get(key1), vertices.get(key2)));
+        v1.removeEdge(v2);
+        v2.removeEdge(v1);
+        edges.remove(Pair.of(v1, v2));
+        touch(key1, key2);
+        modCount++;
         return this;
     }
 
+    /**
+     * Checks if there is an edge between two vertices
+     * @param key1 key for the vertex on one side of the edge
+     * @param key2 key for the vertex on the other side of the edge
+     * @return true if both vertices are in the graph and the edge exists, false otherwise
+     */
+    public boolean hasEdge(K key1, K key2) {
+        Vertex<K, V> v1 = vertices.get(key1);
+        return v1 != null && vertices.containsKey(key2) && v1.isAdjacentTo(key2);
+    }
+
 
     /**
-     * searches for the given data in the graph
+     * searches for the given data in the graph. The first search indexes the data of every
+     * vertex, and the index is kept up to date from then on, so later searches take O(1) time.
      * @param data the data to search for
      * @return an Optional\<graph.Vertex\>, empty if not found.
      */
-    public Optional<Vertex> search(V data) {
-        throw new VertexNotInGraphException("not yet implemented");
+    public Optional<Vertex<K, V>> search(V data) {
+        if (dataIndex == null) dataIndex = indexBy(Function.identity());
+        return dataIndex.first(data);
+    }
+
+    /**
+     * Creates a hash index of the vertices by a value computed from their data. The graph keeps
+     * the index up to date as vertices are added and removed and as their data is replaced.
+     * @param function computes the indexed value from a vertex's data, which is never null
+     * @param <T> the type of the indexed values
+     * @return the index
+     */
+    public <T> ValueIndex<K, V, T> indexBy(Function<? super V, ? extends T> function) {
+        ValueIndex<K, V, T> index = new ValueIndex<>(this, function);
+        for (Vertex<K, V> vertex : vertices.values()) {
+            index.add(vertex);
+        }
+        if (indexes == null) indexes = new ArrayList<>();
+        indexes.add(index);
+        return index;
+    }
+
+    /**
+     * Stops keeping an index up to date
+     * @param index an index created by {@link #indexBy(Function)}
+     * @return true if the index belonged to this graph, false otherwise
+     */
+    public boolean dropIndex(ValueIndex<K, V, ?> index) {
+        if (index == dataIndex) dataIndex = null;
+        return indexes != null && indexes.remove(index);
+    }
+
+    /**
+     * Called by a vertex of this graph after its data was replaced
+     * @param vertex the vertex
+     */
+    void dataChanged(Vertex<K, V> vertex) {
+        if (changedEdges != null) changedEdges.computeIfAbsent(vertex.getId(), key -> new HashSet<>());
+        if (indexes == null) return;
+        for (ValueIndex<K, V, ?> index : indexes) {
+            index.remove(vertex);
+            index.add(vertex);
+        }
+    }
+
+    private void put(Vertex<K, V> vertex) {
+        Vertex<K, V> replaced = vertices.put(vertex.getId(), vertex);
+        if (replaced != null && replaced != vertex) unindex(replaced);
+        vertex.owner = this;
+        touch(vertex.getId());
+        if (indexes == null) return;
+        for (ValueIndex<K, V, ?> index : indexes) {
+            index.remove(vertex);
+            index.add(vertex);
+        }
+    }
+
+    private void unindex(Vertex<K, V> vertex) {
+        if (vertex.owner == this) vertex.owner = null;
+        if (indexes == null) return;
+        for (ValueIndex<K, V, ?> index : indexes) {
+            index.remove(vertex);
+        }
+    }
+
+
+    /**
+     * Takes an immutable snapshot of the graph. The first snapshot copies every vertex; after
+     * that, the graph keeps track of the vertices and edges that change, and a new snapshot
+     * shares everything else with the snapshot before it. It copies the vertices that were
+     * added, and applies each changed edge to the neighbour map of a vertex with many
+     * neighbours, in time logarithmic in its degree. A vertex with no more than a handful of
+     * neighbours is copied whole. Taking a snapshot of a graph that hasn't changed returns the
+     * previous one.
+     *
+     * Snapshots must be taken on the thread that changes the graph, or while holding the lock
+     * that guards the changes. The snapshot itself can then be read from any thread while
+     * the graph keeps changing.
+     * @return a snapshot of the current vertices and edges
+     */
+    public GraphSnapshot<K, V> snapshot() {
+        if (snapshot == null) {
+            PersistentMap<K, GraphSnapshot.Adjacency<V>> map = PersistentMap.empty();
+            for (Vertex<K, V> vertex : vertices.values()) {
+                map = map.plus(vertex.getId(), GraphSnapshot.Adjacency.of(vertex));
+            }
+            changedVertices = new HashSet<>();
+            changedEdges = new HashMap<>();
+            snapshot = new GraphSnapshot<>(map, edges.size(), 1);
+        } else if (!changedVertices.isEmpty() || !changedEdges.isEmpty()) {
+            PersistentMap<K, GraphSnapshot.Adjacency<V>> map = snapshot.vertices();
+            for (K key : changedVertices) {
+                Vertex<K, V> vertex = vertices.get(key);
+                map = vertex == null ? map.minus(key) : map.plus(key, GraphSnapshot.Adjacency.of(vertex));
+            }
+            for (Map.Entry<K, Set<K>> change : changedEdges.entrySet()) {
+                K key = change.getKey();
+                if (changedVertices.contains(key)) continue;
+                map = map.plus(key, map.get(key).update(vertices.get(key), change.getValue()));
+            }
+            changedVertices.clear();
+            changedEdges.clear();
+            snapshot = new GraphSnapshot<>(map, edges.size(), snapshot.version() + 1);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Records that a vertex was added, replaced or removed since the last snapshot
+     */
+    private void touch(K key) {
+        if (changedVertices != null) changedVertices.add(key);
+    }
+
+    /**
+     * Records that the edge between two vertices changed since the last snapshot
+     */
+    private void touch(K key1, K key2) {
+        if (changedEdges == null) return;
+        changedEdges.computeIfAbsent(key1, key -> new HashSet<>()).add(key2);
+        changedEdges.computeIfAbsent(key2, key -> new HashSet<>()).add(key1);
     }
 
+    /**
+     * Looks up a vertex by key
+     * @param key the vertex key
+     * @return the vertex, or null if the key is not in the graph
+     */
+    Vertex<K, V> vertexFor(K key) {
+        return vertices.get(key);
+    }
 
     private void checkIfKeysAreInGraph(K k1, K k2) {
         Vertex<K, V> vertex1 = vertices.get(k1);
@@ -197,45 +419,38 @@ public class Graph<K, V> {
 
     /**
      * Get the set of all edges in the graph
-     * @return a Set containing all edges in the graph
+     * @return an unmodifiable view of the edges in the graph
      */
     public Set<Pair<Vertex<K, V>>> getEdgeSet() {
 
-        return edges;
+        return Collections.unmodifiableSet(edges);
     }
     /**
-     * Get the set of all edges in the graph
+     * Get the set of all edges in the graph. To go through the edges of a large graph
+     * without copying them into a set, use {@link #edgeStream()}.
      * @return a Set containing all edges in the graph
      */
     public Set<Pair<K>> edgesAsPairSet() {
 
-        Set<Pair<Vertex<K, V>>> pairSet = new HashSet<>();
-        for (Vertex<K,V> vertex : vertices.values()) {
-            for (Vertex<K, V> vertex1 :vertex.getAdjacentVertices()){
-                pairSet.add(Pair.of(vertex, vertex1));
-            }
-        }
+        return edgeStream().collect(toSet());
+    }
 
-        return vertices
-                .values()
-                .stream()
-                .flatMap(vertex -> vertex
-                        .getAdjacentVertices()
-                        .stream()
-                        .map(vertex1 -> Pair.of(vertex1.getId(), vertex.getId())))
-                .collect(toSet());
-
-      /*   vertices
-                .values()
+    /**
+     * Get a lazy stream of the edges in the graph, as pairs of keys. Every edge is emitted
+     * once. The graph must not be changed while the stream is in use.
+     * @return a stream of edges
+     */
+    public Stream<Pair<K>> edgeStream() {
+
+        return edges
                 .stream()
-                .flatMap(vertx -> vertx.getEdges().stream())
-                .map(edge -> Pair.<K>of((K)edge.verticesAsArray()[0].getId(), (K)edge.verticesAsArray()[1].getId()))
-                .collect(toSet());*/
+                .map(edge -> Pair.of(edge.one().getId(), edge.other().getId()));
     }
 
 
     /**
-     * Add a list of {@link Pair}s as edges to the graph
+     * Add a list of {@link Pair}s as edges to the graph. To load a large graph in one go,
+     * {@link GraphLoader} is much faster.
      * @param pairs of vertex keys of type K
      * @return the graph
      */
@@ -250,7 +465,8 @@ public class Graph<K, V> {
 
 
     /**
-     * Add a set of {@link Pair}s as edges to the graph
+     * Add a set of {@link Pair}s as edges to the graph. To load a large graph in one go,
+     * {@link GraphLoader} is much faster.
      * @param pairs of vertex keys of type K
      * @return the graph
      */
@@ -267,6 +483,9 @@ public class Graph<K, V> {
     /**
      * Compares this graph to another graph to check if they're isomorphic. Mapping
      * for the keys in this graph to the keys in the other graph has to be provided.
+     * The degrees of every vertex and its image are compared first, then the neighbours of
+     * every vertex are looked up among the neighbours of its image. The check returns at the
+     * first mismatch and allocates nothing proportional to the number of edges.
      * @param otherGraph to compare to
      * @param map a mapping of keys in this graph to keys in the other graphe
      * @param <K2> the type of keys for the other graph
@@ -274,27 +493,135 @@ public class Graph<K, V> {
      * @return true if the graphs are isomorphic, false otherwise
      */
     public <K2, V2> boolean isIsomorphic(Graph<K2, V2> otherGraph, Map<K, K2> map) {
+        if (vertices.size() != otherGraph.vertices.size() || edges.size() != otherGraph.edges.size()) return false;
+        if (hasCachedCertificate() && otherGraph.hasCachedCertificate()
+                && !certificate.equals(otherGraph.certificate)) return false;
+
+        Set<K2> images = new HashSet<>(vertices.size() * 4 / 3 + 1);
+        for (Vertex<K, V> vertex : vertices.values()) {
+            K2 key = map.get(vertex.getId());
+            Vertex<K2, V2> image = otherGraph.vertices.get(key);
+            if (image == null || image.getDegree() != vertex.getDegree() || !images.add(key)) return false;
+        }
 
-        return this.edgesAsPairSet()
-                .stream()
-             //   .peek(pair -> System.out.println(pair.one() + ", " +pair.other()))
-                .map(edge -> Pair.of(map.get(edge.one()), map.get(edge.other())))
-             //   .peek(pair -> System.out.println(pair.one() + ", " + pair.other()))
-                .collect(toSet())
-                .equals(otherGraph.edgesAsPairSet());
+        for (Vertex<K, V> vertex : vertices.values()) {
+            Vertex<K2, V2> image = otherGraph.vertices.get(map.get(vertex.getId()));
+            for (Vertex<K, V> neighbor : vertex.getAdjacentVertices()) {
+                if (!image.isAdjacentTo(map.get(neighbor.getId()))) return false;
+            }
+        }
+        return true;
     }
 
     /**
-     * Prints graph so that it can easily be visualized using <a href="https://knsv.github.io/mermaid/">Mermand</a>
+     * Searches for an isomorphism between this graph and another graph. Unlike
+     * {@link #isIsomorphic(Graph, Map)}, the mapping doesn't have to be known in advance.
+     * Graphs with different {@link #certificate()}s are rejected without searching, and the
+     * search stops at the first mapping it finds.
+     * @param otherGraph to compare to
+     * @param <K2> the type of keys for the other graph
+     * @param <V2> the type of values in the other graph
+     * @return a mapping of keys in this graph to keys in the other graph under which the
+     * edges of both graphs are the same, or an empty Optional if the graphs are not isomorphic
+     */
+    public <K2, V2> Optional<Map<K, K2>> findIsomorphism(Graph<K2, V2> otherGraph) {
+        if (hasCachedCertificate() && otherGraph.hasCachedCertificate()
+                && !certificate.equals(otherGraph.certificate)) return Optional.empty();
+
+        // each graph is frozen and refined once, for both its certificate and the search
+        CompactGraph<K, V> compact = freeze();
+        CompactGraph<K2, V2> otherCompact = otherGraph.freeze();
+        long[] labels = ColorRefinement.refine(compact);
+        long[] otherLabels = ColorRefinement.refine(otherCompact);
+        if (!certificate(compact, labels).equals(otherGraph.certificate(otherCompact, otherLabels))) return Optional.empty();
+
+        int[] mapping = new IsomorphismMatcher(compact, labels, otherCompact, otherLabels).match();
+        if (mapping == null) return Optional.empty();
+
+        Map<K, K2> map = new HashMap<>(mapping.length * 4 / 3 + 1);
+        for (int v = 0; v < mapping.length; v++) {
+            map.put(compact.keyAt(v), otherCompact.keyAt(mapping[v]));
+        }
+        return Optional.of(map);
+    }
+
+    /**
+     * Gets the isomorphism invariants of the graph. The certificate is computed in O(V + E)
+     * per refinement round and cached until the graph changes.
+     * @return the graph's certificate
+     */
+    public GraphCertificate certificate() {
+        if (!hasCachedCertificate()) {
+            CompactGraph<K, V> compact = freeze();
+            certificate(compact, ColorRefinement.refine(compact));
+        }
+        return certificate;
+    }
+
+    /**
+     * Gets the cached certificate, or computes it from a frozen copy of the graph and its
+     * refinement colours
+     */
+    private GraphCertificate certificate(CompactGraph<K, V> compact, long[] labels) {
+        if (!hasCachedCertificate()) {
+            certificate = GraphCertificate.of(compact, labels);
+            certificateModCount = modCount;
+        }
+        return certificate;
+    }
+
+    private boolean hasCachedCertificate() {
+        return certificate != null && certificateModCount == modCount;
+    }
+
+    /**
+     * Creates an immutable, compact snapshot of the graph in which every key is mapped to a
+     * dense int index. Changes made to the graph afterwards are not reflected in the snapshot.
+     * @return a {@link CompactGraph} holding the current vertices and edges
+     */
+    public CompactGraph<K, V> freeze() {
+        return CompactGraph.of(this);
+    }
+
+    /**
+     * Creates an immutable snapshot of the graph like {@link #freeze()}, but with the adjacency
+     * in direct memory outside the Java heap
+     * @return an {@link OffHeapGraph} holding the current vertices and edges
+     */
+    public OffHeapGraph<K, V> offHeap() {
+        try {
+            return OffHeapGraph.of(this, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates an immutable snapshot of the graph like {@link #freeze()}, but with the adjacency
+     * in a memory-mapped file
+     * @param path the file to keep the adjacency in, which is replaced if it exists
+     * @return an {@link OffHeapGraph} holding the current vertices and edges
+     * @throws IOException if the file can't be written
+     */
+    public OffHeapGraph<K, V> offHeap(Path path) throws IOException {
+        return OffHeapGraph.of(this, path);
+    }
+
+    /**
+     * Prints graph so that it can easily be visualized using <a href="https://knsv.github.io/mermaid/">Mermand</a>.
+     * To write a graph somewhere else, or in another format, use {@link GraphExporter}.
      * @return the graph
      */
     public Graph<K, V> printGraph(){
-        System.out.println("```@mermaid");
-        System.out.println("graph TD");
-        getEdgeSet().forEach(
-                edge -> System.out.println(edge.one().getId() + " --> " + edge.other().getId())
-        );
-        System.out.println("```");
+        PrintWriter out = new PrintWriter(System.out);
+        out.println("```@mermaid");
+        try {
+            GraphExporter.write(this, GraphExporter.Format.MERMAID, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        out.println("```");
+        out.flush();
         return this;
     }
 }
@@ -0,0 +1,99 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A set of isomorphism invariants of a graph: the number of vertices and edges, the degree
+ * sequence, and a hash of its {@link ColorRefinement} colours. Isomorphic graphs always have
+ * equal certificates, so graphs with different certificates can be rejected without
+ * searching for a mapping. Equal certificates don't prove that graphs are isomorphic.
+ */
+public final class GraphCertificate {
+
+    private final int vertexCount;
+    private final long edgeCount;
+    private final int[] degrees;
+    private final long refinementHash;
+
+    private GraphCertificate(int vertexCount, long edgeCount, int[] degrees, long refinementHash) {
+        this.vertexCount = vertexCount;
+        this.edgeCount = edgeCount;
+        this.degrees = degrees;
+        this.refinementHash = refinementHash;
+    }
+
+    /**
+     * Computes the certificate of a graph in O(V + E) per refinement round
+     * @param graph the graph
+     * @return the certificate
+     */
+    static GraphCertificate of(IndexedGraph<?, ?> graph) {
+        return of(graph, ColorRefinement.refine(graph));
+    }
+
+    /**
+     * Computes the certificate of a graph whose refinement colours are already known
+     * @param graph the graph
+     * @param colors the {@link ColorRefinement#refine} colours of the graph
+     * @return the certificate
+     */
+    static GraphCertificate of(IndexedGraph<?, ?> graph, long[] colors) {
+        int size = graph.vertexCount();
+        int[] degrees = new int[size];
+        for (int v = 0; v < size; v++) {
+            degrees[v] = graph.degree(v);
+        }
+        Arrays.sort(degrees);
+        return new GraphCertificate(size, graph.edgeCount(), degrees, ColorRefinement.hash(colors));
+    }
+
+    /**
+     * Get the number of vertices
+     * @return the number of vertices
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Get the number of edges
+     * @return the number of edges
+     */
+    public long getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Get the degrees of all vertices, in ascending order
+     * @return a copy of the degree sequence
+     */
+    public int[] getDegreeSequence() {
+        return degrees.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        GraphCertificate that = (GraphCertificate) o;
+        return vertexCount == that.vertexCount
+                && edgeCount == that.edgeCount
+                && refinementHash == that.refinementHash
+                && Arrays.equals(degrees, that.degrees);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(refinementHash) * 31 + vertexCount;
+    }
+
+    @Override
+    public String toString() {
+        return "GraphCertificate{" +
+                "vertices=" + vertexCount +
+                ", edges=" + edgeCount +
+                ", hash=" + Long.toHexString(refinementHash) +
+                '}';
+    }
+}
@@ -0,0 +1,432 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * Vertex colouring of an {@link IndexedGraph}: every vertex gets a colour, numbered from 0,
+ * such that no two adjacent vertices share a colour. Colourings are returned as an int array
+ * indexed by vertex, or wrapped in a {@link Coloring}.
+ */
+public final class GraphColoring {
+
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
+
+    private GraphColoring() {}
+
+    /**
+     * Colours a graph with the given strategy
+     * @param graph the graph to colour
+     * @param strategy the vertex ordering to colour with
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return the colouring
+     */
+    public static <K, V> Coloring<K, V> color(IndexedGraph<K, V> graph, ColoringStrategy strategy) {
+        return new Coloring<>(graph, strategy.color(graph));
+    }
+
+    /**
+     * Colours every connected component of a graph on its own with the given strategy, with
+     * the components coloured in parallel. No colour is shared across an edge between
+     * components, since there are none, so the colourings are simply combined; the number of
+     * colours used is the largest number any component needs.
+     * @param graph the graph to colour
+     * @param strategy the vertex ordering to colour each component with
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return the colouring
+     */
+    public static <K, V> Coloring<K, V> colorComponents(IndexedGraph<K, V> graph, ColoringStrategy strategy) {
+        int size = graph.vertexCount();
+        int[] labels = Traversal.components(graph);
+        int count = Traversal.componentCount(labels);
+
+        int[] offsets = new int[count + 1];
+        for (int label : labels) {
+            offsets[label + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+        int[] cursor = Arrays.copyOf(offsets, count);
+        int[] members = new int[size];
+        int[] local = new int[size];
+        for (int v = 0; v < size; v++) {
+            int position = cursor[labels[v]]++;
+            members[position] = v;
+            local[v] = position - offsets[labels[v]];
+        }
+
+        int[] colors = new int[size];
+        IntStream.range(0, count).parallel().forEach(c -> {
+            int from = offsets[c];
+            int to = offsets[c + 1];
+            if (to - from == 1) return;
+            int[] componentColors = strategy.color(CompactGraph.induced(graph, members, from, to, local));
+            for (int i = from; i < to; i++) {
+                colors[members[i]] = componentColors[i - from];
+            }
+        });
+        return new Coloring<>(graph, colors);
+    }
+
+    /**
+     * Colours the vertices greedily in largest-degree-first (Welsh-Powell) order, giving each
+     * vertex the smallest colour that none of its neighbours has.
+     * @param graph the graph to colour
+     * @return the colour of every vertex, by index
+     */
+    public static int[] welshPowell(IndexedGraph<?, ?> graph) {
+        int[] colors = new int[graph.vertexCount()];
+        Arrays.fill(colors, -1);
+        int[] order = largestFirst(graph);
+        int[] marks = new int[maxDegree(graph) + 2];
+        for (int i = 0; i < order.length; i++) {
+            int v = order[i];
+            colors[v] = firstFit(graph, v, colors, marks, i + 1);
+        }
+        return colors;
+    }
+
+    /**
+     * Colours the vertices on all cores of the common fork-join pool using speculative
+     * colouring with conflict repair. Every round, the vertices still to be coloured are split
+     * across threads and each one takes the smallest colour none of its neighbours has at
+     * that moment. Because neighbours may be coloured at the same time, the round ends by
+     * looking for adjacent vertices that got the same colour; the one later in
+     * largest-degree-first order is coloured again in the next round. The result is a valid
+     * colouring with about as many colours as {@link #welshPowell(IndexedGraph)}.
+     * @param graph the graph to colour
+     * @return the colour of every vertex, by index
+     */
+    public static int[] parallel(IndexedGraph<?, ?> graph) {
+        int size = graph.vertexCount();
+        int[] colors = new int[size];
+        Arrays.fill(colors, -1);
+        int[] order = largestFirst(graph);
+        int[] rank = new int[size];
+        for (int i = 0; i < size; i++) {
+            rank[order[i]] = i;
+        }
+
+        int[] work = order;
+        int length = size;
+        int marksLength = maxDegree(graph) + 2;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        while (length > 0) {
+            if (length <= SEQUENTIAL_THRESHOLD) {
+                int[] marks = new int[marksLength];
+                for (int i = 0; i < length; i++) {
+                    colors[work[i]] = firstFit(graph, work[i], colors, marks, i + 1);
+                }
+                break;
+            }
+
+            boolean[] conflicts = new boolean[length];
+            pool.invoke(new Speculate(graph, colors, work, 0, length, marksLength));
+            pool.invoke(new Detect(graph, colors, rank, work, conflicts, 0, length));
+
+            int remaining = 0;
+            for (int i = 0; i < length; i++) {
+                if (conflicts[i]) work[remaining++] = work[i];
+            }
+            length = remaining;
+        }
+        return colors;
+    }
+
+    /**
+     * Colours the vertices with DSatur: the next vertex is always an uncoloured vertex whose
+     * neighbours already use the most distinct colours (its saturation degree), and it gets
+     * the smallest colour none of them use. The colours around every vertex are kept in a
+     * bitset, and vertices wait in a bucket queue keyed by saturation degree. Usually needs
+     * fewer colours than the degree orderings, at the cost of more bookkeeping.
+     * @param graph the graph to colour
+     * @return the colour of every vertex, by index
+     */
+    public static int[] dsatur(IndexedGraph<?, ?> graph) {
+        int size = graph.vertexCount();
+        int[] colors = new int[size];
+        Arrays.fill(colors, -1);
+        long[][] forbidden = new long[size][];
+        BucketQueue queue = new BucketQueue(size, maxDegree(graph));
+        int[] order = largestFirst(graph);
+        for (int i = size - 1; i >= 0; i--) {
+            queue.insert(order[i], 0);
+        }
+
+        while (!queue.isEmpty()) {
+            int v = queue.pollMax();
+            int color = firstClear(forbidden[v]);
+            colors[v] = color;
+
+            int degree = graph.degree(v);
+            for (int i = 0; i < degree; i++) {
+                int w = graph.neighbor(v, i);
+                if (colors[w] < 0 && !isSet(forbidden[w], color)) {
+                    forbidden[w] = set(forbidden[w], color);
+                    queue.update(w, queue.key(w) + 1);
+                }
+            }
+        }
+        return colors;
+    }
+
+    /**
+     * Colours the vertices greedily in smallest-last order: the vertex of smallest degree is
+     * removed from the graph repeatedly, and the vertices are then coloured in the reverse of
+     * the order they were removed in. Never needs more colours than the graph's degeneracy
+     * plus one.
+     * @param graph the graph to colour
+     * @return the colour of every vertex, by index
+     */
+    public static int[] smallestLast(IndexedGraph<?, ?> graph) {
+        int[] order = degeneracyOrder(graph);
+        int[] colors = new int[order.length];
+        Arrays.fill(colors, -1);
+        int[] marks = new int[maxDegree(graph) + 2];
+        for (int i = order.length - 1; i >= 0; i--) {
+            colors[order[i]] = firstFit(graph, order[i], colors, marks, order.length - i);
+        }
+        return colors;
+    }
+
+    /**
+     * Colours the vertices greedily in incremental (incidence) degree order: the next vertex
+     * is always an uncoloured vertex with the most coloured neighbours. Cheaper than
+     * {@link #dsatur(IndexedGraph)} because it counts neighbours instead of distinct colours.
+     * @param graph the graph to colour
+     * @return the colour of every vertex, by index
+     */
+    public static int[] incrementalDegree(IndexedGraph<?, ?> graph) {
+        int size = graph.vertexCount();
+        int[] colors = new int[size];
+        Arrays.fill(colors, -1);
+        int maxDegree = maxDegree(graph);
+        int[] marks = new int[maxDegree + 2];
+        BucketQueue queue = new BucketQueue(size, maxDegree);
+        int[] order = largestFirst(graph);
+        for (int i = size - 1; i >= 0; i--) {
+            queue.insert(order[i], 0);
+        }
+
+        for (int stamp = 1; !queue.isEmpty(); stamp++) {
+            int v = queue.pollMax();
+            colors[v] = firstFit(graph, v, colors, marks, stamp);
+
+            int degree = graph.degree(v);
+            for (int i = 0; i < degree; i++) {
+                int w = graph.neighbor(v, i);
+                if (queue.contains(w)) queue.update(w, queue.key(w) + 1);
+            }
+        }
+        return colors;
+    }
+
+    /**
+     * Orders the vertices by repeatedly removing a vertex of smallest remaining degree
+     * (Matula-Beck), in O(V + E) with a bucket queue
+     * @param graph the graph
+     * @return the vertex indices in the order they were removed
+     */
+    static int[] degeneracyOrder(IndexedGraph<?, ?> graph) {
+        int size = graph.vertexCount();
+        BucketQueue queue = new BucketQueue(size, maxDegree(graph));
+        for (int v = 0; v < size; v++) {
+            queue.insert(v, graph.degree(v));
+        }
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            int v = queue.pollMin();
+            order[i] = v;
+            int degree = graph.degree(v);
+            for (int j = 0; j < degree; j++) {
+                int w = graph.neighbor(v, j);
+                if (queue.contains(w)) queue.update(w, queue.key(w) - 1);
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Counts the colours used by a colouring
+     * @param colors the colour of every vertex
+     * @return the number of colours, which is the highest colour plus one
+     */
+    public static int colorCount(int[] colors) {
+        int max = -1;
+        for (int color : colors) {
+            max = Math.max(max, color);
+        }
+        return max + 1;
+    }
+
+    /**
+     * Checks that every vertex has a colour and that no edge joins two vertices of the same
+     * colour. Self-loops are ignored.
+     * @param graph the graph
+     * @param colors the colour of every vertex
+     * @return true if the colouring is valid, false otherwise
+     */
+    public static boolean isValid(IndexedGraph<?, ?> graph, int[] colors) {
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            if (colors[v] < 0) return false;
+            int degree = graph.degree(v);
+            for (int i = 0; i < degree; i++) {
+                int w = graph.neighbor(v, i);
+                if (w != v && colors[w] == colors[v]) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the smallest colour that no neighbour of a vertex has. {@code marks} is scratch
+     * space of at least the maximum degree plus two entries; a colour is taken if its entry
+     * equals {@code stamp}, which must differ between calls so the array never needs clearing.
+     */
+    static int firstFit(IndexedGraph<?, ?> graph, int v, int[] colors, int[] marks, int stamp) {
+        int degree = graph.degree(v);
+        for (int i = 0; i < degree; i++) {
+            int w = graph.neighbor(v, i);
+            int color = colors[w];
+            if (w != v && color >= 0 && color < marks.length) marks[color] = stamp;
+        }
+        int color = 0;
+        while (marks[color] == stamp) color++;
+        return color;
+    }
+
+    private static boolean isSet(long[] bits, int bit) {
+        int word = bit >>> 6;
+        return bits != null && word < bits.length && (bits[word] & 1L << bit) != 0;
+    }
+
+    private static long[] set(long[] bits, int bit) {
+        int word = bit >>> 6;
+        if (bits == null) bits = new long[word + 1];
+        else if (word >= bits.length) bits = Arrays.copyOf(bits, word + 1);
+        bits[word] |= 1L << bit;
+        return bits;
+    }
+
+    private static int firstClear(long[] bits) {
+        if (bits == null) return 0;
+        for (int word = 0; word < bits.length; word++) {
+            if (bits[word] != -1L) return word * 64 + Long.numberOfTrailingZeros(~bits[word]);
+        }
+        return bits.length * 64;
+    }
+
+    /**
+     * Orders the vertices by degree, largest first, with a counting sort
+     * @return the vertex indices in order
+     */
+    static int[] largestFirst(IndexedGraph<?, ?> graph) {
+        int size = graph.vertexCount();
+        int[] start = new int[maxDegree(graph) + 2];
+        for (int v = 0; v < size; v++) {
+            start[graph.degree(v) + 1]++;
+        }
+        for (int d = 1; d < start.length; d++) {
+            start[d] += start[d - 1];
+        }
+        int[] order = new int[size];
+        for (int v = 0; v < size; v++) {
+            order[size - 1 - start[graph.degree(v)]++] = v;
+        }
+        return order;
+    }
+
+    static int maxDegree(IndexedGraph<?, ?> graph) {
+        int max = 0;
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            max = Math.max(max, graph.degree(v));
+        }
+        return max;
+    }
+
+    /**
+     * Tentatively colours a slice of the work list, splitting it until it is small enough
+     */
+    private static final class Speculate extends RecursiveAction {
+        private final IndexedGraph<?, ?> graph;
+        private final int[] colors;
+        private final int[] work;
+        private final int from;
+        private final int to;
+        private final int marksLength;
+
+        Speculate(IndexedGraph<?, ?> graph, int[] colors, int[] work, int from, int to, int marksLength) {
+            this.graph = graph;
+            this.colors = colors;
+            this.work = work;
+            this.from = from;
+            this.to = to;
+            this.marksLength = marksLength;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SEQUENTIAL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Speculate(graph, colors, work, from, middle, marksLength),
+                        new Speculate(graph, colors, work, middle, to, marksLength));
+                return;
+            }
+            int[] marks = new int[marksLength];
+            for (int i = from; i < to; i++) {
+                colors[work[i]] = firstFit(graph, work[i], colors, marks, i - from + 1);
+            }
+        }
+    }
+
+    /**
+     * Flags the vertices of a slice of the work list that share a colour with a neighbour
+     * earlier in the colouring order
+     */
+    private static final class Detect extends RecursiveAction {
+        private final IndexedGraph<?, ?> graph;
+        private final int[] colors;
+        private final int[] rank;
+        private final int[] work;
+        private final boolean[] conflicts;
+        private final int from;
+        private final int to;
+
+        Detect(IndexedGraph<?, ?> graph, int[] colors, int[] rank, int[] work, boolean[] conflicts, int from, int to) {
+            this.graph = graph;
+            this.colors = colors;
+            this.rank = rank;
+            this.work = work;
+            this.conflicts = conflicts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SEQUENTIAL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Detect(graph, colors, rank, work, conflicts, from, middle),
+                        new Detect(graph, colors, rank, work, conflicts, middle, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                int v = work[i];
+                int degree = graph.degree(v);
+                for (int j = 0; j < degree; j++) {
+                    int w = graph.neighbor(v, j);
+                    if (colors[w] == colors[v] && rank[w] < rank[v]) {
+                        conflicts[i] = true;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+}
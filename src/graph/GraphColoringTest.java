@@ -0,0 +1,110 @@
+package graph;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+class GraphColoringTest {
+
+    static CompactGraph<Integer, Integer> randomGraph(int size, int edges, long seed) {
+        GraphLoader<Integer, Integer> loader = GraphLoader.create();
+        for (int i = 0; i < size; i++) {
+            loader.addVertex(i, i);
+        }
+        Random random = new Random(seed);
+        for (int i = 0; i < edges; i++) {
+            loader.addEdge(random.nextInt(size), random.nextInt(size));
+        }
+        return loader.load().freeze();
+    }
+
+    @Test
+    @DisplayName("Welsh-Powell colours a graph validly")
+    void testWelshPowell(){
+        CompactGraph<Integer, Integer> graph = randomGraph(500, 3000, 1);
+        int[] colors = GraphColoring.welshPowell(graph);
+
+        Assertions.assertTrue(GraphColoring.isValid(graph, colors));
+    }
+
+    @Test
+    @DisplayName("Parallel colouring is valid and uses about as many colours as Welsh-Powell")
+    void testParallel(){
+        CompactGraph<Integer, Integer> graph = randomGraph(50000, 400000, 2);
+        int[] parallel = GraphColoring.parallel(graph);
+        int[] sequential = GraphColoring.welshPowell(graph);
+
+        Assertions.assertTrue(GraphColoring.isValid(graph, parallel));
+        Assertions.assertTrue(GraphColoring.colorCount(parallel) <= GraphColoring.colorCount(sequential) + 2);
+    }
+
+    @Test
+    @DisplayName("A complete graph needs one colour per vertex")
+    void testCompleteGraph(){
+        GraphLoader<Integer, Integer> loader = GraphLoader.create();
+        for (int i = 0; i < 12; i++) {
+            loader.addVertex(i, i);
+            for (int j = 0; j < i; j++) {
+                loader.addEdge(i, j);
+            }
+        }
+        CompactGraph<Integer, Integer> graph = loader.load().freeze();
+
+        Assertions.assertEquals(12, GraphColoring.colorCount(GraphColoring.parallel(graph)));
+        Assertions.assertEquals(12, GraphColoring.colorCount(GraphColoring.welshPowell(graph)));
+    }
+
+    @Test
+    @DisplayName("Every strategy colours a graph validly")
+    void testStrategies(){
+        CompactGraph<Integer, Integer> graph = randomGraph(3000, 20000, 3);
+
+        for (ColoringStrategy strategy : ColoringStrategy.values()) {
+            Assertions.assertTrue(GraphColoring.isValid(graph, strategy.color(graph)), strategy.name());
+        }
+    }
+
+    @Test
+    @DisplayName("DSatur and smallest-last colour a crown graph with two colours")
+    void testCrownGraph(){
+        GraphLoader<Integer, Integer> loader = GraphLoader.create();
+        int half = 20;
+        for (int i = 0; i < 2 * half; i++) {
+            loader.addVertex(i, i);
+        }
+        for (int i = 0; i < half; i++) {
+            for (int j = 0; j < half; j++) {
+                if (i != j) loader.addEdge(i, half + j);
+            }
+        }
+        CompactGraph<Integer, Integer> crown = loader.load().freeze();
+
+        Assertions.assertEquals(2, GraphColoring.colorCount(GraphColoring.dsatur(crown)));
+        Assertions.assertEquals(2, GraphColoring.colorCount(GraphColoring.smallestLast(crown)));
+    }
+
+    @Test
+    @DisplayName("A colouring groups vertices by colour without touching their data")
+    void testColoringView(){
+        CompactGraph<String, Integer> path = Graph.<String, Integer>create()
+                .addVertex("a", 1)
+                .addVertex("b", 2)
+                .addVertex("c", 3)
+                .addEdge("a", "b")
+                .addEdge("b", "c")
+                .freeze();
+
+        Coloring<String, Integer> coloring = GraphColoring.color(path, ColoringStrategy.DSATUR);
+
+        Assertions.assertEquals(2, coloring.colorCount());
+        Assertions.assertEquals(coloring.colorOf("a"), coloring.colorOf("c"));
+        Assertions.assertNotEquals(coloring.colorOf("a"), coloring.colorOf("b"));
+        Assertions.assertEquals(2, coloring.sizeOf(coloring.colorOf("a")));
+        Assertions.assertEquals(Arrays.asList("b"), coloring.keysOf(coloring.colorOf("b")));
+        Assertions.assertEquals(Arrays.asList(2), coloring.dataOf(coloring.colorOf("b")));
+        Assertions.assertThrows(VertexNotInGraphException.class, () -> coloring.colorOf("z"));
+    }
+}
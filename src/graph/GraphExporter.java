@@ -0,0 +1,192 @@
+package graph;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.IntStream;
+
+/**
+ * Writes graphs as text. Edges are streamed from the graph straight into a buffered writer,
+ * so exporting needs no memory beyond the buffer however large the graph is. Every edge is
+ * written once, and vertices without edges are written on their own so they aren't lost.
+ */
+public final class GraphExporter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The text formats a graph can be written in
+     */
+    public enum Format {
+
+        /**
+         * One edge per line, as the two keys separated by a tab. A vertex without edges is a
+         * line holding only its key.
+         */
+        EDGE_LIST {
+            @Override
+            void vertex(String key, Writer out) throws IOException {
+                out.write(key);
+                out.write('\n');
+            }
+
+            @Override
+            void edge(String key1, String key2, boolean directed, Writer out) throws IOException {
+                out.write(key1);
+                out.write('\t');
+                out.write(key2);
+                out.write('\n');
+            }
+        },
+
+        /**
+         * A <a href="https://mermaid.js.org/">Mermaid</a> flowchart
+         */
+        MERMAID {
+            @Override
+            void begin(boolean directed, Writer out) throws IOException {
+                out.write("graph TD\n");
+            }
+
+            @Override
+            void vertex(String key, Writer out) throws IOException {
+                out.write(key);
+                out.write('\n');
+            }
+
+            @Override
+            void edge(String key1, String key2, boolean directed, Writer out) throws IOException {
+                out.write(key1);
+                out.write(" --> ");
+                out.write(key2);
+                out.write('\n');
+            }
+        },
+
+        /**
+         * A <a href="https://graphviz.org/">Graphviz</a> DOT graph, or digraph for a
+         * {@link DirectedIndexedGraph}, with every key quoted
+         */
+        DOT {
+            @Override
+            void begin(boolean directed, Writer out) throws IOException {
+                out.write(directed ? "digraph {\n" : "graph {\n");
+            }
+
+            @Override
+            void vertex(String key, Writer out) throws IOException {
+                out.write("  ");
+                quote(key, out);
+                out.write(";\n");
+            }
+
+            @Override
+            void edge(String key1, String key2, boolean directed, Writer out) throws IOException {
+                out.write("  ");
+                quote(key1, out);
+                out.write(directed ? " -> " : " -- ");
+                quote(key2, out);
+                out.write(";\n");
+            }
+
+            @Override
+            void end(Writer out) throws IOException {
+                out.write("}\n");
+            }
+        };
+
+        void begin(boolean directed, Writer out) throws IOException {}
+
+        abstract void vertex(String key, Writer out) throws IOException;
+
+        abstract void edge(String key1, String key2, boolean directed, Writer out) throws IOException;
+
+        void end(Writer out) throws IOException {}
+    }
+
+    private GraphExporter() {}
+
+    /**
+     * Writes a graph. The writer is flushed but not closed.
+     * @param graph the graph to write
+     * @param format the format to write in
+     * @param writer the writer to write to
+     * @throws IOException if the writer fails
+     */
+    public static void write(Graph<?, ?> graph, Format format, Writer writer) throws IOException {
+        Iterator<? extends Pair<?>> edges = graph.edgeStream().iterator();
+        Iterator<?> isolated = graph.getVertices().stream()
+                .filter(vertex -> vertex.getDegree() == 0)
+                .map(Vertex::getId)
+                .iterator();
+        write(edges, isolated, false, format, writer);
+    }
+
+    /**
+     * Writes a graph as UTF-8. The channel is not closed.
+     * @param graph the graph to write
+     * @param format the format to write in
+     * @param channel the channel to write to
+     * @throws IOException if the channel fails
+     */
+    public static void write(Graph<?, ?> graph, Format format, WritableByteChannel channel) throws IOException {
+        write(graph, format, Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE));
+    }
+
+    /**
+     * Writes a graph. The edges of a {@link DirectedIndexedGraph} are written from their
+     * source to their target. The writer is flushed but not closed.
+     * @param graph the graph to write
+     * @param format the format to write in
+     * @param writer the writer to write to
+     * @throws IOException if the writer fails
+     */
+    public static void write(IndexedGraph<?, ?> graph, Format format, Writer writer) throws IOException {
+        Iterator<? extends Pair<?>> edges = graph.edgeStream().iterator();
+        boolean directed = graph instanceof DirectedIndexedGraph;
+        Iterator<?> isolated = IntStream.range(0, graph.vertexCount())
+                .filter(v -> graph.degree(v) == 0 && (!directed || ((DirectedIndexedGraph<?, ?>) graph).inDegree(v) == 0))
+                .mapToObj(graph::keyAt)
+                .iterator();
+        write(edges, isolated, directed, format, writer);
+    }
+
+    /**
+     * Writes a graph as UTF-8. The channel is not closed.
+     * @param graph the graph to write
+     * @param format the format to write in
+     * @param channel the channel to write to
+     * @throws IOException if the channel fails
+     */
+    public static void write(IndexedGraph<?, ?> graph, Format format, WritableByteChannel channel) throws IOException {
+        write(graph, format, Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE));
+    }
+
+    private static void write(Iterator<? extends Pair<?>> edges, Iterator<?> isolated, boolean directed, Format format, Writer writer) throws IOException {
+        Writer out = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer, BUFFER_SIZE);
+        format.begin(directed, out);
+        while (isolated.hasNext()) {
+            format.vertex(String.valueOf(isolated.next()), out);
+        }
+        while (edges.hasNext()) {
+            Pair<?> edge = edges.next();
+            format.edge(String.valueOf(edge.one()), String.valueOf(edge.other()), directed, out);
+        }
+        format.end(out);
+        out.flush();
+    }
+
+    private static void quote(String key, Writer out) throws IOException {
+        out.write('"');
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '"' || c == '\\') out.write('\\');
+            out.write(c);
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,71 @@
+package graph;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+class GraphExporterTest {
+
+    private static Graph<String, Integer> path() {
+        return Graph.<String, Integer>create()
+                .addVertex("a", 1)
+                .addVertex("b", 2)
+                .addVertex("c \"quoted\"", 3)
+                .addVertex("lonely", 4)
+                .addEdge("a", "b")
+                .addEdge("b", "c \"quoted\"");
+    }
+
+    @Test
+    @DisplayName("An edge list has a line per edge and per vertex without edges")
+    void testEdgeList() throws IOException {
+        StringWriter out = new StringWriter();
+        GraphExporter.write(path(), GraphExporter.Format.EDGE_LIST, out);
+
+        Set<String> lines = new HashSet<>(Arrays.asList(out.toString().split("\n")));
+        Assertions.assertEquals(3, lines.size());
+        Assertions.assertTrue(lines.contains("lonely"));
+        Assertions.assertTrue(lines.contains("a\tb") || lines.contains("b\ta"));
+    }
+
+    @Test
+    @DisplayName("DOT output quotes keys and writes the same graph to a writer and a channel")
+    void testDot() throws IOException {
+        CompactGraph<String, Integer> graph = path().freeze();
+        StringWriter writer = new StringWriter();
+        GraphExporter.write(graph, GraphExporter.Format.DOT, writer);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GraphExporter.write(graph, GraphExporter.Format.DOT, Channels.newChannel(bytes));
+
+        String dot = writer.toString();
+        Assertions.assertEquals(dot, new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+        Assertions.assertTrue(dot.startsWith("graph {\n"));
+        Assertions.assertTrue(dot.endsWith("}\n"));
+        Assertions.assertTrue(dot.contains("\"c \\\"quoted\\\"\""));
+        Assertions.assertTrue(dot.contains("  \"lonely\";\n"));
+    }
+
+    @Test
+    @DisplayName("The edge stream emits every edge once, also in parallel")
+    void testEdgeStream(){
+        CompactGraph<Integer, Integer> graph = GraphColoringTest.randomGraph(3000, 20000, 15);
+
+        Assertions.assertEquals(graph.edgeCount(), graph.edgeStream().count());
+        Assertions.assertEquals(graph.edgeCount(), graph.edgeStream().parallel().count());
+        Assertions.assertEquals(graph.edgeStream().collect(Collectors.toSet()),
+                graph.edgeStream().parallel().collect(Collectors.toSet()));
+
+        Graph<String, Integer> path = path();
+        Assertions.assertEquals(path.edgesAsPairSet(), path.freeze().edgeStream().collect(Collectors.toSet()));
+    }
+}
@@ -0,0 +1,378 @@
+package graph;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes an {@link IndexedGraph} to a file in a compact binary format, and maps such a file
+ * back into memory as a read-only {@link MappedGraph}, or {@link MappedDirectedGraph} for a
+ * {@link DirectedIndexedGraph}.
+ *
+ * The file starts with a header and is followed by sections aligned to 8 bytes, all numbers
+ * big-endian:
+ * <ol>
+ *     <li>the header: magic number, version, flags, vertex count, neighbour count, edge
+ *     count, key table size and the lengths of the key and data bytes</li>
+ *     <li>CSR offsets, one long per vertex plus one</li>
+ *     <li>CSR targets, the sorted neighbour indices of every vertex as ints</li>
+ *     <li>if the graph is weighted, the weight of every target as a double</li>
+ *     <li>if the graph is directed, the three sections above once more for the in-edges;
+ *     the first three then describe the out-edges</li>
+ *     <li>the key table, an open-addressing hash table of vertex index + 1 by the hash of
+ *     the encoded key, so keys can be looked up without reading them all</li>
+ *     <li>key offsets, one long per vertex plus one, into the key bytes</li>
+ *     <li>if the file has data, data offsets like the key offsets, and a bitset of the
+ *     vertices whose data is null</li>
+ *     <li>the key bytes and the data bytes, as written by the {@link Codec}s</li>
+ * </ol>
+ */
+public final class GraphFile {
+
+    static final int MAGIC = 0x47524146;
+    static final int VERSION = 1;
+    static final int HAS_DATA = 1;
+    static final int HAS_WEIGHTS = 2;
+    static final int DIRECTED = 4;
+    static final int HEADER_SIZE = 64;
+    static final int SEGMENT_SHIFT = 30;
+
+    private GraphFile() {}
+
+    /**
+     * Writes a graph, without its vertex data
+     * @param graph the graph to write
+     * @param path the file to write to, which is replaced if it exists
+     * @param keyCodec the codec for the keys
+     * @param <K> the key type
+     * @throws IOException if the file can't be written
+     */
+    public static <K> void write(IndexedGraph<K, ?> graph, Path path, Codec<K> keyCodec) throws IOException {
+        write(graph, path, keyCodec, null);
+    }
+
+    /**
+     * Writes a graph
+     * @param graph the graph to write
+     * @param path the file to write to, which is replaced if it exists
+     * @param keyCodec the codec for the keys
+     * @param dataCodec the codec for the vertex data, or null to leave the data out
+     * @param <K> the key type
+     * @param <V> the value type
+     * @throws IOException if the file can't be written
+     */
+    public static <K, V> void write(IndexedGraph<K, V> graph, Path path, Codec<K> keyCodec, Codec<V> dataCodec) throws IOException {
+        int size = graph.vertexCount();
+        boolean hasData = dataCodec != null;
+        Encoder encoder = new Encoder();
+
+        long[] offsets = new long[size + 1];
+        long[] keyOffsets = new long[size + 1];
+        int[] hashes = new int[size];
+        for (int v = 0; v < size; v++) {
+            offsets[v + 1] = offsets[v] + graph.degree(v);
+            encoder.encode(keyCodec, graph.keyAt(v));
+            keyOffsets[v + 1] = keyOffsets[v] + encoder.size();
+            hashes[v] = encoder.hash();
+        }
+
+        long[] dataOffsets = new long[size + 1];
+        long[] nulls = new long[(size + 63) >>> 6];
+        if (hasData) {
+            for (int v = 0; v < size; v++) {
+                V data = graph.dataAt(v);
+                if (data == null) {
+                    nulls[v >>> 6] |= 1L << v;
+                    dataOffsets[v + 1] = dataOffsets[v];
+                } else {
+                    encoder.encode(dataCodec, data);
+                    dataOffsets[v + 1] = dataOffsets[v] + encoder.size();
+                }
+            }
+        }
+
+        boolean hasWeights = false;
+        for (int v = 0; v < size && !hasWeights; v++) {
+            for (int i = graph.degree(v) - 1; i >= 0 && !hasWeights; i--) {
+                hasWeights = graph.weight(v, i) != 1.0;
+            }
+        }
+        DirectedIndexedGraph<K, V> reverse = graph instanceof DirectedIndexedGraph
+                ? ((DirectedIndexedGraph<K, V>) graph).reverse()
+                : null;
+        int flags = (hasData ? HAS_DATA : 0) | (hasWeights ? HAS_WEIGHTS : 0) | (reverse != null ? DIRECTED : 0);
+
+        int[] table = keyTable(hashes);
+        Layout layout = new Layout(size, offsets[size], table.length, flags, keyOffsets[size], dataOffsets[size]);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(flags);
+            out.writeInt(size);
+            out.writeLong(offsets[size]);
+            out.writeLong(graph.edgeCount());
+            out.writeInt(table.length);
+            out.writeInt(0);
+            out.writeLong(keyOffsets[size]);
+            out.writeLong(dataOffsets[size]);
+            pad(out, 56, layout.offsets);
+
+            writeAdjacency(out, graph, offsets, hasWeights, layout.targets, layout.weights);
+            if (reverse != null) {
+                writeAdjacency(out, reverse, offsets, hasWeights, layout.inTargets, layout.inWeights);
+            }
+
+            for (int slot : table) {
+                out.writeInt(slot);
+            }
+            pad(out, layout.table + 4L * table.length, layout.keyOffsets);
+
+            for (long offset : keyOffsets) {
+                out.writeLong(offset);
+            }
+            if (hasData) {
+                for (long offset : dataOffsets) {
+                    out.writeLong(offset);
+                }
+                for (long word : nulls) {
+                    out.writeLong(word);
+                }
+            }
+
+            for (int v = 0; v < size; v++) {
+                keyCodec.write(graph.keyAt(v), out);
+            }
+            pad(out, layout.keys + keyOffsets[size], layout.data);
+
+            if (hasData) {
+                for (int v = 0; v < size; v++) {
+                    V data = graph.dataAt(v);
+                    if (data != null) dataCodec.write(data, out);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the CSR offsets, targets and, if there are any, weights of a graph
+     * @param offsets scratch space for the offsets, of length vertexCount + 1
+     */
+    private static void writeAdjacency(DataOutputStream out, IndexedGraph<?, ?> graph, long[] offsets, boolean hasWeights,
+                                       long targetsPosition, long weightsPosition) throws IOException {
+        int size = graph.vertexCount();
+        for (int v = 0; v < size; v++) {
+            offsets[v + 1] = offsets[v] + graph.degree(v);
+        }
+        for (long offset : offsets) {
+            out.writeLong(offset);
+        }
+
+        // neighbours are sorted by index, each packed with its position for the weights
+        long[] neighbors = new long[16];
+        for (int v = 0; v < size; v++) {
+            neighbors = sortedNeighbors(graph, v, neighbors);
+            for (int i = 0; i < graph.degree(v); i++) {
+                out.writeInt((int) (neighbors[i] >>> 32));
+            }
+        }
+        pad(out, targetsPosition + 4 * offsets[size], weightsPosition);
+
+        if (hasWeights) {
+            for (int v = 0; v < size; v++) {
+                neighbors = sortedNeighbors(graph, v, neighbors);
+                for (int i = 0; i < graph.degree(v); i++) {
+                    out.writeDouble(graph.weight(v, (int) neighbors[i]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps a graph file into memory. The graph reads its adjacency straight from the mapped
+     * file, and decodes keys and data only when they are asked for, so mapping takes the
+     * same time for any size of graph.
+     * @param path the file to map
+     * @param keyCodec the codec the keys were written with
+     * @param dataCodec the codec the data was written with, or null to ignore the data
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return a read-only graph backed by the file
+     * @throws IOException if the file can't be read or isn't a graph file of an undirected graph
+     */
+    public static <K, V> MappedGraph<K, V> map(Path path, Codec<K> keyCodec, Codec<V> dataCodec) throws IOException {
+        return map(path, keyCodec, dataCodec, SEGMENT_SHIFT);
+    }
+
+    static <K, V> MappedGraph<K, V> map(Path path, Codec<K> keyCodec, Codec<V> dataCodec, int segmentShift) throws IOException {
+        MappedGraph<K, V> graph = open(path, keyCodec, dataCodec, segmentShift);
+        if (graph.isDirected()) throw new IOException(path + " holds a directed graph");
+        return graph;
+    }
+
+    /**
+     * Maps a file written from a {@link DirectedIndexedGraph} into memory, like
+     * {@link #map(Path, Codec, Codec)}
+     * @param path the file to map
+     * @param keyCodec the codec the keys were written with
+     * @param dataCodec the codec the data was written with, or null to ignore the data
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return a read-only directed graph backed by the file
+     * @throws IOException if the file can't be read or isn't a graph file of a directed graph
+     */
+    public static <K, V> MappedDirectedGraph<K, V> mapDirected(Path path, Codec<K> keyCodec, Codec<V> dataCodec) throws IOException {
+        MappedGraph<K, V> graph = open(path, keyCodec, dataCodec, SEGMENT_SHIFT);
+        if (!graph.isDirected()) throw new IOException(path + " holds an undirected graph");
+        return new MappedDirectedGraph<>(graph);
+    }
+
+    private static <K, V> MappedGraph<K, V> open(Path path, Codec<K> keyCodec, Codec<V> dataCodec, int segmentShift) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long segmentSize = 1L << segmentShift;
+            ByteBuffer[] segments = new ByteBuffer[(int) ((size + segmentSize - 1) >>> segmentShift)];
+            for (int s = 0; s < segments.length; s++) {
+                long start = (long) s << segmentShift;
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, size - start));
+            }
+            return new MappedGraph<>(path, segments, segmentShift, size, keyCodec, dataCodec);
+        }
+    }
+
+    /**
+     * Sorts the neighbours of a vertex by index, each packed with its position in the
+     * vertex's neighbour list in the low 32 bits
+     * @param neighbors scratch space, which is replaced if it is too short
+     * @return the sorted neighbours, in the first degree(v) entries
+     */
+    static long[] sortedNeighbors(IndexedGraph<?, ?> graph, int v, long[] neighbors) {
+        int degree = graph.degree(v);
+        if (degree > neighbors.length) neighbors = new long[Math.max(degree, neighbors.length * 2)];
+        for (int i = 0; i < degree; i++) {
+            neighbors[i] = (long) graph.neighbor(v, i) << 32 | i;
+        }
+        Arrays.sort(neighbors, 0, degree);
+        return neighbors;
+    }
+
+    /**
+     * Hashes encoded bytes for the key table
+     */
+    static int hash(byte[] bytes, int from, int to) {
+        int h = 0x811c9dc5;
+        for (int i = from; i < to; i++) {
+            h = (h ^ bytes[i]) * 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    /**
+     * Get the size of the key table for the given number of vertices: a power of two at
+     * least twice as large
+     */
+    static int tableSize(int vertexCount) {
+        return Integer.highestOneBit(Math.max(1, vertexCount) * 2 - 1) << 1;
+    }
+
+    private static int[] keyTable(int[] hashes) {
+        int[] table = new int[tableSize(hashes.length)];
+        int mask = table.length - 1;
+        for (int v = 0; v < hashes.length; v++) {
+            int slot = hashes[v] & mask;
+            while (table[slot] != 0) slot = (slot + 1) & mask;
+            table[slot] = v + 1;
+        }
+        return table;
+    }
+
+    private static void pad(DataOutputStream out, long from, long to) throws IOException {
+        for (long i = from; i < to; i++) {
+            out.write(0);
+        }
+    }
+
+    static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    /**
+     * The positions of the sections of a graph file
+     */
+    static final class Layout {
+        final long offsets;
+        final long targets;
+        final long weights;
+        final long inOffsets;
+        final long inTargets;
+        final long inWeights;
+        final long table;
+        final long keyOffsets;
+        final long dataOffsets;
+        final long nulls;
+        final long keys;
+        final long data;
+        final long end;
+
+        Layout(int vertexCount, long targetCount, int tableSize, int flags, long keyBytes, long dataBytes) {
+            boolean hasData = (flags & HAS_DATA) != 0;
+            boolean directed = (flags & DIRECTED) != 0;
+            long position = HEADER_SIZE;
+            offsets = position;
+            position += 8L * (vertexCount + 1);
+            targets = position;
+            position = align(position + 4 * targetCount);
+            weights = position;
+            if ((flags & HAS_WEIGHTS) != 0) position += 8 * targetCount;
+            inOffsets = position;
+            if (directed) position += 8L * (vertexCount + 1);
+            inTargets = position;
+            if (directed) position = align(position + 4 * targetCount);
+            inWeights = position;
+            if (directed && (flags & HAS_WEIGHTS) != 0) position += 8 * targetCount;
+            table = position;
+            position = align(position + 4L * tableSize);
+            keyOffsets = position;
+            position += 8L * (vertexCount + 1);
+            dataOffsets = position;
+            if (hasData) position += 8L * (vertexCount + 1);
+            nulls = position;
+            if (hasData) position += 8L * ((vertexCount + 63) >>> 6);
+            keys = position;
+            position = align(position + keyBytes);
+            data = position;
+            end = position + dataBytes;
+        }
+    }
+
+    /**
+     * Encodes values into a reusable buffer
+     */
+    static final class Encoder extends ByteArrayOutputStream {
+        private final DataOutputStream out = new DataOutputStream(this);
+
+        <T> void encode(Codec<T> codec, T value) throws IOException {
+            reset();
+            codec.write(value, out);
+            out.flush();
+        }
+
+        byte[] bytes() {
+            return buf;
+        }
+
+        int hash() {
+            return GraphFile.hash(buf, 0, count);
+        }
+    }
+}
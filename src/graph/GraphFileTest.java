@@ -0,0 +1,90 @@
+package graph;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class GraphFileTest {
+
+    @Test
+    @DisplayName("A mapped graph has the same keys, data and edges as the graph written")
+    void testRoundTrip() throws IOException {
+        CompactGraph<Integer, Integer> graph = GraphColoringTest.randomGraph(2000, 10000, 14);
+        Path file = Files.createTempFile("graph", ".bin");
+        try {
+            GraphFile.write(graph, file, Codec.integers(), Codec.integers());
+            MappedGraph<Integer, Integer> mapped = GraphFile.map(file, Codec.integers(), Codec.integers());
+
+            Assertions.assertEquals(graph.vertexCount(), mapped.vertexCount());
+            Assertions.assertEquals(graph.edgeCount(), mapped.edgeCount());
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                Assertions.assertEquals(graph.keyAt(v), mapped.keyAt(v));
+                Assertions.assertEquals(graph.dataAt(v), mapped.dataAt(v));
+                Assertions.assertEquals(v, mapped.indexOf(graph.keyAt(v)));
+                Assertions.assertEquals(graph.degree(v), mapped.degree(v));
+                for (int i = 0; i < graph.degree(v); i++) {
+                    Assertions.assertEquals(graph.neighbor(v, i), mapped.neighbor(v, i));
+                    Assertions.assertTrue(mapped.hasEdge(v, graph.neighbor(v, i)));
+                }
+            }
+            Assertions.assertEquals(-1, mapped.indexOf(2000));
+            Assertions.assertEquals(GraphCertificate.of(graph), GraphCertificate.of(mapped));
+            Assertions.assertTrue(GraphColoring.isValid(mapped, GraphColoring.dsatur(mapped)));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Keys and data crossing a segment boundary are read whole, and null data stays null")
+    void testSegments() throws IOException {
+        GraphLoader<String, String> loader = GraphLoader.create();
+        for (int i = 0; i < 500; i++) {
+            loader.addVertex("vertex number " + i, i % 7 == 0 ? null : "data of vertex " + i);
+            if (i > 0) loader.addEdge("vertex number " + i, "vertex number " + (i / 2));
+        }
+        CompactGraph<String, String> graph = loader.load().freeze();
+        Path file = Files.createTempFile("graph", ".bin");
+        try {
+            GraphFile.write(graph, file, Codec.strings(), Codec.strings());
+            MappedGraph<String, String> mapped = GraphFile.map(file, Codec.strings(), Codec.strings(), 8);
+
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                Assertions.assertEquals(graph.keyAt(v), mapped.keyAt(v));
+                Assertions.assertEquals(graph.dataAt(v), mapped.dataAt(v));
+            }
+            Assertions.assertTrue(mapped.hasEdge("vertex number 499", "vertex number 249"));
+            Assertions.assertFalse(mapped.hasEdge("vertex number 499", "vertex number 498"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @DisplayName("A graph written without data maps with null data, and other files are rejected")
+    void testWithoutData() throws IOException {
+        CompactGraph<String, Integer> graph = Graph.<String, Integer>create()
+                .addVertex("a", 1)
+                .addVertex("b", 2)
+                .addEdge("a", "b")
+                .freeze();
+        Path file = Files.createTempFile("graph", ".bin");
+        try {
+            GraphFile.write(graph, file, Codec.strings());
+            MappedGraph<String, Integer> mapped = GraphFile.map(file, Codec.strings(), Codec.integers());
+
+            Assertions.assertFalse(mapped.hasData());
+            Assertions.assertNull(mapped.dataAt(mapped.indexOf("a")));
+            Assertions.assertTrue(mapped.hasEdge("a", "b"));
+
+            Files.write(file, new byte[100]);
+            Assertions.assertThrows(IOException.class, () -> GraphFile.map(file, Codec.strings(), null));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A library of graphs bucketed by {@link GraphCertificate}. Looking up a graph only returns
+ * the stored graphs with the same certificate, which are the only ones that can be isomorphic
+ * to it.
+ *
+ * A graph's certificate is taken when it is added. If a stored graph is changed afterwards,
+ * remove it before the change and add it again after.
+ * @param <K> Type of the keys of the stored graphs
+ * @param <V> Type of the vertices of the stored graphs
+ */
+public final class GraphIndex<K, V> {
+
+    private final Map<GraphCertificate, List<Graph<K, V>>> buckets = new HashMap<>();
+    private int size;
+
+    /**
+     * Adds a graph to the index
+     * @param graph the graph to add
+     * @return the index
+     */
+    public GraphIndex<K, V> add(Graph<K, V> graph) {
+        buckets.computeIfAbsent(graph.certificate(), certificate -> new ArrayList<>()).add(graph);
+        size++;
+        return this;
+    }
+
+    /**
+     * Removes a graph from the index, if it is in it
+     * @param graph the graph to remove
+     * @return true if the graph was removed, false otherwise
+     */
+    public boolean remove(Graph<K, V> graph) {
+        for (List<Graph<K, V>> bucket : buckets.values()) {
+            if (bucket.removeIf(stored -> stored == graph)) {
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of graphs in the index
+     * @return the number of graphs
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the stored graphs that could be isomorphic to the given graph
+     * @param graph the graph to look up
+     * @param <K2> the type of keys of the graph to look up
+     * @param <V2> the type of values of the graph to look up
+     * @return an unmodifiable list of the graphs with the same certificate
+     */
+    public <K2, V2> List<Graph<K, V>> candidates(Graph<K2, V2> graph) {
+        List<Graph<K, V>> bucket = buckets.get(graph.certificate());
+        return bucket == null ? Collections.emptyList() : Collections.unmodifiableList(bucket);
+    }
+
+    /**
+     * Finds a stored graph that is isomorphic to the given graph
+     * @param graph the graph to look up
+     * @param <K2> the type of keys of the graph to look up
+     * @param <V2> the type of values of the graph to look up
+     * @return the first isomorphic graph, or an empty Optional if there is none
+     */
+    public <K2, V2> Optional<Graph<K, V>> findIsomorphic(Graph<K2, V2> graph) {
+        for (Graph<K, V> candidate : candidates(graph)) {
+            if (graph.findIsomorphism(candidate).isPresent()) return Optional.of(candidate);
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,78 @@
+package graph;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+class GraphIndexTest {
+
+    private Graph<Integer, Integer> cycle(int size, int first) {
+        Graph<Integer, Integer> graph = Graph.create();
+        for (int i = 0; i < size; i++) {
+            graph.addVertex(first + i, i);
+        }
+        for (int i = 0; i < size; i++) {
+            graph.addEdge(first + i, first + (i + 1) % size);
+        }
+        return graph;
+    }
+
+    private Graph<Integer, Integer> path(int size) {
+        Graph<Integer, Integer> graph = Graph.create();
+        for (int i = 0; i < size; i++) {
+            graph.addVertex(i, i);
+        }
+        for (int i = 0; i + 1 < size; i++) {
+            graph.addEdge(i, i + 1);
+        }
+        return graph;
+    }
+
+    @Test
+    @DisplayName("Isomorphic graphs have equal certificates, and changing a graph changes its certificate")
+    void testCertificate(){
+        Graph<Integer, Integer> graph = cycle(6, 0);
+
+        Assertions.assertEquals(graph.certificate(), cycle(6, 100).certificate());
+        Assertions.assertNotEquals(graph.certificate(), path(6).certificate());
+
+        graph.removeEdge(5, 0);
+        Assertions.assertEquals(graph.certificate(), path(6).certificate());
+        Assertions.assertArrayEquals(new int[]{1, 1, 2, 2, 2, 2}, graph.certificate().getDegreeSequence());
+    }
+
+    @Test
+    @DisplayName("Two triangles and a hexagon share a certificate but are not isomorphic")
+    void testEqualCertificatesAreNotProof(){
+        Graph<Integer, Integer> triangles = cycle(3, 0);
+        for (int i = 3; i < 6; i++) {
+            triangles.addVertex(i, i);
+        }
+        triangles.addEdges(Arrays.asList(Pair.of(3, 4), Pair.of(4, 5), Pair.of(5, 3)));
+
+        Assertions.assertEquals(triangles.certificate(), cycle(6, 0).certificate());
+        Assertions.assertFalse(triangles.findIsomorphism(cycle(6, 0)).isPresent());
+    }
+
+    @Test
+    @DisplayName("An index only returns graphs with the same certificate")
+    void testCandidates(){
+        Graph<Integer, Integer> hexagon = cycle(6, 0);
+        Graph<Integer, Integer> pentagon = cycle(5, 0);
+        Graph<Integer, Integer> line = path(6);
+        GraphIndex<Integer, Integer> index = new GraphIndex<Integer, Integer>()
+                .add(hexagon)
+                .add(pentagon)
+                .add(line);
+
+        Assertions.assertEquals(3, index.size());
+        Assertions.assertEquals(Arrays.asList(hexagon), index.candidates(cycle(6, 10)));
+        Assertions.assertSame(line, index.findIsomorphic(path(6)).get());
+        Assertions.assertFalse(index.findIsomorphic(cycle(7, 0)).isPresent());
+
+        Assertions.assertTrue(index.remove(line));
+        Assertions.assertFalse(index.findIsomorphic(path(6)).isPresent());
+    }
+}
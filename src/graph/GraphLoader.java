@@ -0,0 +1,326 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Builds a {@link Graph} from a large batch of vertices and edges in one go. Edges are buffered
+ * as pairs of int vertex indices. When the graph is loaded, the degrees are counted first so
+ * that every adjacency list and hash table is allocated at its final size, and the adjacency
+ * lists are then filled in parallel on the common fork-join pool.
+ *
+ * The loaded graph has the same vertices, adjacency lists and edge set that adding the
+ * vertices and then calling {@link Graph#addEdges(List)} with the same edges would produce.
+ * @param <K> Type of the keys
+ * @param <V> Type of the vertices
+ */
+public final class GraphLoader<K, V> {
+
+    private static final int SEQUENTIAL_THRESHOLD = 8192;
+
+    private final List<K> keys = new ArrayList<>();
+    private final List<V> data = new ArrayList<>();
+    private final Map<K, Integer> indices = new HashMap<>();
+    private int[] sources = new int[16];
+    private int[] targets = new int[16];
+    // the weight of every edge, null while every weight is 1
+    private double[] weights;
+    private int edgeCount;
+
+    private GraphLoader() {}
+
+    /**
+     * Factory method to create loaders. Returns a new, empty loader.
+     * @param <K> The key type
+     * @param <V> The value type
+     * @return a new GraphLoader
+     */
+    public static <K, V> GraphLoader<K, V> create() {
+        return new GraphLoader<>();
+    }
+
+    /**
+     * Adds a vertex. Adding a key that was already added replaces its data.
+     * @param key the key of the vertex
+     * @param value the data
+     * @return the loader
+     */
+    public GraphLoader<K, V> addVertex(K key, V value) {
+        Integer index = indices.putIfAbsent(key, keys.size());
+        if (index == null) {
+            keys.add(key);
+            data.add(value);
+        } else {
+            data.set(index, value);
+        }
+        return this;
+    }
+
+    /**
+     * Add a list of objects as vertices
+     * @param vertices list of objects of type V
+     * @param function a function that maps the object of type V to a key of type K
+     * @return the loader
+     */
+    public GraphLoader<K, V> addVertices(List<V> vertices, Function<V, K> function) {
+        for (V vertex : vertices) {
+            addVertex(function.apply(vertex), vertex);
+        }
+        return this;
+    }
+
+    /**
+     * Adds an edge between two vertices that were already added to the loader
+     * @param key1 key for the vertex on one side of the edge
+     * @param key2 key for the vertex on the other side of the edge
+     * @return the loader
+     */
+    public GraphLoader<K, V> addEdge(K key1, K key2) {
+        append(indexOf(key1), indexOf(key2));
+        return this;
+    }
+
+    /**
+     * Adds a weighted edge between two vertices that were already added to the loader. Of
+     * edges added more than once, the loaded graph keeps the weight added last.
+     * @param key1 key for the vertex on one side of the edge
+     * @param key2 key for the vertex on the other side of the edge
+     * @param weight the weight of the edge
+     * @return the loader
+     */
+    public GraphLoader<K, V> addEdge(K key1, K key2, double weight) {
+        if (Double.isNaN(weight)) throw new IllegalArgumentException("edge weight must be a number");
+        append(indexOf(key1), indexOf(key2));
+        if (weights == null && weight != 1.0) {
+            weights = new double[sources.length];
+            Arrays.fill(weights, 1.0);
+        }
+        if (weights != null) weights[edgeCount - 1] = weight;
+        return this;
+    }
+
+    /**
+     * Adds a collection of {@link Pair}s of vertex keys as edges
+     * @param pairs of vertex keys of type K
+     * @return the loader
+     */
+    public GraphLoader<K, V> addEdges(Collection<Pair<K>> pairs) {
+        ensureEdgeCapacity(edgeCount + pairs.size());
+        for (Pair<K> pair : pairs) {
+            addEdge(pair.one(), pair.other());
+        }
+        return this;
+    }
+
+    /**
+     * Adds a stream of {@link Pair}s of vertex keys as edges. The stream is consumed in
+     * encounter order.
+     * @param pairs of vertex keys of type K
+     * @return the loader
+     */
+    public GraphLoader<K, V> addEdges(Stream<Pair<K>> pairs) {
+        pairs.forEachOrdered(pair -> addEdge(pair.one(), pair.other()));
+        return this;
+    }
+
+    /**
+     * Adds edges given as two parallel arrays of vertex positions, where a position is the
+     * order in which the vertex was added to the loader, starting at 0. Edge i connects the
+     * vertices at {@code ends1[i]} and {@code ends2[i]}.
+     * @param ends1 positions of the vertices on one side of the edges
+     * @param ends2 positions of the vertices on the other side of the edges
+     * @return the loader
+     */
+    public GraphLoader<K, V> addEdges(int[] ends1, int[] ends2) {
+        if (ends1.length != ends2.length) {
+            throw new IllegalArgumentException("edge arrays differ in length: " + ends1.length + " and " + ends2.length);
+        }
+        ensureEdgeCapacity(edgeCount + ends1.length);
+        for (int i = 0; i < ends1.length; i++) {
+            append(checkPosition(ends1[i]), checkPosition(ends2[i]));
+        }
+        return this;
+    }
+
+    /**
+     * Builds the graph from the vertices and edges added so far. The loader can still be
+     * used afterwards, and loading again builds a new, independent graph.
+     * @return a new graph.Graph instance
+     */
+    public Graph<K, V> load() {
+        int size = keys.size();
+        int[] offsets = new int[size + 1];
+        int[] adjacency = adjacency(offsets);
+        double[] adjacencyWeights = adjacencyWeights(offsets);
+
+        @SuppressWarnings("unchecked")
+        Vertex<K, V>[] vertices = (Vertex<K, V>[]) new Vertex<?, ?>[size];
+        Graph<K, V> graph = Graph.create(size, edgeCount);
+        for (int v = 0; v < size; v++) {
+            vertices[v] = new Vertex<>(keys.get(v), data.get(v), offsets[v + 1] - offsets[v]);
+            graph.addVertex(vertices[v]);
+        }
+
+        ForkJoinTask<Void> fill = ForkJoinPool.commonPool().submit(new Fill<>(vertices, offsets, adjacency, adjacencyWeights, 0, size));
+        for (int i = 0; i < edgeCount; i++) {
+            graph.edges.add(Pair.of(vertices[sources[i]], vertices[targets[i]]));
+        }
+        fill.join();
+
+        return graph;
+    }
+
+    /**
+     * Builds a directed graph from the vertices and edges added so far, in which every edge
+     * points from its first key to its second. Of edges added more than once in the same
+     * direction, the graph keeps one, with the weight added last.
+     * @return a new {@link DirectedGraph}
+     */
+    public DirectedGraph<K, V> loadDirected() {
+        int size = keys.size();
+        int[] offsets = new int[size + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            offsets[sources[i] + 1]++;
+        }
+        for (int v = 0; v < size; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        int[] cursor = Arrays.copyOf(offsets, size);
+        int[] adjacency = new int[edgeCount];
+        double[] adjacencyWeights = weights == null ? null : new double[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            int position = cursor[sources[i]]++;
+            adjacency[position] = targets[i];
+            if (adjacencyWeights != null) adjacencyWeights[position] = weights[i];
+        }
+        return new DirectedGraph<>(keys.toArray(), data.toArray(), new HashMap<>(indices), offsets, adjacency, adjacencyWeights);
+    }
+
+    /**
+     * Counts the degree of every vertex, then scatters both ends of every edge into a single
+     * array, keeping the order in which the edges were added.
+     * @param offsets filled with the start of each vertex's neighbours in the returned array
+     * @return the neighbour positions of all vertices
+     */
+    int[] adjacency(int[] offsets) {
+        int size = offsets.length - 1;
+        for (int i = 0; i < edgeCount; i++) {
+            offsets[sources[i] + 1]++;
+            offsets[targets[i] + 1]++;
+        }
+        for (int v = 0; v < size; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        int[] cursor = Arrays.copyOf(offsets, size);
+        int[] adjacency = new int[offsets[size]];
+        for (int i = 0; i < edgeCount; i++) {
+            adjacency[cursor[sources[i]]++] = targets[i];
+            adjacency[cursor[targets[i]]++] = sources[i];
+        }
+        return adjacency;
+    }
+
+    /**
+     * Scatters the weights of the edges like {@link #adjacency(int[])} scatters their ends
+     * @param offsets the offsets filled by {@link #adjacency(int[])}
+     * @return the weight of every entry in the adjacency array, or null if every weight is 1
+     */
+    double[] adjacencyWeights(int[] offsets) {
+        if (weights == null) return null;
+        int size = offsets.length - 1;
+        int[] cursor = Arrays.copyOf(offsets, size);
+        double[] adjacencyWeights = new double[offsets[size]];
+        for (int i = 0; i < edgeCount; i++) {
+            adjacencyWeights[cursor[sources[i]]++] = weights[i];
+            adjacencyWeights[cursor[targets[i]]++] = weights[i];
+        }
+        return adjacencyWeights;
+    }
+
+    private void append(int source, int target) {
+        ensureEdgeCapacity(edgeCount + 1);
+        sources[edgeCount] = source;
+        targets[edgeCount] = target;
+        edgeCount++;
+    }
+
+    private void ensureEdgeCapacity(int capacity) {
+        if (capacity > sources.length) {
+            int length = Math.max(capacity, sources.length + (sources.length >> 1));
+            sources = Arrays.copyOf(sources, length);
+            targets = Arrays.copyOf(targets, length);
+            if (weights != null) {
+                int old = weights.length;
+                weights = Arrays.copyOf(weights, length);
+                Arrays.fill(weights, old, length, 1.0);
+            }
+        }
+    }
+
+    private int indexOf(K key) {
+        Integer index = indices.get(key);
+        if (index == null) throw new VertexNotInGraphException("Vertex{" + key + "} is not a member of the graph");
+        return index;
+    }
+
+    private int checkPosition(int position) {
+        if (position < 0 || position >= keys.size()) {
+            throw new VertexNotInGraphException("no vertex at position " + position);
+        }
+        return position;
+    }
+
+    /**
+     * Fills the adjacency lists of a range of vertices, splitting the range while it holds
+     * more than {@link #SEQUENTIAL_THRESHOLD} neighbour entries. Each vertex is filled by
+     * exactly one task.
+     */
+    private static final class Fill<K, V> extends RecursiveAction {
+        private final Vertex<K, V>[] vertices;
+        private final int[] offsets;
+        private final int[] adjacency;
+        private final double[] weights;
+        private final int from;
+        private final int to;
+
+        Fill(Vertex<K, V>[] vertices, int[] offsets, int[] adjacency, double[] weights, int from, int to) {
+            this.vertices = vertices;
+            this.offsets = offsets;
+            this.adjacency = adjacency;
+            this.weights = weights;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1 && offsets[to] - offsets[from] > SEQUENTIAL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Fill<>(vertices, offsets, adjacency, weights, from, middle),
+                        new Fill<>(vertices, offsets, adjacency, weights, middle, to));
+                return;
+            }
+            for (int v = from; v < to; v++) {
+                Vertex<K, V> vertex = vertices[v];
+                for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                    if (weights == null) {
+                        vertex.addEdge(vertices[adjacency[i]]);
+                    } else {
+                        vertex.addEdge(vertices[adjacency[i]], weights[i]);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package graph;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class GraphLoaderTest {
+
+    @Test
+    @DisplayName("A bulk-loaded graph equals the graph built with sequential addEdges")
+    void testLoadMatchesSequentialAddEdges(){
+        List<Integer> keys = IntStream.range(0, 2000).boxed().collect(Collectors.toList());
+        List<Pair<Integer>> pairs = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 30000; i++) {
+            pairs.add(Pair.of(random.nextInt(2000), random.nextInt(2000)));
+        }
+
+        Graph<Integer, Integer> sequential = Graph.<Integer, Integer>create()
+                .addVertices(keys, Integer::intValue)
+                .addEdges(pairs);
+        Graph<Integer, Integer> loaded = GraphLoader.<Integer, Integer>create()
+                .addVertices(keys, Integer::intValue)
+                .addEdges(pairs.stream())
+                .load();
+
+        Assertions.assertEquals(sequential.getEdgeSet(), loaded.getEdgeSet());
+        Assertions.assertEquals(sequential.edgesAsPairSet(), loaded.edgesAsPairSet());
+        for (Vertex<Integer, Integer> vertex : sequential.getVertices()) {
+            Vertex<Integer, Integer> other = loaded.getVertices().stream()
+                    .filter(v -> v.getId().equals(vertex.getId())).findFirst().get();
+            Assertions.assertEquals(vertex.getAdjacentVertices(), other.getAdjacentVertices());
+        }
+    }
+
+    @Test
+    @DisplayName("Edges can be given as arrays of vertex positions")
+    void testLoadFromArrays(){
+        Graph<String, String> graph = GraphLoader.<String, String>create()
+                .addVertex("a", "A")
+                .addVertex("b", "B")
+                .addVertex("c", "C")
+                .addEdges(new int[]{0, 1, 0}, new int[]{1, 2, 1})
+                .load();
+
+        Assertions.assertTrue(graph.hasEdge("a", "b"));
+        Assertions.assertTrue(graph.hasEdge("c", "b"));
+        Assertions.assertFalse(graph.hasEdge("a", "c"));
+        Assertions.assertEquals(2, graph.getEdgeSet().size());
+    }
+
+    @Test
+    @DisplayName("Edges to unknown vertices are rejected")
+    void testUnknownVertex(){
+        GraphLoader<String, String> loader = GraphLoader.<String, String>create().addVertex("a", "A");
+
+        Assertions.assertThrows(VertexNotInGraphException.class, () -> loader.addEdge("a", "z"));
+        Assertions.assertThrows(VertexNotInGraphException.class, () -> loader.addEdges(new int[]{0}, new int[]{3}));
+    }
+}
@@ -0,0 +1,321 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * An immutable version of a {@link Graph}, taken with {@link Graph#snapshot()}. Every vertex
+ * is stored as its data and its neighbours in a {@link PersistentMap}. Like a {@link Vertex},
+ * a vertex with a handful of neighbours keeps their keys in an array, and a vertex with more
+ * keeps them in a map, here a PersistentMap from key to weight, so edge lookups don't scan.
+ * A new snapshot shares the entries and most of the map of the one before it. It copies the
+ * vertices that were added, and for the other vertices that changed, applies only the edges
+ * that changed, which leaves most of a large neighbour map shared.
+ *
+ * A snapshot never changes, so any number of threads can read it at the same time, for as
+ * long as they like, while the graph it was taken from keeps changing. To run a long
+ * analysis such as colouring or an isomorphism certificate on it, make a
+ * {@link CompactGraph} with {@link #freeze()}.
+ * @param <K> Type of the keys
+ * @param <V> Type of the vertices
+ */
+public final class GraphSnapshot<K, V> {
+
+    private final PersistentMap<K, Adjacency<V>> vertices;
+    private final long edgeCount;
+    private final long version;
+
+    GraphSnapshot(PersistentMap<K, Adjacency<V>> vertices, long edgeCount, long version) {
+        this.vertices = vertices;
+        this.edgeCount = edgeCount;
+        this.version = version;
+    }
+
+    PersistentMap<K, Adjacency<V>> vertices() {
+        return vertices;
+    }
+
+    /**
+     * Get the version of the graph this snapshot was taken at. Snapshots of the same graph
+     * have increasing versions, and two snapshots with the same version are the same.
+     * @return the version
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Get the number of vertices
+     * @return the number of vertices
+     */
+    public int vertexCount() {
+        return vertices.size();
+    }
+
+    /**
+     * Get the number of edges
+     * @return the number of edges
+     */
+    public long edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Checks if a vertex was in the graph
+     * @param key the key of the vertex
+     * @return true if the vertex is in the snapshot
+     */
+    public boolean containsVertex(K key) {
+        return vertices.get(key) != null;
+    }
+
+    /**
+     * Get the data of a vertex
+     * @param key the key of the vertex
+     * @return the data
+     * @throws VertexNotInGraphException if the key is not in the snapshot
+     */
+    public V getData(K key) {
+        return get(key).data;
+    }
+
+    /**
+     * Get the keys of the vertices adjacent to a vertex
+     * @param key the key of the vertex
+     * @return an unmodifiable list of the neighbours' keys
+     * @throws VertexNotInGraphException if the key is not in the snapshot
+     */
+    @SuppressWarnings("unchecked")
+    public List<K> getAdjacentKeys(K key) {
+        Adjacency<V> adjacency = get(key);
+        if (adjacency.neighbors != null) return Collections.unmodifiableList((List<K>) Arrays.asList(adjacency.neighbors));
+        List<K> keys = new ArrayList<>(adjacency.degree());
+        adjacency.forEachNeighbor((neighbor, weight) -> keys.add((K) neighbor));
+        return Collections.unmodifiableList(keys);
+    }
+
+    /**
+     * Get the number of vertices adjacent to a vertex
+     * @param key the key of the vertex
+     * @return the degree of the vertex
+     * @throws VertexNotInGraphException if the key is not in the snapshot
+     */
+    public int getDegree(K key) {
+        return get(key).degree();
+    }
+
+    /**
+     * Checks if there is an edge between two vertices
+     * @param key1 key for the vertex on one side of the edge
+     * @param key2 key for the vertex on the other side of the edge
+     * @return true if both vertices are in the snapshot and the edge exists, false otherwise
+     */
+    public boolean hasEdge(K key1, K key2) {
+        Adjacency<V> adjacency = vertices.get(key1);
+        return adjacency != null && !Double.isNaN(adjacency.weightTo(key2));
+    }
+
+    /**
+     * Get the weight of the edge between two vertices
+     * @param key1 key for the vertex on one side of the edge
+     * @param key2 key for the vertex on the other side of the edge
+     * @return the weight of the edge, or NaN if there is no such edge
+     * @throws VertexNotInGraphException if either key is not in the snapshot
+     */
+    public double getWeight(K key1, K key2) {
+        Adjacency<V> adjacency = get(key1);
+        get(key2);
+        return adjacency.weightTo(key2);
+    }
+
+    /**
+     * Get the keys of the vertices
+     * @return a new list of the keys
+     */
+    public List<K> getKeys() {
+        List<K> keys = new ArrayList<>(vertices.size());
+        vertices.forEach((key, adjacency) -> keys.add(key));
+        return keys;
+    }
+
+    /**
+     * Get the set of all edges
+     * @return a new set of the edges as pairs of keys
+     */
+    @SuppressWarnings("unchecked")
+    public Set<Pair<K>> edgesAsPairSet() {
+        Set<Pair<K>> edges = new HashSet<>();
+        vertices.forEach((key, adjacency) -> adjacency.forEachNeighbor((neighbor, weight) -> edges.add(Pair.of(key, (K) neighbor))));
+        return edges;
+    }
+
+    /**
+     * Makes a compact, indexed copy of the snapshot for analyses that need an
+     * {@link IndexedGraph}. This takes time linear in the size of the graph, but only on the
+     * thread that calls it.
+     * @return a new CompactGraph with the vertices and edges of the snapshot
+     */
+    public CompactGraph<K, V> freeze() {
+        int size = vertices.size();
+        Object[] keys = new Object[size];
+        Object[] data = new Object[size];
+        Map<K, Integer> indices = new HashMap<>(size * 4 / 3 + 1);
+        Object[] adjacencies = new Object[size];
+        long[] total = new long[1];
+        boolean[] weighted = new boolean[1];
+        vertices.forEach((key, adjacency) -> {
+            int index = indices.size();
+            keys[index] = key;
+            adjacencies[index] = adjacency;
+            data[index] = adjacency.data;
+            indices.put(key, index);
+            total[0] += adjacency.degree();
+            weighted[0] |= adjacency.mayBeWeighted();
+        });
+        if (total[0] > Integer.MAX_VALUE - 8) {
+            throw new UnsupportedOperationException("graph has too many edges for a compact snapshot");
+        }
+
+        int[] offsets = new int[size + 1];
+        int[] targets = new int[(int) total[0]];
+        double[] weights = weighted[0] ? new double[targets.length] : null;
+        int[] position = new int[1];
+        for (int v = 0; v < size; v++) {
+            offsets[v] = position[0];
+            @SuppressWarnings("unchecked")
+            Adjacency<V> adjacency = (Adjacency<V>) adjacencies[v];
+            adjacency.forEachNeighbor((neighbor, weight) -> {
+                if (weights != null) weights[position[0]] = weight;
+                targets[position[0]++] = indices.get(neighbor);
+            });
+        }
+        offsets[size] = position[0];
+        return new CompactGraph<>(keys, data, indices, offsets, targets, isWeighted(weights) ? weights : null);
+    }
+
+    private static boolean isWeighted(double[] weights) {
+        if (weights == null) return false;
+        for (double weight : weights) {
+            if (weight != 1.0) return true;
+        }
+        return false;
+    }
+
+    private Adjacency<V> get(K key) {
+        Adjacency<V> adjacency = vertices.get(key);
+        if (adjacency == null) throw new VertexNotInGraphException("Vertex{" + key + "} is not a member of the graph");
+        return adjacency;
+    }
+
+    /**
+     * The data and neighbours of a vertex at the time of a snapshot
+     */
+    static final class Adjacency<V> {
+        private static final Double UNIT = 1.0;
+
+        final V data;
+        // the keys of the neighbours of a vertex with a handful of them, null for a vertex with more
+        final Object[] neighbors;
+        // the weights of the edges to the neighbours in the array, null if every weight is 1
+        private final double[] weights;
+        // the weight of the edge to every neighbour of a vertex with more than a handful, or null
+        private final PersistentMap<Object, Double> index;
+        // false if every weight is known to be 1
+        private final boolean weighted;
+
+        private Adjacency(V data, Object[] neighbors, double[] weights, PersistentMap<Object, Double> index, boolean weighted) {
+            this.data = data;
+            this.neighbors = neighbors;
+            this.weights = weights;
+            this.index = index;
+            this.weighted = weighted;
+        }
+
+        /**
+         * Captures the current state of a vertex
+         */
+        static <K, V> Adjacency<V> of(Vertex<K, V> vertex) {
+            List<Vertex<K, V>> adjacent = vertex.getAdjacentVertices();
+            if (adjacent.size() > Vertex.INDEX_THRESHOLD) {
+                PersistentMap<Object, Double> index = PersistentMap.empty();
+                for (int i = 0; i < adjacent.size(); i++) {
+                    index = index.plus(adjacent.get(i).getId(), box(vertex.weightAt(i)));
+                }
+                return new Adjacency<>(vertex.getData(), null, null, index, vertex.isWeighted());
+            }
+            Object[] keys = new Object[adjacent.size()];
+            double[] weights = vertex.isWeighted() ? new double[keys.length] : null;
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = adjacent.get(i).getId();
+                if (weights != null) weights[i] = vertex.weightAt(i);
+            }
+            return new Adjacency<>(vertex.getData(), keys, weights, null, weights != null);
+        }
+
+        /**
+         * Captures the current state of a vertex that was captured before, by applying the
+         * edges that changed since to the neighbour map. A vertex with a handful of
+         * neighbours, or that had a handful before, is copied whole.
+         * @param changed the keys of the neighbours whose edges were added, removed or reweighted
+         */
+        <K> Adjacency<V> update(Vertex<K, V> vertex, Set<K> changed) {
+            if (index == null || vertex.getDegree() <= Vertex.INDEX_THRESHOLD) return of(vertex);
+            PersistentMap<Object, Double> updated = index;
+            boolean reweighted = weighted;
+            for (K key : changed) {
+                double weight = vertex.weightTo(key);
+                updated = Double.isNaN(weight) ? updated.minus(key) : updated.plus(key, box(weight));
+                reweighted |= weight != 1.0 && !Double.isNaN(weight);
+            }
+            return new Adjacency<>(vertex.getData(), null, null, updated, reweighted);
+        }
+
+        int degree() {
+            return index != null ? index.size() : neighbors.length;
+        }
+
+        /**
+         * Get the weight of the edge to a vertex
+         * @return the weight, or NaN if the vertices are not adjacent
+         */
+        double weightTo(Object key) {
+            if (index != null) {
+                Double weight = index.get(key);
+                return weight == null ? Double.NaN : weight;
+            }
+            for (int i = 0; i < neighbors.length; i++) {
+                if (Objects.equals(neighbors[i], key)) return weights == null ? 1.0 : weights[i];
+            }
+            return Double.NaN;
+        }
+
+        /**
+         * Checks if an edge of the vertex might have a weight other than 1
+         */
+        boolean mayBeWeighted() {
+            return weighted;
+        }
+
+        void forEachNeighbor(ObjDoubleConsumer<Object> action) {
+            if (index != null) {
+                index.forEach(action::accept);
+                return;
+            }
+            for (int i = 0; i < neighbors.length; i++) {
+                action.accept(neighbors[i], weights == null ? 1.0 : weights[i]);
+            }
+        }
+
+        private static Double box(double weight) {
+            return weight == 1.0 ? UNIT : weight;
+        }
+    }
+}
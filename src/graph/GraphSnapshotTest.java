@@ -0,0 +1,226 @@
+package graph;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+class GraphSnapshotTest {
+
+    private static Graph<Integer, String> ring(int size) {
+        Graph<Integer, String> graph = Graph.create();
+        for (int i = 0; i < size; i++) {
+            graph.addVertex(i, "v" + i);
+        }
+        for (int i = 0; i < size; i++) {
+            graph.addEdge(i, (i + 1) % size);
+        }
+        return graph;
+    }
+
+    @Test
+    @DisplayName("A snapshot keeps its version while the graph changes")
+    void testSnapshot(){
+        Graph<Integer, String> graph = ring(10);
+        GraphSnapshot<Integer, String> before = graph.snapshot();
+        Assertions.assertSame(before, graph.snapshot());
+
+        graph.removeVertex(0);
+        graph.addEdge(1, 5, 2.5);
+        graph.getVertices().iterator().next().setData("changed");
+        GraphSnapshot<Integer, String> after = graph.snapshot();
+
+        Assertions.assertEquals(10, before.vertexCount());
+        Assertions.assertEquals(10, before.edgeCount());
+        Assertions.assertTrue(before.hasEdge(0, 1));
+        Assertions.assertFalse(before.hasEdge(1, 5));
+        Assertions.assertTrue(before.getAdjacentKeys(9).contains(0));
+
+        Assertions.assertTrue(after.version() > before.version());
+        Assertions.assertEquals(9, after.vertexCount());
+        Assertions.assertEquals(9, after.edgeCount());
+        Assertions.assertFalse(after.containsVertex(0));
+        Assertions.assertFalse(after.getAdjacentKeys(9).contains(0));
+        Assertions.assertEquals(2.5, after.getWeight(5, 1));
+        Assertions.assertEquals(graph.edgesAsPairSet(), after.edgesAsPairSet());
+        for (Vertex<Integer, String> vertex : graph.getVertices()) {
+            Assertions.assertEquals(vertex.getData(), after.getData(vertex.getId()));
+        }
+    }
+
+    @Test
+    @DisplayName("A frozen snapshot matches the frozen graph")
+    void testFreeze(){
+        Graph<Integer, String> graph = ring(50);
+        graph.snapshot();
+        graph.addEdge(3, 30).addEdge(7, 40, 0.5).removeEdge(10, 11);
+        CompactGraph<Integer, String> frozen = graph.snapshot().freeze();
+
+        Assertions.assertEquals(graph.certificate(), GraphCertificate.of(frozen));
+        Assertions.assertEquals(0.5, frozen.weight(frozen.indexOf(7), positionOf(frozen, 7, 40)));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> graph.getEdgeSet().clear());
+    }
+
+    private static int positionOf(CompactGraph<Integer, String> graph, int from, int to) {
+        int index = graph.indexOf(from);
+        for (int i = 0; i < graph.degree(index); i++) {
+            if (graph.neighbor(index, i) == graph.indexOf(to)) return i;
+        }
+        return -1;
+    }
+
+    @Test
+    @DisplayName("Snapshots of a hub apply its edge changes and leave older snapshots as they were")
+    void testHubChanges(){
+        Graph<Integer, String> graph = Graph.create();
+        for (int i = 0; i < 200; i++) {
+            graph.addVertex(i, "v" + i);
+        }
+        for (int i = 1; i < 200; i++) {
+            graph.addEdge(0, i);
+        }
+        Random random = new Random(17);
+        List<GraphSnapshot<Integer, String>> snapshots = new ArrayList<>();
+        List<Set<Pair<Integer>>> edges = new ArrayList<>();
+        for (int step = 0; step < 300; step++) {
+            int a = random.nextInt(200);
+            int operation = random.nextInt(10);
+            if (graph.vertexFor(a) == null) {
+                graph.addVertex(a, "back" + a);
+            } else if (operation == 0) {
+                graph.removeVertex(a);
+            } else if (operation < 4 && graph.vertexFor(0) != null) {
+                graph.addEdge(0, a, 1 + random.nextInt(3));
+            } else if (operation < 7 && graph.vertexFor(0) != null) {
+                graph.removeEdge(0, a);
+            } else if (operation == 7) {
+                graph.getVertices().iterator().next().setData("step" + step);
+            } else if (graph.vertexFor(0) != null) {
+                graph.addEdge(0, a);
+            }
+            snapshots.add(graph.snapshot());
+            edges.add(graph.edgesAsPairSet());
+
+            GraphSnapshot<Integer, String> snapshot = snapshots.get(step);
+            for (Vertex<Integer, String> vertex : graph.getVertices()) {
+                Assertions.assertEquals(vertex.getData(), snapshot.getData(vertex.getId()));
+                Assertions.assertEquals(vertex.getDegree(), snapshot.getDegree(vertex.getId()));
+            }
+        }
+
+        for (int step = 0; step < snapshots.size(); step++) {
+            GraphSnapshot<Integer, String> snapshot = snapshots.get(step);
+            Assertions.assertEquals(edges.get(step), snapshot.edgesAsPairSet());
+            Assertions.assertEquals(edges.get(step).size(), snapshot.edgeCount());
+            for (Pair<Integer> edge : edges.get(step)) {
+                Assertions.assertTrue(snapshot.hasEdge(edge.one(), edge.other()));
+                Assertions.assertTrue(snapshot.getAdjacentKeys(edge.other()).contains(edge.one()));
+            }
+        }
+        GraphSnapshot<Integer, String> last = snapshots.get(snapshots.size() - 1);
+        if (last.containsVertex(0)) {
+            for (int key : last.getAdjacentKeys(0)) {
+                Assertions.assertEquals(graph.getWeight(0, key), last.getWeight(0, key));
+            }
+        }
+        Assertions.assertEquals(graph.certificate(), GraphCertificate.of(last.freeze()));
+    }
+
+    @Test
+    @DisplayName("The persistent map agrees with a HashMap, including colliding keys")
+    void testPersistentMap(){
+        Random random = new Random(3);
+        Map<Long, Integer> expected = new HashMap<>();
+        PersistentMap<Long, Integer> map = PersistentMap.empty();
+        PersistentMap<Long, Integer> empty = map;
+        for (int i = 0; i < 20000; i++) {
+            // a long with the same upper and lower half hashes to 0
+            long base = random.nextInt(3000);
+            long key = random.nextInt(4) == 0 ? base << 32 | base : base;
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.minus(key);
+            } else {
+                expected.put(key, i);
+                map = map.plus(key, i);
+            }
+        }
+
+        Assertions.assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            Assertions.assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        Map<Long, Integer> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        Assertions.assertEquals(expected, iterated);
+        Assertions.assertEquals(0, empty.size());
+
+        for (Long key : expected.keySet()) {
+            map = map.minus(key);
+        }
+        Assertions.assertEquals(0, map.size());
+        Assertions.assertNull(map.get(1L));
+    }
+
+    @Test
+    @DisplayName("Readers analyse snapshots while a writer keeps changing the graph")
+    void testConcurrentReaders() throws Exception {
+        Graph<Integer, String> graph = ring(500);
+        AtomicReference<GraphSnapshot<Integer, String>> published = new AtomicReference<>(graph.snapshot());
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        Future<?> writer = executor.submit(() -> {
+            Random random = new Random(9);
+            for (int i = 0; i < 20000; i++) {
+                int a = random.nextInt(500);
+                int b = random.nextInt(500);
+                if (random.nextBoolean()) {
+                    graph.addEdge(a, b);
+                } else {
+                    graph.removeEdge(a, b);
+                }
+                if (i % 100 == 0) published.set(graph.snapshot());
+            }
+            writing.set(false);
+        });
+        Future<?>[] readers = new Future<?>[2];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = executor.submit(() -> {
+                do {
+                    GraphSnapshot<Integer, String> snapshot = published.get();
+                    CompactGraph<Integer, String> frozen = snapshot.freeze();
+                    long ends = 0;
+                    for (int v = 0; v < frozen.vertexCount(); v++) {
+                        for (int i = 0; i < frozen.degree(v); i++) {
+                            int w = frozen.neighbor(v, i);
+                            Assertions.assertTrue(frozen.hasEdge(w, v));
+                            ends += v == w ? 2 : 1;
+                        }
+                    }
+                    Assertions.assertEquals(2 * snapshot.edgeCount(), ends);
+                    Traversal.components(frozen);
+                } while (writing.get());
+            });
+        }
+
+        writer.get(60, TimeUnit.SECONDS);
+        for (Future<?> reader : readers) {
+            reader.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        Assertions.assertEquals(graph.edgesAsPairSet(), graph.snapshot().edgesAsPairSet());
+    }
+}
@@ -0,0 +1,119 @@
+package graph;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class GraphTest {
+
+    private Graph<Integer, Integer> star(int leaves) {
+        List<Integer> keys = IntStream.rangeClosed(0, leaves).boxed().collect(Collectors.toList());
+        Graph<Integer, Integer> graph = Graph.<Integer, Integer>create().addVertices(keys, Integer::intValue);
+        for (int i = 1; i <= leaves; i++) {
+            graph.addEdge(0, i);
+        }
+        return graph;
+    }
+
+    @Test
+    @DisplayName("Adding the same edge twice keeps a single edge in both adjacency lists")
+    void testParallelEdgesAreDeduplicated(){
+        Graph<Integer, Integer> graph = star(3);
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 0);
+
+        Assertions.assertEquals(1, graph.getVertices().stream().filter(v -> v.getId() == 1).findFirst().get().getDegree());
+        Assertions.assertEquals(3, graph.getVertices().stream().filter(v -> v.getId() == 0).findFirst().get().getDegree());
+        Assertions.assertEquals(3, graph.getEdgeSet().size());
+    }
+
+    @Test
+    @DisplayName("hasEdge reflects added and removed edges in both directions")
+    void testHasEdge(){
+        Graph<Integer, Integer> graph = star(20);
+
+        Assertions.assertTrue(graph.hasEdge(0, 15));
+        Assertions.assertTrue(graph.hasEdge(15, 0));
+        Assertions.assertFalse(graph.hasEdge(1, 2));
+        Assertions.assertFalse(graph.hasEdge(0, 99));
+
+        graph.removeEdge(15, 0);
+        Assertions.assertFalse(graph.hasEdge(0, 15));
+        Assertions.assertFalse(graph.hasEdge(15, 0));
+        Assertions.assertTrue(graph.hasEdge(0, 16));
+        Assertions.assertEquals(19, graph.getEdgeSet().size());
+    }
+
+    @Test
+    @DisplayName("Removing a hub vertex removes all of its edges")
+    void testRemoveHub(){
+        Graph<Integer, Integer> graph = star(20);
+        graph.addEdge(1, 2);
+        graph.removeVertex(0);
+
+        Assertions.assertEquals(20, graph.getVertices().size());
+        Assertions.assertEquals(1, graph.getEdgeSet().size());
+        Assertions.assertTrue(graph.hasEdge(1, 2));
+        graph.getVertices().forEach(v -> Assertions.assertFalse(graph.hasEdge(v.getId(), 0)));
+    }
+
+    @Test
+    @DisplayName("A self-loop can be added and removed with its vertex")
+    void testSelfLoop(){
+        Graph<Integer, Integer> graph = star(2);
+        graph.addEdge(1, 1);
+
+        Assertions.assertTrue(graph.hasEdge(1, 1));
+        Assertions.assertEquals(3, graph.getEdgeSet().size());
+
+        graph.removeVertex(1);
+        Assertions.assertEquals(1, graph.getEdgeSet().size());
+    }
+
+    @Test
+    @DisplayName("Search finds a vertex by its data and follows later changes")
+    void testSearch(){
+        Graph<Integer, Integer> graph = star(3);
+
+        Assertions.assertEquals(Integer.valueOf(2), graph.search(2).get().getId());
+        Assertions.assertFalse(graph.search(7).isPresent());
+
+        graph.addVertex(7, 7);
+        Assertions.assertEquals(Integer.valueOf(7), graph.search(7).get().getId());
+        graph.search(2).get().setData(20);
+        Assertions.assertFalse(graph.search(2).isPresent());
+        Assertions.assertEquals(Integer.valueOf(2), graph.search(20).get().getId());
+        graph.removeVertex(7);
+        Assertions.assertFalse(graph.search(7).isPresent());
+    }
+
+    @Test
+    @DisplayName("A value index groups vertices by a computed value and stays in sync")
+    void testIndexBy(){
+        Graph<Integer, Integer> graph = star(9);
+        ValueIndex<Integer, Integer, Integer> parity = graph.indexBy(data -> data % 2);
+
+        Assertions.assertEquals(5, parity.get(0).size());
+        Assertions.assertEquals(5, parity.get(1).size());
+
+        graph.removeVertex(1);
+        graph.addVertex(2, 3);
+        graph.addVertices(Arrays.asList(10, 12), Integer::intValue);
+        graph.search(4).get().setData(5);
+
+        Assertions.assertEquals(5, parity.get(0).size());
+        Assertions.assertEquals(6, parity.get(1).size());
+        Assertions.assertTrue(parity.get(1).stream().anyMatch(v -> v.getId() == 4));
+        Assertions.assertFalse(parity.get(0).stream().anyMatch(v -> v.getId() == 2));
+        Assertions.assertEquals(0, parity.first(0).get().getData() % 2);
+
+        Assertions.assertTrue(graph.dropIndex(parity));
+        graph.addVertex(14, 14);
+        Assertions.assertEquals(5, parity.get(0).size());
+    }
+}
@@ -0,0 +1,222 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps a {@link Graph} coloured while it changes. Vertices and edges are added and removed
+ * through this class, which applies the change to the graph and then recolours only the
+ * vertices the change touched:
+ * <ul>
+ *     <li>a new vertex gets colour 0, since it has no neighbours yet</li>
+ *     <li>a new edge between two vertices of the same colour moves one endpoint to the
+ *     smallest colour free among its neighbours, picking the endpoint that ends up lower</li>
+ *     <li>removing an edge or a vertex lets the affected vertices move down to a smaller
+ *     free colour, if there is one</li>
+ * </ul>
+ * Local repairs can only add colours one at a time, so once the colouring needs more than
+ * {@code slack} colours above what the last full colouring used, the whole graph is coloured
+ * again with the configured {@link ColoringStrategy}.
+ *
+ * The graph must only be changed through this class while it is being kept coloured.
+ * @param <K> Type of the keys
+ * @param <V> Type of the vertices
+ */
+public final class IncrementalColoring<K, V> {
+
+    private final Graph<K, V> graph;
+    private final ColoringStrategy strategy;
+    private final int slack;
+    private final Map<K, Integer> colors = new HashMap<>();
+    private int[] counts = new int[8];
+    private int colorCount;
+    private int baseline;
+    private int fullRecolorings;
+    private long[] scratch = new long[1];
+
+    /**
+     * Constructor. Colours the whole graph with the given strategy.
+     * @param graph the graph to keep coloured
+     * @param strategy the strategy used for full recolourings
+     * @param slack how many colours local repairs may add before the graph is fully recoloured
+     */
+    public IncrementalColoring(Graph<K, V> graph, ColoringStrategy strategy, int slack) {
+        if (slack < 0) throw new IllegalArgumentException("slack must not be negative: " + slack);
+        this.graph = graph;
+        this.strategy = strategy;
+        this.slack = slack;
+        recolor();
+    }
+
+    /**
+     * Get the coloured graph. Change it only through this class.
+     * @return the graph
+     */
+    public Graph<K, V> getGraph() {
+        return graph;
+    }
+
+    /**
+     * Get the colour of a vertex
+     * @param key the vertex key
+     * @return the colour of the vertex, numbered from 0
+     */
+    public int colorOf(K key) {
+        Integer color = colors.get(key);
+        if (color == null) throw new VertexNotInGraphException("Vertex{" + key + "} is not a member of the graph");
+        return color;
+    }
+
+    /**
+     * Get the number of colours used, which is the highest colour plus one
+     * @return the number of colours
+     */
+    public int colorCount() {
+        return colorCount;
+    }
+
+    /**
+     * Get the number of times the whole graph has been coloured, including the first time
+     * @return the number of full recolourings
+     */
+    public int getFullRecolorings() {
+        return fullRecolorings;
+    }
+
+    /**
+     * Adds a vertex to the graph and colours it
+     * @param key the key of the vertex
+     * @param data the data
+     * @return this
+     */
+    public IncrementalColoring<K, V> addVertex(K key, V data) {
+        if (graph.vertexFor(key) != null) removeVertex(key);
+        graph.addVertex(key, data);
+        assign(key, 0);
+        return this;
+    }
+
+    /**
+     * Removes a vertex from the graph, and moves its former neighbours down to a smaller
+     * colour if one is free
+     * @param key the key of the vertex
+     * @return this
+     */
+    public IncrementalColoring<K, V> removeVertex(K key) {
+        Vertex<K, V> vertex = graph.vertexFor(key);
+        if (vertex == null) throw new VertexNotInGraphException("Vertex{" + key + "} is not a member of the graph");
+        List<Vertex<K, V>> neighbors = new ArrayList<>(vertex.getAdjacentVertices());
+
+        graph.removeVertex(key);
+        unassign(key);
+        for (Vertex<K, V> neighbor : neighbors) {
+            if (neighbor != vertex) lower(neighbor);
+        }
+        return this;
+    }
+
+    /**
+     * Adds an edge to the graph, recolouring one endpoint if both have the same colour
+     * @param key1 key for the vertex on one side of the edge
+     * @param key2 key for the vertex on the other side of the edge
+     * @return this
+     */
+    public IncrementalColoring<K, V> addEdge(K key1, K key2) {
+        graph.addEdge(key1, key2);
+        if (key1.equals(key2) || colorOf(key1) != colorOf(key2)) return this;
+
+        Vertex<K, V> v1 = graph.vertexFor(key1);
+        Vertex<K, V> v2 = graph.vertexFor(key2);
+        int free1 = firstFree(v1);
+        int free2 = firstFree(v2);
+        Vertex<K, V> moved = free1 <= free2 ? v1 : v2;
+        int color = Math.min(free1, free2);
+
+        if (color >= baseline + slack) {
+            recolor();
+        } else {
+            unassign(moved.getId());
+            assign(moved.getId(), color);
+        }
+        return this;
+    }
+
+    /**
+     * Removes an edge from the graph, and moves its endpoints down to a smaller colour if
+     * one is free
+     * @param key1 key for the vertex on one side of the edge
+     * @param key2 key for the vertex on the other side of the edge
+     * @return this
+     */
+    public IncrementalColoring<K, V> removeEdge(K key1, K key2) {
+        if (!graph.hasEdge(key1, key2)) return this;
+
+        graph.removeEdge(key1, key2);
+        lower(graph.vertexFor(key1));
+        lower(graph.vertexFor(key2));
+        return this;
+    }
+
+    /**
+     * Colours the whole graph again with the configured strategy
+     * @return this
+     */
+    public IncrementalColoring<K, V> recolor() {
+        CompactGraph<K, V> compact = graph.freeze();
+        int[] result = strategy.color(compact);
+
+        colors.clear();
+        Arrays.fill(counts, 0);
+        colorCount = 0;
+        for (int v = 0; v < result.length; v++) {
+            assign(compact.keyAt(v), result[v]);
+        }
+        baseline = colorCount;
+        fullRecolorings++;
+        return this;
+    }
+
+    private void lower(Vertex<K, V> vertex) {
+        int free = firstFree(vertex);
+        if (free < colors.get(vertex.getId())) {
+            unassign(vertex.getId());
+            assign(vertex.getId(), free);
+        }
+    }
+
+    /**
+     * Finds the smallest colour that none of a vertex's neighbours has
+     */
+    private int firstFree(Vertex<K, V> vertex) {
+        int words = (colorCount >>> 6) + 1;
+        if (scratch.length < words) scratch = new long[words];
+        Arrays.fill(scratch, 0, words, 0L);
+
+        for (Vertex<K, V> neighbor : vertex.getAdjacentVertices()) {
+            if (neighbor == vertex) continue;
+            int color = colors.get(neighbor.getId());
+            scratch[color >>> 6] |= 1L << color;
+        }
+        for (int word = 0; word < words; word++) {
+            if (scratch[word] != -1L) return word * 64 + Long.numberOfTrailingZeros(~scratch[word]);
+        }
+        return words * 64;
+    }
+
+    private void assign(K key, int color) {
+        colors.put(key, color);
+        if (color >= counts.length) counts = Arrays.copyOf(counts, Math.max(color + 1, counts.length * 2));
+        counts[color]++;
+        colorCount = Math.max(colorCount, color + 1);
+    }
+
+    private void unassign(K key) {
+        Integer color = colors.remove(key);
+        if (color == null) return;
+        counts[color]--;
+        while (colorCount > 0 && counts[colorCount - 1] == 0) colorCount--;
+    }
+}
@@ -0,0 +1,80 @@
+package graph;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+class IncrementalColoringTest {
+
+    private static void assertValid(IncrementalColoring<Integer, Integer> coloring) {
+        CompactGraph<Integer, Integer> compact = coloring.getGraph().freeze();
+        int[] colors = new int[compact.vertexCount()];
+        for (int v = 0; v < colors.length; v++) {
+            colors[v] = coloring.colorOf(compact.keyAt(v));
+            Assertions.assertTrue(colors[v] < coloring.colorCount());
+        }
+        Assertions.assertTrue(GraphColoring.isValid(compact, colors));
+    }
+
+    @Test
+    @DisplayName("The colouring stays valid through random additions and removals")
+    void testRandomDeltas(){
+        Graph<Integer, Integer> graph = Graph.create();
+        for (int i = 0; i < 200; i++) {
+            graph.addVertex(i, i);
+        }
+        IncrementalColoring<Integer, Integer> coloring = new IncrementalColoring<>(graph, ColoringStrategy.DSATUR, 2);
+
+        Random random = new Random(11);
+        int next = 200;
+        for (int step = 0; step < 3000; step++) {
+            int a = random.nextInt(next);
+            int b = random.nextInt(next);
+            boolean present = graph.vertexFor(a) != null && graph.vertexFor(b) != null;
+            switch (random.nextInt(10)) {
+                case 0:
+                    coloring.addVertex(next, next);
+                    next++;
+                    break;
+                case 1:
+                    if (graph.vertexFor(a) != null) coloring.removeVertex(a);
+                    break;
+                case 2:
+                case 3:
+                    if (present) coloring.removeEdge(a, b);
+                    break;
+                default:
+                    if (present) coloring.addEdge(a, b);
+            }
+            if (step % 100 == 0) assertValid(coloring);
+        }
+        assertValid(coloring);
+    }
+
+    @Test
+    @DisplayName("Growing past the slack triggers a full recolouring")
+    void testFullRecoloring(){
+        Graph<Integer, Integer> graph = Graph.create();
+        for (int i = 0; i < 6; i++) {
+            graph.addVertex(i, i);
+        }
+        IncrementalColoring<Integer, Integer> coloring = new IncrementalColoring<>(graph, ColoringStrategy.DSATUR, 0);
+        Assertions.assertEquals(1, coloring.colorCount());
+        Assertions.assertEquals(1, coloring.getFullRecolorings());
+
+        coloring.addEdge(0, 1);
+        Assertions.assertEquals(2, coloring.getFullRecolorings());
+        Assertions.assertEquals(2, coloring.colorCount());
+
+        coloring.addEdge(2, 3);
+        Assertions.assertEquals(2, coloring.getFullRecolorings());
+        Assertions.assertEquals(2, coloring.colorCount());
+
+        coloring.removeEdge(0, 1);
+        coloring.removeEdge(2, 3);
+        Assertions.assertEquals(1, coloring.colorCount());
+        assertValid(coloring);
+    }
+}
@@ -0,0 +1,104 @@
+package graph;
+
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A read-only graph whose vertices are numbered densely from {@code 0} to
+ * {@code vertexCount() - 1}. Algorithms that only read a graph are written against this
+ * interface so that they can work with primitive vertex indices instead of keys and
+ * {@link Vertex} references.
+ * @param <K> Type of the keys
+ * @param <V> Type of the vertices
+ */
+public interface IndexedGraph<K, V> {
+
+    /**
+     * Get the number of vertices in the graph
+     * @return the number of vertices
+     */
+    int vertexCount();
+
+    /**
+     * Get the number of edges in the graph. A self-loop counts as one edge.
+     * @return the number of edges
+     */
+    long edgeCount();
+
+    /**
+     * Get the index of the vertex with the given key
+     * @param key the vertex key
+     * @return the index of the vertex, or -1 if the key is not in the graph
+     */
+    int indexOf(K key);
+
+    /**
+     * Get the key of the vertex at the given index
+     * @param index the vertex index
+     * @return the vertex key
+     */
+    K keyAt(int index);
+
+    /**
+     * Get the object stored in the vertex at the given index
+     * @param index the vertex index
+     * @return the object stored in the vertex
+     */
+    V dataAt(int index);
+
+    /**
+     * Get the degree (number of distinct neighbours) of the vertex at the given index
+     * @param index the vertex index
+     * @return the degree of the vertex
+     */
+    int degree(int index);
+
+    /**
+     * Get the i-th neighbour of a vertex. Neighbours are numbered from {@code 0} to
+     * {@code degree(index) - 1}.
+     * @param index the vertex index
+     * @param i the position in the vertex's neighbour list
+     * @return the index of the neighbour
+     */
+    int neighbor(int index, int i);
+
+    /**
+     * Get the weight of the edge to the i-th neighbour of a vertex
+     * @param index the vertex index
+     * @param i the position in the vertex's neighbour list
+     * @return the weight of the edge, 1 for graphs without weights
+     */
+    default double weight(int index, int i) {
+        return 1.0;
+    }
+
+    /**
+     * Checks if there is an edge between two vertices
+     * @param from index of the vertex on one side of the edge
+     * @param to index of the vertex on the other side of the edge
+     * @return true if the edge exists, false otherwise
+     */
+    boolean hasEdge(int from, int to);
+
+    /**
+     * Performs the given action on the index of every neighbour of a vertex
+     * @param index the vertex index
+     * @param action the action to perform
+     */
+    default void forEachNeighbor(int index, IntConsumer action) {
+        int degree = degree(index);
+        for (int i = 0; i < degree; i++) {
+            action.accept(neighbor(index, i));
+        }
+    }
+
+    /**
+     * Get a lazy stream of the edges in the graph. Every edge is emitted once, as a pair of
+     * the key with the smaller index and the key with the larger one.
+     * @return a stream of edges as pairs of keys
+     */
+    default Stream<Pair<K>> edgeStream() {
+        return StreamSupport.stream(new EdgeSpliterator<>(this, 0, vertexCount()), false);
+    }
+}
@@ -0,0 +1,219 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * An undirected graph keyed by int ids, like a {@link Graph} with Integer keys but without
+ * boxing. Ids are mapped to dense vertex numbers by an open-addressing {@link IntIndexMap},
+ * and every vertex keeps its neighbours as an int array of vertex numbers, so an edge costs
+ * two ints instead of two list entries, a {@link Pair} and an edge set entry. There is no
+ * edge set; each edge is stored once at each end.
+ * @param <V> Type of the vertices
+ */
+public final class IntGraph<V> extends PrimitiveGraph<V> {
+
+    private final IntIndexMap indices;
+    private int[] ids;
+
+    private IntGraph(int expectedVertices) {
+        super(expectedVertices);
+        indices = new IntIndexMap(expectedVertices);
+        ids = new int[Math.max(expectedVertices, 8)];
+    }
+
+    /**
+     * Factory method to create graphs. Returns a new, empty graph.
+     * @param <V> The value type
+     * @return a new IntGraph
+     */
+    public static <V> IntGraph<V> create() {
+        return new IntGraph<>(16);
+    }
+
+    /**
+     * Creates a graph whose tables are sized for the expected number of vertices
+     * @param expectedVertices the number of vertices to make room for
+     * @param <V> The value type
+     * @return a new IntGraph
+     */
+    public static <V> IntGraph<V> create(int expectedVertices) {
+        return new IntGraph<>(expectedVertices);
+    }
+
+    /**
+     * Adds a vertex to the graph. Adding an id that is already in the graph replaces its
+     * data and keeps its edges.
+     * @param id the id of the vertex
+     * @param data the data
+     * @return the graph
+     */
+    public IntGraph<V> addVertex(int id, V data) {
+        int index = add(indices.get(id), data);
+        if (index >= 0) {
+            if (index == ids.length) ids = Arrays.copyOf(ids, index + (index >> 1));
+            ids[index] = id;
+            indices.put(id, index);
+        }
+        return this;
+    }
+
+    /**
+     * Adds an edge between two vertices. Adding an edge that is already in the graph does
+     * nothing.
+     * @param id1 id of the vertex on one side of the edge
+     * @param id2 id of the vertex on the other side of the edge
+     * @return the graph
+     * @throws VertexNotInGraphException if either id is not in the graph
+     */
+    public IntGraph<V> addEdge(int id1, int id2) {
+        connect(indexOf(id1), indexOf(id2));
+        return this;
+    }
+
+    /**
+     * Adds a weighted edge between two vertices. If the edge is already in the graph, its
+     * weight is changed.
+     * @param id1 id of the vertex on one side of the edge
+     * @param id2 id of the vertex on the other side of the edge
+     * @param weight the weight of the edge
+     * @return the graph
+     * @throws VertexNotInGraphException if either id is not in the graph
+     */
+    public IntGraph<V> addEdge(int id1, int id2, double weight) {
+        connect(indexOf(id1), indexOf(id2), weight);
+        return this;
+    }
+
+    /**
+     * Get the weight of the edge between two vertices
+     * @param id1 id of the vertex on one side of the edge
+     * @param id2 id of the vertex on the other side of the edge
+     * @return the weight of the edge, or NaN if there is no such edge
+     * @throws VertexNotInGraphException if either id is not in the graph
+     */
+    public double getWeight(int id1, int id2) {
+        return weight(indexOf(id1), indexOf(id2));
+    }
+
+    /**
+     * Removes a vertex and its edges from the graph
+     * @param id the id of the vertex
+     * @return the graph
+     * @throws VertexNotInGraphException if the id is not in the graph
+     */
+    public IntGraph<V> removeVertex(int id) {
+        int index = indexOf(id);
+        indices.remove(id);
+        remove(index);
+        return this;
+    }
+
+    /**
+     * Removes the edge between two vertices, if it exists. Otherwise does nothing.
+     * @param id1 id of the vertex on one side of the edge
+     * @param id2 id of the vertex on the other side of the edge
+     * @return the graph
+     */
+    public IntGraph<V> removeEdge(int id1, int id2) {
+        disconnect(indices.get(id1), indices.get(id2));
+        return this;
+    }
+
+    /**
+     * Checks if there is an edge between two vertices
+     * @param id1 id of the vertex on one side of the edge
+     * @param id2 id of the vertex on the other side of the edge
+     * @return true if both vertices are in the graph and the edge exists, false otherwise
+     */
+    public boolean hasEdge(int id1, int id2) {
+        return connected(indices.get(id1), indices.get(id2));
+    }
+
+    /**
+     * Checks if a vertex is in the graph
+     * @param id the id of the vertex
+     * @return true if the vertex is in the graph
+     */
+    public boolean containsVertex(int id) {
+        return indices.get(id) >= 0;
+    }
+
+    /**
+     * Get the data of a vertex
+     * @param id the id of the vertex
+     * @return the data
+     * @throws VertexNotInGraphException if the id is not in the graph
+     */
+    public V getData(int id) {
+        return data(indexOf(id));
+    }
+
+    /**
+     * Replaces the data of a vertex
+     * @param id the id of the vertex
+     * @param data the new data
+     * @throws VertexNotInGraphException if the id is not in the graph
+     */
+    public void setData(int id, V data) {
+        adjacency.setData(indexOf(id), data);
+    }
+
+    /**
+     * Get the degree (number of connected edges) of a vertex
+     * @param id the id of the vertex
+     * @return the degree of the vertex
+     * @throws VertexNotInGraphException if the id is not in the graph
+     */
+    public int getDegree(int id) {
+        return adjacency.degree(indexOf(id));
+    }
+
+    /**
+     * Get the ids of the vertices adjacent to a vertex
+     * @param id the id of the vertex
+     * @return a new array of the neighbours' ids
+     * @throws VertexNotInGraphException if the id is not in the graph
+     */
+    public int[] getAdjacentIds(int id) {
+        int v = indexOf(id);
+        int[] neighbors = new int[adjacency.degree(v)];
+        for (int i = 0; i < neighbors.length; i++) {
+            neighbors[i] = ids[adjacency.neighbor(v, i)];
+        }
+        return neighbors;
+    }
+
+    /**
+     * Get the ids of the vertices in the graph
+     * @return a new array of the ids
+     */
+    public int[] getIds() {
+        return Arrays.copyOf(ids, adjacency.size());
+    }
+
+    /**
+     * Creates an immutable, compact snapshot of the graph, for traversal, colouring and
+     * isomorphism checks. The snapshot boxes the ids once, as its keys.
+     * @return a {@link CompactGraph} holding the current vertices and edges
+     */
+    public CompactGraph<Integer, V> freeze() {
+        return freezeWithKeys();
+    }
+
+    @Override
+    Object key(int v) {
+        return ids[v];
+    }
+
+    @Override
+    void renumber(int from, int to) {
+        ids[to] = ids[from];
+        indices.put(ids[to], to);
+    }
+
+    private int indexOf(int id) {
+        int index = indices.get(id);
+        if (index < 0) throw notInGraph(id);
+        return index;
+    }
+}
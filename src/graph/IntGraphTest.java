@@ -0,0 +1,108 @@
+package graph;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+class IntGraphTest {
+
+    @Test
+    @DisplayName("Random edits leave IntGraph with the same edges as Graph")
+    void testParity(){
+        Random random = new Random(11);
+        Graph<Integer, Integer> expected = Graph.create();
+        IntGraph<Integer> graph = IntGraph.create();
+        for (int i = 0; i < 300; i++) {
+            expected.addVertex(i * 7919, i);
+            graph.addVertex(i * 7919, i);
+        }
+
+        for (int step = 0; step < 20000; step++) {
+            int a = random.nextInt(300) * 7919;
+            int b = random.nextInt(300) * 7919;
+            int operation = random.nextInt(20);
+            if (operation == 0) {
+                expected.removeVertex(a);
+                graph.removeVertex(a);
+                expected.addVertex(a, step);
+                graph.addVertex(a, step);
+            } else if (operation < 8) {
+                expected.removeEdge(a, b);
+                graph.removeEdge(a, b);
+            } else {
+                expected.addEdge(a, b);
+                graph.addEdge(a, b);
+            }
+        }
+
+        Assertions.assertEquals(expected.getVertices().size(), graph.vertexCount());
+        Assertions.assertEquals(expected.getEdgeSet().size(), graph.edgeCount());
+        for (Vertex<Integer, Integer> vertex : expected.getVertices()) {
+            int id = vertex.getId();
+            Assertions.assertEquals(vertex.getData(), graph.getData(id));
+            Set<Integer> neighbors = new HashSet<>();
+            for (int neighbor : graph.getAdjacentIds(id)) {
+                neighbors.add(neighbor);
+                Assertions.assertTrue(graph.hasEdge(neighbor, id));
+            }
+            Assertions.assertEquals(vertex.getDegree(), graph.getDegree(id));
+            for (Vertex<Integer, Integer> neighbor : vertex.getAdjacentVertices()) {
+                Assertions.assertTrue(neighbors.contains(neighbor.getId()));
+            }
+        }
+        Assertions.assertEquals(expected.certificate(), GraphCertificate.of(graph.freeze()));
+    }
+
+    @Test
+    @DisplayName("Weights, self-loops and missing vertices behave like in Graph")
+    void testEdges(){
+        IntGraph<String> graph = IntGraph.create(2);
+        graph.addVertex(-1, "a").addVertex(5, "b").addVertex(Integer.MAX_VALUE, "c")
+                .addEdge(-1, 5).addEdge(5, -1, 3.0).addEdge(5, 5).addEdge(5, Integer.MAX_VALUE);
+
+        Assertions.assertEquals(3, graph.edgeCount());
+        Assertions.assertEquals(3.0, graph.getWeight(-1, 5));
+        Assertions.assertEquals(1.0, graph.getWeight(Integer.MAX_VALUE, 5));
+        Assertions.assertTrue(Double.isNaN(graph.getWeight(-1, Integer.MAX_VALUE)));
+        Assertions.assertEquals(3, graph.getDegree(5));
+        Assertions.assertThrows(VertexNotInGraphException.class, () -> graph.addEdge(-1, 6));
+
+        graph.removeVertex(-1);
+        Assertions.assertEquals(2, graph.edgeCount());
+        Assertions.assertEquals("c", graph.getData(Integer.MAX_VALUE));
+        Assertions.assertTrue(graph.hasEdge(5, 5));
+        Assertions.assertFalse(graph.containsVertex(-1));
+
+        graph.removeVertex(5);
+        Assertions.assertEquals(0, graph.edgeCount());
+        Assertions.assertArrayEquals(new int[]{Integer.MAX_VALUE}, graph.getIds());
+    }
+
+    @Test
+    @DisplayName("LongGraph handles high-degree vertices and ids beyond the int range")
+    void testLongGraph(){
+        LongGraph<String> graph = LongGraph.create();
+        long hub = 1L << 40;
+        graph.addVertex(hub, "hub");
+        for (long i = 0; i < 1000; i++) {
+            graph.addVertex(hub + i + 1, null).addEdge(hub, hub + i + 1, i);
+        }
+        for (long i = 0; i < 1000; i += 2) {
+            graph.removeVertex(hub + i + 1);
+        }
+
+        Assertions.assertEquals(501, graph.vertexCount());
+        Assertions.assertEquals(500, graph.getDegree(hub));
+        Assertions.assertEquals(999.0, graph.getWeight(hub + 1000, hub));
+        Assertions.assertFalse(graph.hasEdge(hub, hub + 1));
+        long[] neighbors = graph.getAdjacentIds(hub);
+        Arrays.sort(neighbors);
+        Assertions.assertEquals(hub + 2, neighbors[0]);
+        Assertions.assertEquals(500, graph.freeze().degree(graph.freeze().indexOf(hub)));
+    }
+}
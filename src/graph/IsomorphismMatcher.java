@@ -0,0 +1,200 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Searches for an isomorphism between two {@link IndexedGraph}s using a VF2-style state space
+ * search. Vertices of the first graph are matched one at a time in breadth-first order, so that
+ * every vertex except the first of each component already has a matched neighbour, and its
+ * candidates are limited to the neighbours of that neighbour's image. A candidate is only
+ * accepted if it has the same {@link ColorRefinement} colour and the same connections to the
+ * vertices matched so far.
+ *
+ * The search is iterative, so it doesn't overflow the stack on large graphs, and stops at
+ * the first complete mapping it finds.
+ */
+final class IsomorphismMatcher {
+
+    private final IndexedGraph<?, ?> g1;
+    private final IndexedGraph<?, ?> g2;
+    private final int size;
+    private final long[] labels1;
+    private final long[] labels2;
+
+    /**
+     * Prepares a search between two graphs
+     * @param g1 the first graph
+     * @param labels1 the {@link ColorRefinement#refine} colours of the first graph
+     * @param g2 the second graph
+     * @param labels2 the {@link ColorRefinement#refine} colours of the second graph
+     */
+    IsomorphismMatcher(IndexedGraph<?, ?> g1, long[] labels1, IndexedGraph<?, ?> g2, long[] labels2) {
+        this.g1 = g1;
+        this.g2 = g2;
+        this.size = g1.vertexCount();
+        this.labels1 = labels1;
+        this.labels2 = labels2;
+    }
+
+    /**
+     * Runs the search
+     * @return an array mapping each vertex index of the first graph to a vertex index of the
+     * second graph, or null if the graphs are not isomorphic
+     */
+    int[] match() {
+        if (size != g2.vertexCount() || g1.edgeCount() != g2.edgeCount()) return null;
+        if (!sameLabels()) return null;
+
+        int[] parent = new int[size];
+        int[] order = order(parent);
+        int[] map1 = new int[size];
+        int[] map2 = new int[size];
+        int[] cursor = new int[size + 1];
+        Arrays.fill(map1, -1);
+        Arrays.fill(map2, -1);
+
+        int depth = 0;
+        while (depth >= 0) {
+            if (depth == size) return map1;
+
+            int u = order[depth];
+            if (map1[u] >= 0) {
+                map2[map1[u]] = -1;
+                map1[u] = -1;
+            }
+
+            int v = nextCandidate(u, parent[u], map1, map2, cursor, depth);
+            if (v < 0) {
+                cursor[depth] = 0;
+                depth--;
+                continue;
+            }
+            map1[u] = v;
+            map2[v] = u;
+            cursor[++depth] = 0;
+        }
+        return null;
+    }
+
+    private int nextCandidate(int u, int parent, int[] map1, int[] map2, int[] cursor, int depth) {
+        if (parent >= 0) {
+            int image = map1[parent];
+            int degree = g2.degree(image);
+            while (cursor[depth] < degree) {
+                int v = g2.neighbor(image, cursor[depth]++);
+                if (map2[v] < 0 && feasible(u, v, map1, map2)) return v;
+            }
+        } else {
+            while (cursor[depth] < size) {
+                int v = cursor[depth]++;
+                if (map2[v] < 0 && feasible(u, v, map1, map2)) return v;
+            }
+        }
+        return -1;
+    }
+
+    private boolean feasible(int u, int v, int[] map1, int[] map2) {
+        if (labels1[u] != labels2[v]) return false;
+        if (g1.hasEdge(u, u) != g2.hasEdge(v, v)) return false;
+
+        int mapped1 = 0;
+        int degree1 = g1.degree(u);
+        for (int i = 0; i < degree1; i++) {
+            int w = map1[g1.neighbor(u, i)];
+            if (w >= 0) {
+                if (!g2.hasEdge(v, w)) return false;
+                mapped1++;
+            }
+        }
+
+        int mapped2 = 0;
+        int degree2 = g2.degree(v);
+        for (int i = 0; i < degree2; i++) {
+            if (map2[g2.neighbor(v, i)] >= 0) mapped2++;
+        }
+        return mapped1 == mapped2;
+    }
+
+    /**
+     * Orders the vertices of the first graph breadth-first. Each component starts at the
+     * vertex whose label is rarest in the second graph, breaking ties by highest degree, and
+     * each level is visited highest degree first.
+     * @param parent filled with, for each vertex, a neighbour that comes earlier in the
+     *               order, or -1 for the first vertex of a component
+     * @return the vertex indices in matching order
+     */
+    private int[] order(int[] parent) {
+        Map<Long, Integer> rarity = new HashMap<>();
+        for (long label : labels2) {
+            rarity.merge(label, 1, Integer::sum);
+        }
+        int[] rootOrder = sortedIndices(size, (a, b) -> {
+            int byRarity = Integer.compare(rarity.getOrDefault(labels1[a], 0), rarity.getOrDefault(labels1[b], 0));
+            return byRarity != 0 ? byRarity : Integer.compare(g1.degree(b), g1.degree(a));
+        });
+
+        int[] order = new int[size];
+        boolean[] visited = new boolean[size];
+        Arrays.fill(parent, -1);
+        int head = 0;
+        int tail = 0;
+        for (int root : rootOrder) {
+            if (visited[root]) continue;
+            visited[root] = true;
+            order[tail++] = root;
+
+            while (head < tail) {
+                int levelEnd = tail;
+                for (; head < levelEnd; head++) {
+                    int u = order[head];
+                    int degree = g1.degree(u);
+                    for (int i = 0; i < degree; i++) {
+                        int w = g1.neighbor(u, i);
+                        if (!visited[w]) {
+                            visited[w] = true;
+                            parent[w] = u;
+                            order[tail++] = w;
+                        }
+                    }
+                }
+                sortByDegree(order, levelEnd, tail);
+            }
+        }
+        return order;
+    }
+
+    private void sortByDegree(int[] order, int from, int to) {
+        long[] keys = new long[to - from];
+        for (int i = from; i < to; i++) {
+            keys[i - from] = (long) (Integer.MAX_VALUE - g1.degree(order[i])) << 32 | order[i];
+        }
+        Arrays.sort(keys);
+        for (int i = from; i < to; i++) {
+            order[i] = (int) keys[i - from];
+        }
+    }
+
+    private static int[] sortedIndices(int size, Comparator<Integer> comparator) {
+        Integer[] boxed = new Integer[size];
+        for (int v = 0; v < size; v++) {
+            boxed[v] = v;
+        }
+        Arrays.sort(boxed, comparator);
+        int[] sorted = new int[size];
+        for (int v = 0; v < size; v++) {
+            sorted[v] = boxed[v];
+        }
+        return sorted;
+    }
+
+    private boolean sameLabels() {
+        long[] sorted1 = labels1.clone();
+        long[] sorted2 = labels2.clone();
+        Arrays.sort(sorted1);
+        Arrays.sort(sorted2);
+        return Arrays.equals(sorted1, sorted2);
+    }
+}
@@ -0,0 +1,89 @@
+package graph;
+
+/**
+ * An open-addressing hash map from long keys to non-negative int values, with linear probing
+ * and no boxing
+ */
+final class LongIndexMap extends PrimitiveIndexMap {
+
+    private long[] keys;
+
+    /**
+     * Constructor
+     * @param expected the number of entries to make room for
+     */
+    LongIndexMap(int expected) {
+        super(expected);
+        keys = new long[values.length];
+    }
+
+    /**
+     * Get the value of a key
+     * @return the value, or -1 if the key is not in the map
+     */
+    int get(long key) {
+        int slot = find(key);
+        return values[slot] - 1;
+    }
+
+    /**
+     * Sets the value of a key
+     * @return the previous value, or -1 if the key was not in the map
+     */
+    int put(long key, int value) {
+        int slot = find(key);
+        int previous = values[slot] - 1;
+        if (previous >= 0) {
+            values[slot] = value + 1;
+        } else {
+            keys[slot] = key;
+            added(slot, value);
+        }
+        return previous;
+    }
+
+    /**
+     * Removes a key
+     * @return the value it had, or -1 if the key was not in the map
+     */
+    int remove(long key) {
+        int slot = find(key);
+        return values[slot] == 0 ? -1 : removeAt(slot);
+    }
+
+    /**
+     * Finds the slot of a key, or the empty slot where it would go
+     */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = slot(key);
+        while (values[slot] != 0 && keys[slot] != key) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> (shift + 32));
+    }
+
+    @Override
+    int homeSlot(int slot) {
+        return slot(keys[slot]);
+    }
+
+    @Override
+    void moveKey(int from, int to) {
+        keys[to] = keys[from];
+    }
+
+    @Override
+    void rehash(int[] oldValues) {
+        long[] oldKeys = keys;
+        keys = new long[values.length];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == 0) continue;
+            int slot = freeSlot(slot(oldKeys[i]));
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package graph;
+
+/**
+ * A read-only directed graph served straight from a memory-mapped {@link GraphFile}, like
+ * {@link MappedGraph}. Out-edges are read from the file's CSR sections and in-edges from its
+ * in-edge sections; both are sorted, so edge lookups are binary searches in the mapped file.
+ * @param <K> Type of the keys
+ * @param <V> Type of the vertices
+ */
+public final class MappedDirectedGraph<K, V> implements DirectedIndexedGraph<K, V> {
+
+    private final MappedGraph<K, V> out;
+    private final MappedGraph<K, V> in;
+    private MappedDirectedGraph<K, V> reverse;
+
+    MappedDirectedGraph(MappedGraph<K, V> out) {
+        this(out, new MappedGraph<>(out));
+    }
+
+    private MappedDirectedGraph(MappedGraph<K, V> out, MappedGraph<K, V> in) {
+        this.out = out;
+        this.in = in;
+    }
+
+    /**
+     * Checks if the file holds vertex data
+     * @return true if the file was written with a data codec
+     */
+    public boolean hasData() {
+        return out.hasData();
+    }
+
+    @Override
+    public int vertexCount() {
+        return out.vertexCount();
+    }
+
+    @Override
+    public long edgeCount() {
+        return out.edgeCount();
+    }
+
+    @Override
+    public int indexOf(K key) {
+        return out.indexOf(key);
+    }
+
+    @Override
+    public K keyAt(int index) {
+        return out.keyAt(index);
+    }
+
+    @Override
+    public V dataAt(int index) {
+        return out.dataAt(index);
+    }
+
+    @Override
+    public int degree(int index) {
+        return out.degree(index);
+    }
+
+    @Override
+    public int neighbor(int index, int i) {
+        return out.neighbor(index, i);
+    }
+
+    @Override
+    public double weight(int index, int i) {
+        return out.weight(index, i);
+    }
+
+    @Override
+    public int inDegree(int index) {
+        return in.degree(index);
+    }
+
+    @Override
+    public int inNeighbor(int index, int i) {
+        return in.neighbor(index, i);
+    }
+
+    @Override
+    public double inWeight(int index, int i) {
+        return in.weight(index, i);
+    }
+
+    /**
+     * Checks if there is an edge from one vertex to another
+     * @param from index of the vertex the edge starts at
+     * @param to index of the vertex the edge points to
+     * @return true if the edge exists, false otherwise
+     */
+    @Override
+    public boolean hasEdge(int from, int to) {
+        return out.hasEdge(from, to);
+    }
+
+    /**
+     * Checks if there is an edge from the vertex with one key to the vertex with another
+     * @param key1 key of the vertex the edge starts at
+     * @param key2 key of the vertex the edge points to
+     * @return true if both keys are in the graph and the edge exists, false otherwise
+     */
+    public boolean hasEdge(K key1, K key2) {
+        return out.hasEdge(key1, key2);
+    }
+
+    @Override
+    public MappedDirectedGraph<K, V> reverse() {
+        if (reverse == null) {
+            reverse = new MappedDirectedGraph<>(in, out);
+            reverse.reverse = this;
+        }
+        return reverse;
+    }
+}
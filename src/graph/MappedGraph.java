@@ -0,0 +1,250 @@
+package graph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * A read-only graph served straight from a memory-mapped {@link GraphFile}. Degrees,
+ * neighbours and edge lookups read the mapped CSR arrays, and key lookups probe the file's
+ * key table, so nothing is loaded up front. Keys and data are decoded every time they are
+ * asked for.
+ *
+ * Files larger than 2GB are mapped in several segments; every number in the file is aligned
+ * so that it lies in a single segment.
+ * @param <K> Type of the keys
+ * @param <V> Type of the vertices
+ */
+public final class MappedGraph<K, V> implements IndexedGraph<K, V> {
+
+    private final ByteBuffer[] segments;
+    private final int shift;
+    private final long mask;
+    private final Codec<K> keyCodec;
+    private final Codec<V> dataCodec;
+    private final GraphFile.Layout layout;
+    private final int vertexCount;
+    private final long edgeCount;
+    private final int tableMask;
+    private final boolean hasData;
+    private final boolean hasWeights;
+    private final boolean directed;
+    // the positions of the CSR sections this graph reads, the in-edges' for the reverse of a directed graph
+    private final long offsets;
+    private final long targets;
+    private final long weights;
+
+    MappedGraph(Path path, ByteBuffer[] segments, int shift, long size, Codec<K> keyCodec, Codec<V> dataCodec) throws IOException {
+        this.segments = segments;
+        this.shift = shift;
+        this.mask = (1L << shift) - 1;
+        this.keyCodec = keyCodec;
+        this.dataCodec = dataCodec;
+
+        if (size < GraphFile.HEADER_SIZE || intAt(0) != GraphFile.MAGIC) {
+            throw new IOException(path + " is not a graph file");
+        }
+        if (intAt(4) != GraphFile.VERSION) {
+            throw new IOException(path + " has unsupported version " + intAt(4));
+        }
+        int flags = intAt(8);
+        this.hasData = (flags & GraphFile.HAS_DATA) != 0;
+        this.hasWeights = (flags & GraphFile.HAS_WEIGHTS) != 0;
+        this.vertexCount = intAt(12);
+        long targetCount = longAt(16);
+        this.edgeCount = longAt(24);
+        int tableSize = intAt(32);
+        this.tableMask = tableSize - 1;
+        this.layout = new GraphFile.Layout(vertexCount, targetCount, tableSize, flags, longAt(40), longAt(48));
+        if (layout.end != size) {
+            throw new IOException(path + " is truncated or corrupt: expected " + layout.end + " bytes but found " + size);
+        }
+        this.directed = (flags & GraphFile.DIRECTED) != 0;
+        this.offsets = layout.offsets;
+        this.targets = layout.targets;
+        this.weights = layout.weights;
+    }
+
+    /**
+     * Constructor for the reverse of a directed graph, which reads the in-edge sections of
+     * the same file
+     */
+    MappedGraph(MappedGraph<K, V> graph) {
+        this.segments = graph.segments;
+        this.shift = graph.shift;
+        this.mask = graph.mask;
+        this.keyCodec = graph.keyCodec;
+        this.dataCodec = graph.dataCodec;
+        this.layout = graph.layout;
+        this.vertexCount = graph.vertexCount;
+        this.edgeCount = graph.edgeCount;
+        this.tableMask = graph.tableMask;
+        this.hasData = graph.hasData;
+        this.hasWeights = graph.hasWeights;
+        this.directed = graph.directed;
+        this.offsets = graph.offsets == layout.offsets ? layout.inOffsets : layout.offsets;
+        this.targets = graph.targets == layout.targets ? layout.inTargets : layout.targets;
+        this.weights = graph.weights == layout.weights ? layout.inWeights : layout.weights;
+    }
+
+    /**
+     * Checks if the file holds vertex data
+     * @return true if the file was written with a data codec
+     */
+    public boolean hasData() {
+        return hasData;
+    }
+
+    /**
+     * Checks if the file holds a directed graph
+     */
+    boolean isDirected() {
+        return directed;
+    }
+
+    @Override
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    @Override
+    public long edgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int indexOf(K key) {
+        GraphFile.Encoder encoder = new GraphFile.Encoder();
+        try {
+            encoder.encode(keyCodec, key);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] bytes = encoder.bytes();
+        int length = encoder.size();
+
+        for (int slot = encoder.hash() & tableMask; ; slot = (slot + 1) & tableMask) {
+            int index = intAt(layout.table + 4L * slot) - 1;
+            if (index < 0) return -1;
+            long from = longAt(layout.keyOffsets + 8L * index);
+            long to = longAt(layout.keyOffsets + 8L * (index + 1));
+            if (to - from == length && matches(layout.keys + from, bytes, length)) return index;
+        }
+    }
+
+    @Override
+    public K keyAt(int index) {
+        checkIndex(index);
+        long from = longAt(layout.keyOffsets + 8L * index);
+        long to = longAt(layout.keyOffsets + 8L * (index + 1));
+        return keyCodec.read(bytes(layout.keys + from, layout.keys + to));
+    }
+
+    @Override
+    public V dataAt(int index) {
+        checkIndex(index);
+        if (!hasData || dataCodec == null) return null;
+        if ((longAt(layout.nulls + 8L * (index >>> 6)) & 1L << index) != 0) return null;
+        long from = longAt(layout.dataOffsets + 8L * index);
+        long to = longAt(layout.dataOffsets + 8L * (index + 1));
+        return dataCodec.read(bytes(layout.data + from, layout.data + to));
+    }
+
+    @Override
+    public int degree(int index) {
+        checkIndex(index);
+        return (int) (offset(index + 1) - offset(index));
+    }
+
+    @Override
+    public int neighbor(int index, int i) {
+        return intAt(targets + 4 * (offset(index) + i));
+    }
+
+    @Override
+    public double weight(int index, int i) {
+        if (!hasWeights) return 1.0;
+        long position = weights + 8 * (offset(index) + i);
+        return segments[(int) (position >>> shift)].getDouble((int) (position & mask));
+    }
+
+    @Override
+    public boolean hasEdge(int from, int to) {
+        long low = offset(from);
+        long high = offset(from + 1) - 1;
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            int target = intAt(targets + 4 * middle);
+            if (target < to) {
+                low = middle + 1;
+            } else if (target > to) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if there is an edge between the vertices with the given keys
+     * @param key1 key of the vertex on one side of the edge
+     * @param key2 key of the vertex on the other side of the edge
+     * @return true if both keys are in the graph and the edge exists, false otherwise
+     */
+    public boolean hasEdge(K key1, K key2) {
+        int from = indexOf(key1);
+        int to = indexOf(key2);
+        return from >= 0 && to >= 0 && hasEdge(from, to);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= vertexCount) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + vertexCount);
+        }
+    }
+
+    private long offset(int index) {
+        return longAt(offsets + 8L * index);
+    }
+
+    private int intAt(long position) {
+        return segments[(int) (position >>> shift)].getInt((int) (position & mask));
+    }
+
+    private long longAt(long position) {
+        return segments[(int) (position >>> shift)].getLong((int) (position & mask));
+    }
+
+    private byte byteAt(long position) {
+        return segments[(int) (position >>> shift)].get((int) (position & mask));
+    }
+
+    private boolean matches(long position, byte[] bytes, int length) {
+        for (int i = 0; i < length; i++) {
+            if (byteAt(position + i) != bytes[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Get a buffer over the bytes from one position to another, copying them only if they
+     * cross a segment boundary
+     */
+    private ByteBuffer bytes(long from, long to) {
+        if (to == from) return ByteBuffer.allocate(0);
+        int segment = (int) (from >>> shift);
+        if ((to - 1) >>> shift == segment) {
+            ByteBuffer buffer = segments[segment].duplicate();
+            buffer.limit((int) (from & mask) + (int) (to - from));
+            buffer.position((int) (from & mask));
+            return buffer;
+        }
+        byte[] copy = new byte[(int) (to - from)];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = byteAt(from + i);
+        }
+        return ByteBuffer.wrap(copy);
+    }
+}
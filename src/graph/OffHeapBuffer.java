@@ -0,0 +1,89 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Memory outside the Java heap, addressed by long byte positions. Like a {@link MappedGraph},
+ * the memory is split into segments of at most 1GB, since a {@link ByteBuffer} can't be larger
+ * than 2GB; values must be aligned to their size so that each lies in a single segment.
+ * Numbers are stored in native byte order.
+ *
+ * The memory is released when the buffer is garbage collected.
+ */
+final class OffHeapBuffer {
+
+    private final ByteBuffer[] segments;
+    private final int shift;
+    private final long mask;
+
+    private OffHeapBuffer(ByteBuffer[] segments, int shift) {
+        this.segments = segments;
+        this.shift = shift;
+        this.mask = (1L << shift) - 1;
+    }
+
+    /**
+     * Allocates direct memory
+     * @param size the number of bytes
+     * @param segmentShift the base 2 logarithm of the segment size
+     */
+    static OffHeapBuffer allocate(long size, int segmentShift) {
+        ByteBuffer[] segments = new ByteBuffer[segmentCount(size, segmentShift)];
+        for (int s = 0; s < segments.length; s++) {
+            long start = (long) s << segmentShift;
+            segments[s] = ByteBuffer.allocateDirect((int) Math.min(1L << segmentShift, size - start))
+                    .order(ByteOrder.nativeOrder());
+        }
+        return new OffHeapBuffer(segments, segmentShift);
+    }
+
+    /**
+     * Maps a region of a file, which grows if it is too short. The mapping stays valid after
+     * the channel is closed.
+     * @param channel a channel opened for reading and writing
+     * @param position the position of the region in the file
+     * @param size the number of bytes
+     * @param segmentShift the base 2 logarithm of the segment size
+     */
+    static OffHeapBuffer map(FileChannel channel, long position, long size, int segmentShift) throws IOException {
+        ByteBuffer[] segments = new ByteBuffer[segmentCount(size, segmentShift)];
+        for (int s = 0; s < segments.length; s++) {
+            long start = (long) s << segmentShift;
+            segments[s] = channel.map(FileChannel.MapMode.READ_WRITE, position + start, Math.min(1L << segmentShift, size - start))
+                    .order(ByteOrder.nativeOrder());
+        }
+        return new OffHeapBuffer(segments, segmentShift);
+    }
+
+    private static int segmentCount(long size, int segmentShift) {
+        // at least one segment, so that an empty buffer still has one to point at
+        return (int) Math.max(1, (size + (1L << segmentShift) - 1) >>> segmentShift);
+    }
+
+    int getInt(long position) {
+        return segments[(int) (position >>> shift)].getInt((int) (position & mask));
+    }
+
+    void putInt(long position, int value) {
+        segments[(int) (position >>> shift)].putInt((int) (position & mask), value);
+    }
+
+    long getLong(long position) {
+        return segments[(int) (position >>> shift)].getLong((int) (position & mask));
+    }
+
+    void putLong(long position, long value) {
+        segments[(int) (position >>> shift)].putLong((int) (position & mask), value);
+    }
+
+    double getDouble(long position) {
+        return segments[(int) (position >>> shift)].getDouble((int) (position & mask));
+    }
+
+    void putDouble(long position, double value) {
+        segments[(int) (position >>> shift)].putDouble((int) (position & mask), value);
+    }
+}
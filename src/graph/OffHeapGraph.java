@@ -0,0 +1,313 @@
+package graph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * An immutable graph in compressed sparse row (CSR) form, like a {@link CompactGraph}, whose
+ * offsets, targets and weights are kept outside the Java heap: in direct memory, or in a
+ * memory-mapped file that the operating system can page out. Only the key dictionary and the
+ * vertex data stay on the heap, so graphs with billions of edges don't need a heap to match
+ * and don't slow down garbage collection.
+ *
+ * The file of a file-backed graph is scratch space in a private layout; to store a graph and
+ * map it back later, use {@link GraphFile}.
+ * @param <K> Type of the keys
+ * @param <V> Type of the vertices
+ */
+public final class OffHeapGraph<K, V> implements IndexedGraph<K, V> {
+
+    private final Object[] keys;
+    // null if every vertex has null data
+    private final Object[] data;
+    private final Map<K, Integer> indices;
+    private final OffHeapBuffer buffer;
+    private final long targets;
+    private final long weights;
+    private final boolean weighted;
+    private final long edgeCount;
+
+    private OffHeapGraph(Object[] keys, Object[] data, Map<K, Integer> indices, OffHeapBuffer buffer,
+                         long targets, long weights, boolean weighted, long edgeCount) {
+        this.keys = keys;
+        this.data = data;
+        this.indices = indices;
+        this.buffer = buffer;
+        this.targets = targets;
+        this.weights = weights;
+        this.weighted = weighted;
+        this.edgeCount = edgeCount;
+    }
+
+    /**
+     * Copies a graph into direct memory
+     * @param graph the graph to copy
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return a new OffHeapGraph
+     */
+    public static <K, V> OffHeapGraph<K, V> copyOf(IndexedGraph<K, V> graph) {
+        try {
+            return copyOf(graph, null, GraphFile.SEGMENT_SHIFT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Copies a graph into a memory-mapped file
+     * @param graph the graph to copy
+     * @param path the file to keep the adjacency in, which is replaced if it exists
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return a new OffHeapGraph
+     * @throws IOException if the file can't be written
+     */
+    public static <K, V> OffHeapGraph<K, V> copyOf(IndexedGraph<K, V> graph, Path path) throws IOException {
+        return copyOf(graph, path, GraphFile.SEGMENT_SHIFT);
+    }
+
+    /**
+     * Copies a {@link Graph} without making a {@link CompactGraph} of it first
+     * @param graph the graph to copy
+     * @param path the file to keep the adjacency in, or null for direct memory
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return a new OffHeapGraph
+     * @throws IOException if the file can't be written
+     */
+    static <K, V> OffHeapGraph<K, V> of(Graph<K, V> graph, Path path) throws IOException {
+        return copyOf(new GraphView<>(graph), path, GraphFile.SEGMENT_SHIFT);
+    }
+
+    static <K, V> OffHeapGraph<K, V> copyOf(IndexedGraph<K, V> graph, Path path, int segmentShift) throws IOException {
+        int size = graph.vertexCount();
+        Object[] keys = new Object[size];
+        Object[] data = null;
+        Map<K, Integer> indices = new HashMap<>(size * 4 / 3 + 1);
+        long targetCount = 0;
+        boolean weighted = false;
+        for (int v = 0; v < size; v++) {
+            K key = graph.keyAt(v);
+            keys[v] = key;
+            indices.put(key, v);
+            V value = graph.dataAt(v);
+            if (value != null) {
+                if (data == null) data = new Object[size];
+                data[v] = value;
+            }
+            int degree = graph.degree(v);
+            targetCount += degree;
+            for (int i = degree - 1; i >= 0 && !weighted; i--) {
+                weighted = graph.weight(v, i) != 1.0;
+            }
+        }
+
+        long targets = 8L * (size + 1);
+        long weights = GraphFile.align(targets + 4 * targetCount);
+        long end = weighted ? weights + 8 * targetCount : weights;
+        OffHeapBuffer buffer;
+        if (path == null) {
+            buffer = OffHeapBuffer.allocate(end, segmentShift);
+        } else {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = OffHeapBuffer.map(channel, 0, end, segmentShift);
+            }
+        }
+
+        // neighbours are sorted by index, each packed with its position for the weights
+        long[] neighbors = new long[16];
+        long offset = 0;
+        long edgeCount = 0;
+        for (int v = 0; v < size; v++) {
+            buffer.putLong(8L * v, offset);
+            neighbors = GraphFile.sortedNeighbors(graph, v, neighbors);
+            int degree = graph.degree(v);
+            for (int i = 0; i < degree; i++) {
+                int target = (int) (neighbors[i] >>> 32);
+                if (target >= v) edgeCount++;
+                buffer.putInt(targets + 4 * (offset + i), target);
+                if (weighted) buffer.putDouble(weights + 8 * (offset + i), graph.weight(v, (int) neighbors[i]));
+            }
+            offset += degree;
+        }
+        buffer.putLong(8L * size, offset);
+        return new OffHeapGraph<>(keys, data, indices, buffer, targets, weights, weighted, edgeCount);
+    }
+
+    @Override
+    public int vertexCount() {
+        return keys.length;
+    }
+
+    @Override
+    public long edgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int indexOf(K key) {
+        Integer index = indices.get(key);
+        return index == null ? -1 : index;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public K keyAt(int index) {
+        return (K) keys[index];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V dataAt(int index) {
+        return data == null ? null : (V) data[index];
+    }
+
+    @Override
+    public int degree(int index) {
+        checkIndex(index);
+        return (int) (offset(index + 1) - offset(index));
+    }
+
+    @Override
+    public int neighbor(int index, int i) {
+        return buffer.getInt(targets + 4 * (offset(index) + i));
+    }
+
+    @Override
+    public double weight(int index, int i) {
+        return weighted ? buffer.getDouble(weights + 8 * (offset(index) + i)) : 1.0;
+    }
+
+    /**
+     * Checks if any edge has a weight other than 1
+     * @return true if the graph stores weights, false otherwise
+     */
+    public boolean isWeighted() {
+        return weighted;
+    }
+
+    @Override
+    public boolean hasEdge(int from, int to) {
+        long low = offset(from);
+        long high = offset(from + 1) - 1;
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            int target = buffer.getInt(targets + 4 * middle);
+            if (target < to) {
+                low = middle + 1;
+            } else if (target > to) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if there is an edge between the vertices with the given keys
+     * @param key1 key of the vertex on one side of the edge
+     * @param key2 key of the vertex on the other side of the edge
+     * @return true if both keys are in the graph and the edge exists, false otherwise
+     */
+    public boolean hasEdge(K key1, K key2) {
+        int from = indexOf(key1);
+        int to = indexOf(key2);
+        return from >= 0 && to >= 0 && hasEdge(from, to);
+    }
+
+    @Override
+    public void forEachNeighbor(int index, IntConsumer action) {
+        long end = targets + 4 * offset(index + 1);
+        for (long position = targets + 4 * offset(index); position < end; position += 4) {
+            action.accept(buffer.getInt(position));
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= keys.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + keys.length);
+        }
+    }
+
+    private long offset(int index) {
+        return buffer.getLong(8L * index);
+    }
+
+    /**
+     * A view of a {@link Graph} by vertex index, to copy it from
+     */
+    private static final class GraphView<K, V> implements IndexedGraph<K, V> {
+        private final Graph<K, V> graph;
+        private final Vertex<K, V>[] vertices;
+        private final Map<K, Integer> indices;
+
+        @SuppressWarnings("unchecked")
+        GraphView(Graph<K, V> graph) {
+            Collection<Vertex<K, V>> all = graph.getVertices();
+            this.graph = graph;
+            this.vertices = (Vertex<K, V>[]) all.toArray(new Vertex<?, ?>[0]);
+            this.indices = new HashMap<>(vertices.length * 4 / 3 + 1);
+            for (int v = 0; v < vertices.length; v++) {
+                indices.put(vertices[v].getId(), v);
+            }
+        }
+
+        @Override
+        public int vertexCount() {
+            return vertices.length;
+        }
+
+        @Override
+        public long edgeCount() {
+            return graph.getEdgeSet().size();
+        }
+
+        @Override
+        public int indexOf(K key) {
+            Integer index = indices.get(key);
+            return index == null ? -1 : index;
+        }
+
+        @Override
+        public K keyAt(int index) {
+            return vertices[index].getId();
+        }
+
+        @Override
+        public V dataAt(int index) {
+            return vertices[index].getData();
+        }
+
+        @Override
+        public int degree(int index) {
+            return vertices[index].getDegree();
+        }
+
+        @Override
+        public int neighbor(int index, int i) {
+            List<Vertex<K, V>> neighbors = vertices[index].getAdjacentVertices();
+            return indices.get(neighbors.get(i).getId());
+        }
+
+        @Override
+        public double weight(int index, int i) {
+            return vertices[index].weightAt(i);
+        }
+
+        @Override
+        public boolean hasEdge(int from, int to) {
+            return graph.hasEdge(vertices[from].getId(), vertices[to].getId());
+        }
+    }
+}
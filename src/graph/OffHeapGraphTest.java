@@ -0,0 +1,93 @@
+package graph;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+class OffHeapGraphTest {
+
+    private static void assertSameGraph(IndexedGraph<Integer, Integer> expected, IndexedGraph<Integer, Integer> actual) {
+        Assertions.assertEquals(expected.vertexCount(), actual.vertexCount());
+        Assertions.assertEquals(expected.edgeCount(), actual.edgeCount());
+        for (int v = 0; v < expected.vertexCount(); v++) {
+            Assertions.assertEquals(expected.keyAt(v), actual.keyAt(v));
+            Assertions.assertEquals(expected.dataAt(v), actual.dataAt(v));
+            Assertions.assertEquals(v, actual.indexOf(expected.keyAt(v)));
+            Assertions.assertEquals(expected.degree(v), actual.degree(v));
+            for (int i = 0; i < expected.degree(v); i++) {
+                Assertions.assertEquals(expected.neighbor(v, i), actual.neighbor(v, i));
+                Assertions.assertEquals(expected.weight(v, i), actual.weight(v, i));
+                Assertions.assertTrue(actual.hasEdge(v, expected.neighbor(v, i)));
+            }
+        }
+        Assertions.assertEquals(GraphCertificate.of(expected), GraphCertificate.of(actual));
+    }
+
+    @Test
+    @DisplayName("An off-heap copy has the same keys, data and edges, and the algorithms run on it")
+    void testCopy(){
+        CompactGraph<Integer, Integer> graph = GraphColoringTest.randomGraph(2000, 10000, 21);
+        OffHeapGraph<Integer, Integer> copy = OffHeapGraph.copyOf(graph);
+
+        assertSameGraph(graph, copy);
+        Assertions.assertFalse(copy.isWeighted());
+        Assertions.assertEquals(-1, copy.indexOf(2000));
+        Assertions.assertArrayEquals(Traversal.components(graph), Traversal.components(copy));
+        Assertions.assertArrayEquals(Traversal.distances(graph, 0), Traversal.distances(copy, 0));
+        Assertions.assertTrue(GraphColoring.isValid(copy, GraphColoring.dsatur(copy)));
+    }
+
+    @Test
+    @DisplayName("A file-backed copy with small segments keeps weights and sorted neighbours")
+    void testFileBacked() throws IOException {
+        Graph<Integer, Integer> graph = Graph.create();
+        Random random = new Random(5);
+        for (int i = 0; i < 300; i++) {
+            graph.addVertex(i, i % 3 == 0 ? null : i);
+        }
+        for (int i = 0; i < 2000; i++) {
+            graph.addEdge(random.nextInt(300), random.nextInt(300), random.nextInt(10));
+        }
+        Path file = Files.createTempFile("graph", ".adj");
+        try {
+            OffHeapGraph<Integer, Integer> copy = OffHeapGraph.copyOf(graph.freeze(), file, 8);
+
+            assertSameGraph(graph.freeze(), copy);
+            Assertions.assertTrue(copy.isWeighted());
+            Assertions.assertTrue(Files.size(file) > 1 << 8);
+            for (int v = 0; v < copy.vertexCount(); v++) {
+                for (int i = 1; i < copy.degree(v); i++) {
+                    Assertions.assertTrue(copy.neighbor(v, i - 1) < copy.neighbor(v, i));
+                }
+            }
+            Assertions.assertArrayEquals(new ShortestPaths(graph.freeze()).from(0), new ShortestPaths(copy).from(0));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @DisplayName("A Graph copies itself off the heap directly")
+    void testFromGraph(){
+        Graph<String, String> graph = Graph.<String, String>create()
+                .addVertex("a", "x").addVertex("b", null).addVertex("c", null).addVertex("d", null)
+                .addEdge("a", "b").addEdge("b", "c", 2.5).addEdge("c", "c");
+        OffHeapGraph<String, String> copy = graph.offHeap();
+
+        Assertions.assertEquals(4, copy.vertexCount());
+        Assertions.assertEquals(3, copy.edgeCount());
+        Assertions.assertTrue(copy.hasEdge("c", "b"));
+        Assertions.assertTrue(copy.hasEdge("c", "c"));
+        Assertions.assertFalse(copy.hasEdge("a", "c"));
+        Assertions.assertEquals(0, copy.degree(copy.indexOf("d")));
+        Assertions.assertEquals("x", copy.dataAt(copy.indexOf("a")));
+        Assertions.assertEquals(graph.edgesAsPairSet(), copy.edgeStream().collect(Collectors.toSet()));
+        Assertions.assertEquals(graph.certificate(), GraphCertificate.of(copy));
+    }
+}
@@ -1,16 +1,19 @@
 package graph;
 
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
 /**
  * A Pair is a set of two items. Two Pairs are equivalent if they have the same
  * two items regardless of order. This is useful for representing an undirected edge
- * between two {@link Vertex} instances.
+ * between two {@link Vertex} instances. Both items may be the same, which represents a
+ * self-loop.
  * @param <K> The type of the items
  */
 public class Pair<K> {
-    Set<K> pairs = new HashSet<K>();
+    private final K one;
+    private final K other;
 
     /**
      * Constructor for the Pair class
@@ -18,8 +21,8 @@ public class Pair<K> {
      * @param k2 The other item
      */
     public Pair(K k1, K k2) {
-        pairs.add(k1);
-        pairs.add(k2);
+        this.one = k1;
+        this.other = k2;
     }
 
     /**
@@ -39,35 +42,77 @@ public class Pair<K> {
      * @return one of the two items in the pair
      */
     public K one() {
-        return (K)pairs.toArray()[0];
+        return one;
     }
 
     /**
-     * Gets the counterpart for the item returned by the {@link #one()} method
+     * Gets the counterpart for the item returned by the {@link #one()} method. For a
+     * self-loop this is the same item as {@link #one()}.
      * @return one of the two items in the pair
      */
     public K other() {
-        return (K)pairs.toArray()[1];
+        return other;
     }
 
     /**
-     * Gets the underlying set of two items in the pair
-     * @return the Set used by the Pair instance
+     * Checks if the given item is one of the two items in the pair
+     * @param item the item to look for
+     * @return true if the item is in the pair, false otherwise
+     */
+    public boolean contains(K item) {
+        return Objects.equals(one, item) || Objects.equals(other, item);
+    }
+
+    /**
+     * Checks if both items in the pair are the same
+     * @return true if the pair is a self-loop, false otherwise
+     */
+    public boolean isLoop() {
+        return Objects.equals(one, other);
+    }
+
+    /**
+     * Gets the two items in the pair as a set. The set is created on every call, so
+     * prefer {@link #one()} and {@link #other()} in hot code.
+     * @return a new Set containing the items in the pair
      */
     public Set<K> getPairs() {
+        Set<K> pairs = new HashSet<>(4);
+        pairs.add(one);
+        pairs.add(other);
         return pairs;
     }
 
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) return true;
         if (o == null ||!(o instanceof Pair)) return false;
 
-        return this.pairs.equals(((Pair) o).getPairs());
+        Pair<?> pair = (Pair<?>) o;
+        return (Objects.equals(one, pair.one) && Objects.equals(other, pair.other))
+                || (Objects.equals(one, pair.other) && Objects.equals(other, pair.one));
     }
 
     @Override
     public int hashCode() {
-        return this.pairs.hashCode();
+        return isLoop() ? spread(Objects.hashCode(one)) : spread(Objects.hashCode(one)) + spread(Objects.hashCode(other));
+    }
+
+    /**
+     * Scrambles the bits of an item's hash code before the two are summed. Summing raw
+     * hash codes maps many pairs of small integer keys to the same value.
+     */
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        return "Pair{" + one + ", " + other + '}';
     }
 }
@@ -56,4 +56,34 @@ class PairTest {
 
     }
 
+    @Test
+    @DisplayName("A pair of an object with itself is a self-loop with both sides set")
+    void testSelfLoop(){
+
+        Pair<String> loop = Pair.of("a", "a");
+
+        Assertions.assertTrue(loop.isLoop());
+        Assertions.assertEquals("a", loop.one());
+        Assertions.assertEquals("a", loop.other());
+        Assertions.assertEquals(1, loop.getPairs().size());
+        Assertions.assertNotEquals(loop, Pair.of("a", "b"));
+        Assertions.assertEquals(loop.hashCode(), Pair.of("a", "a").hashCode());
+
+    }
+
+
+    @Test
+    @DisplayName("A pair returns its items in the order they were given")
+    void testOneAndOther(){
+
+        Pair<Integer> pair = Pair.of(5, 10);
+
+        Assertions.assertEquals(Integer.valueOf(5), pair.one());
+        Assertions.assertEquals(Integer.valueOf(10), pair.other());
+        Assertions.assertTrue(pair.contains(10));
+        Assertions.assertFalse(pair.contains(7));
+        Assertions.assertFalse(pair.isLoop());
+
+    }
+
 }
\ No newline at end of file
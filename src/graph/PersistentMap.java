@@ -0,0 +1,253 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable hash map that shares structure between versions, as a hash array mapped trie.
+ * Each level of the trie uses five bits of the key's hash to pick one of up to 32 slots,
+ * and only the slots in use are stored, next to a bitmap of which ones they are. Adding or
+ * removing a key copies the path from the root to its slot, at most seven small arrays, and
+ * shares everything else with the previous version.
+ * @param <K> Type of the keys
+ * @param <V> Type of the values
+ */
+final class PersistentMap<K, V> {
+
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(new Node(0, new Object[0]), 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the value of a key
+     * @return the value, or null if the key is not in the map
+     */
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+        int hash = hash(key);
+        Object slot = root;
+        for (int shift = 0; slot instanceof Node; shift += 5) {
+            Node node = (Node) slot;
+            int bit = 1 << (hash >>> shift & 31);
+            if ((node.bitmap & bit) == 0) return null;
+            slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+        }
+        if (slot instanceof Entry) {
+            Entry entry = (Entry) slot;
+            return entry.hash == hash && Objects.equals(entry.key, key) ? (V) entry.value : null;
+        }
+        for (Entry entry : ((Collision) slot).entries) {
+            if (Objects.equals(entry.key, key)) return (V) entry.value;
+        }
+        return null;
+    }
+
+    /**
+     * Get a map with a key added or its value replaced
+     * @return the new map; this map is unchanged
+     */
+    PersistentMap<K, V> plus(K key, V value) {
+        boolean[] added = new boolean[1];
+        Node node = (Node) put(root, 0, new Entry(key, value, hash(key)), added);
+        return new PersistentMap<>(node, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Get a map without a key
+     * @return the new map, or this map if the key is not in it
+     */
+    PersistentMap<K, V> minus(Object key) {
+        Object node = remove(root, 0, key, hash(key));
+        if (node == root) return this;
+        return node == null ? empty() : new PersistentMap<>((Node) node, size - 1);
+    }
+
+    /**
+     * Calls an action for every key and value in the map, in no particular order
+     */
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        forEach(root, action);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> void forEach(Object slot, BiConsumer<? super K, ? super V> action) {
+        if (slot instanceof Node) {
+            for (Object child : ((Node) slot).slots) {
+                forEach(child, action);
+            }
+        } else if (slot instanceof Entry) {
+            Entry entry = (Entry) slot;
+            action.accept((K) entry.key, (V) entry.value);
+        } else {
+            for (Entry entry : ((Collision) slot).entries) {
+                action.accept((K) entry.key, (V) entry.value);
+            }
+        }
+    }
+
+    private static Object put(Object slot, int shift, Entry entry, boolean[] added) {
+        if (slot instanceof Node) {
+            Node node = (Node) slot;
+            int bit = 1 << (entry.hash >>> shift & 31);
+            int index = Integer.bitCount(node.bitmap & (bit - 1));
+            if ((node.bitmap & bit) == 0) {
+                added[0] = true;
+                return new Node(node.bitmap | bit, insert(node.slots, index, entry));
+            }
+            Object child = put(node.slots[index], shift + 5, entry, added);
+            return new Node(node.bitmap, replace(node.slots, index, child));
+        }
+        if (slot instanceof Entry) {
+            Entry existing = (Entry) slot;
+            if (existing.hash != entry.hash) {
+                added[0] = true;
+                return merge(existing, existing.hash, entry, shift);
+            }
+            if (Objects.equals(existing.key, entry.key)) return entry;
+            added[0] = true;
+            return new Collision(entry.hash, new Entry[]{existing, entry});
+        }
+        Collision collision = (Collision) slot;
+        if (collision.hash != entry.hash) {
+            added[0] = true;
+            return merge(collision, collision.hash, entry, shift);
+        }
+        Entry[] entries = collision.entries;
+        for (int i = 0; i < entries.length; i++) {
+            if (Objects.equals(entries[i].key, entry.key)) {
+                return new Collision(entry.hash, (Entry[]) replace(entries, i, entry));
+            }
+        }
+        added[0] = true;
+        Entry[] grown = new Entry[entries.length + 1];
+        System.arraycopy(entries, 0, grown, 0, entries.length);
+        grown[entries.length] = entry;
+        return new Collision(entry.hash, grown);
+    }
+
+    /**
+     * Builds the nodes below a level that tell two slots with different hashes apart
+     */
+    private static Node merge(Object slot, int hash, Entry entry, int shift) {
+        int index1 = hash >>> shift & 31;
+        int index2 = entry.hash >>> shift & 31;
+        if (index1 == index2) {
+            return new Node(1 << index1, new Object[]{merge(slot, hash, entry, shift + 5)});
+        }
+        Object[] slots = index1 < index2 ? new Object[]{slot, entry} : new Object[]{entry, slot};
+        return new Node(1 << index1 | 1 << index2, slots);
+    }
+
+    /**
+     * @return the slot without the key, null if nothing is left, or the same slot if the
+     * key is not in it
+     */
+    private static Object remove(Object slot, int shift, Object key, int hash) {
+        if (slot instanceof Node) {
+            Node node = (Node) slot;
+            int bit = 1 << (hash >>> shift & 31);
+            if ((node.bitmap & bit) == 0) return node;
+            int index = Integer.bitCount(node.bitmap & (bit - 1));
+            Object child = remove(node.slots[index], shift + 5, key, hash);
+            if (child == node.slots[index]) return node;
+            if (child == null) {
+                if (node.bitmap == bit) return null;
+                Object[] slots = delete(node.slots, index);
+                // a lone entry moves up, so the trie is no deeper than it needs to be
+                if (shift > 0 && slots.length == 1 && !(slots[0] instanceof Node)) return slots[0];
+                return new Node(node.bitmap & ~bit, slots);
+            }
+            if (shift > 0 && node.slots.length == 1 && !(child instanceof Node)) return child;
+            return new Node(node.bitmap, replace(node.slots, index, child));
+        }
+        if (slot instanceof Entry) {
+            Entry entry = (Entry) slot;
+            return entry.hash == hash && Objects.equals(entry.key, key) ? null : entry;
+        }
+        Collision collision = (Collision) slot;
+        Entry[] entries = collision.entries;
+        for (int i = 0; i < entries.length; i++) {
+            if (Objects.equals(entries[i].key, key)) {
+                if (entries.length == 2) return entries[1 - i];
+                return new Collision(hash, (Entry[]) delete(entries, i));
+            }
+        }
+        return collision;
+    }
+
+    private static Object[] insert(Object[] slots, int index, Object slot) {
+        Object[] copy = new Object[slots.length + 1];
+        System.arraycopy(slots, 0, copy, 0, index);
+        copy[index] = slot;
+        System.arraycopy(slots, index, copy, index + 1, slots.length - index);
+        return copy;
+    }
+
+    private static Object[] replace(Object[] slots, int index, Object slot) {
+        Object[] copy = slots.clone();
+        copy[index] = slot;
+        return copy;
+    }
+
+    private static Object[] delete(Object[] slots, int index) {
+        Object[] copy = Arrays.copyOf(slots, slots.length - 1);
+        System.arraycopy(slots, index + 1, copy, index, slots.length - index - 1);
+        return copy;
+    }
+
+    private static int hash(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        return h ^ h >>> 16;
+    }
+
+    private static final class Node {
+        final int bitmap;
+        final Object[] slots;
+
+        Node(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+    }
+
+    private static final class Entry {
+        final Object key;
+        final Object value;
+        final int hash;
+
+        Entry(Object key, Object value, int hash) {
+            this.key = key;
+            this.value = value;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Entries whose keys have the same full hash
+     */
+    private static final class Collision {
+        final int hash;
+        final Entry[] entries;
+
+        Collision(int hash, Entry[] entries) {
+            this.hash = hash;
+            this.entries = entries;
+        }
+    }
+}
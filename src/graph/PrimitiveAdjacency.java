@@ -0,0 +1,245 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The vertex and edge storage behind {@link IntGraph} and {@link LongGraph}. Vertices are
+ * numbered densely from 0, and every vertex has an int array of its neighbours' numbers, so
+ * an edge costs two ints. Like {@link Vertex}, a vertex with more than a handful of
+ * neighbours also keeps their positions in a hash map, here an {@link IntIndexMap}, so that
+ * edge lookup and removal don't scan the array. Weights are kept in parallel double arrays,
+ * which are only allocated once an edge has a weight other than 1.
+ *
+ * Removing a vertex moves the last vertex into its number, so the numbers stay dense.
+ */
+final class PrimitiveAdjacency {
+
+    private static final int INDEX_THRESHOLD = 8;
+    private static final int[] NO_NEIGHBORS = new int[0];
+
+    private int size;
+    private int[][] neighbors;
+    private int[] degrees;
+    private IntIndexMap[] positions;
+    // null while every weight in the graph is 1
+    private double[][] weights;
+    private Object[] data;
+    private long edgeCount;
+
+    PrimitiveAdjacency(int expectedVertices) {
+        int capacity = Math.max(expectedVertices, 8);
+        neighbors = new int[capacity][];
+        degrees = new int[capacity];
+        positions = new IntIndexMap[capacity];
+        data = new Object[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    long edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Adds a vertex without edges
+     * @return the number of the new vertex
+     */
+    int add(Object value) {
+        if (size == degrees.length) {
+            int capacity = size + (size >> 1);
+            neighbors = Arrays.copyOf(neighbors, capacity);
+            degrees = Arrays.copyOf(degrees, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            data = Arrays.copyOf(data, capacity);
+            if (weights != null) weights = Arrays.copyOf(weights, capacity);
+        }
+        neighbors[size] = NO_NEIGHBORS;
+        data[size] = value;
+        return size++;
+    }
+
+    Object data(int v) {
+        return data[v];
+    }
+
+    void setData(int v, Object value) {
+        data[v] = value;
+    }
+
+    int degree(int v) {
+        return degrees[v];
+    }
+
+    int neighbor(int v, int i) {
+        return neighbors[v][i];
+    }
+
+    double weight(int v, int i) {
+        return weights == null || weights[v] == null ? 1.0 : weights[v][i];
+    }
+
+    boolean isWeighted() {
+        return weights != null;
+    }
+
+    /**
+     * Get the position of a neighbour in a vertex's neighbour array
+     * @return the position, or -1 if the vertices are not adjacent
+     */
+    int positionOf(int v, int w) {
+        if (positions[v] != null) return positions[v].get(w);
+        int[] list = neighbors[v];
+        for (int i = 0; i < degrees[v]; i++) {
+            if (list[i] == w) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Adds an edge, or changes its weight if it exists and setWeight is true
+     */
+    void addEdge(int v, int w, double weight, boolean setWeight) {
+        int position = positionOf(v, w);
+        if (position >= 0) {
+            if (setWeight) {
+                setWeight(v, position, weight);
+                if (v != w) setWeight(w, positionOf(w, v), weight);
+            }
+            return;
+        }
+        append(v, w, weight);
+        if (v != w) append(w, v, weight);
+        edgeCount++;
+    }
+
+    /**
+     * Removes an edge, if it exists
+     */
+    void removeEdge(int v, int w) {
+        int position = positionOf(v, w);
+        if (position < 0) return;
+        removeAt(v, position);
+        if (v != w) removeAt(w, positionOf(w, v));
+        edgeCount--;
+    }
+
+    /**
+     * Removes a vertex and its edges, and moves the last vertex into its number
+     * @return the number the moved vertex had, which is now free
+     */
+    int remove(int v) {
+        for (int i = degrees[v] - 1; i >= 0; i--) {
+            int w = neighbors[v][i];
+            if (w != v) removeAt(w, positionOf(w, v));
+        }
+        edgeCount -= degrees[v];
+
+        int last = --size;
+        if (v != last) {
+            neighbors[v] = neighbors[last];
+            degrees[v] = degrees[last];
+            positions[v] = positions[last];
+            data[v] = data[last];
+            if (weights != null) weights[v] = weights[last];
+            // renumber the moved vertex in its neighbours' arrays, and in its own for a self-loop
+            for (int i = 0; i < degrees[v]; i++) {
+                int w = neighbors[v][i];
+                int owner = w == last ? v : w;
+                int position = w == last ? i : positionOf(w, last);
+                neighbors[owner][position] = v;
+                if (positions[owner] != null) {
+                    positions[owner].remove(last);
+                    positions[owner].put(v, position);
+                }
+            }
+        }
+        neighbors[last] = null;
+        degrees[last] = 0;
+        positions[last] = null;
+        data[last] = null;
+        if (weights != null) weights[last] = null;
+        return last;
+    }
+
+    /**
+     * Copies the graph into a {@link CompactGraph}
+     * @param keys the key of every vertex, by number
+     * @param indices the number of every key
+     */
+    <K, V> CompactGraph<K, V> freeze(Object[] keys, Map<K, Integer> indices) {
+        int[] offsets = new int[size + 1];
+        for (int v = 0; v < size; v++) {
+            offsets[v + 1] = offsets[v] + degrees[v];
+        }
+        int[] targets = new int[offsets[size]];
+        double[] targetWeights = weights == null ? null : new double[offsets[size]];
+        for (int v = 0; v < size; v++) {
+            System.arraycopy(neighbors[v], 0, targets, offsets[v], degrees[v]);
+            if (targetWeights != null) {
+                for (int i = 0; i < degrees[v]; i++) {
+                    targetWeights[offsets[v] + i] = weight(v, i);
+                }
+            }
+        }
+        return new CompactGraph<>(keys, Arrays.copyOf(data, size), indices, offsets, targets, targetWeights);
+    }
+
+    private void append(int v, int w, double weight) {
+        int degree = degrees[v];
+        if (degree == neighbors[v].length) {
+            neighbors[v] = Arrays.copyOf(neighbors[v], Math.max(4, degree + (degree >> 1)));
+        }
+        neighbors[v][degree] = w;
+        degrees[v] = degree + 1;
+        if (weight != 1.0 || (weights != null && weights[v] != null)) setWeight(v, degree, weight);
+
+        if (positions[v] != null) {
+            positions[v].put(w, degree);
+        } else if (degree + 1 > INDEX_THRESHOLD) {
+            positions[v] = new IntIndexMap(degree + 1);
+            for (int i = 0; i <= degree; i++) {
+                positions[v].put(neighbors[v][i], i);
+            }
+        }
+    }
+
+    private void setWeight(int v, int position, double weight) {
+        if (weights == null) {
+            if (weight == 1.0) return;
+            weights = new double[neighbors.length][];
+        }
+        double[] list = weights[v];
+        if (list == null) {
+            if (weight == 1.0) return;
+            list = new double[neighbors[v].length];
+            Arrays.fill(list, 1.0);
+        } else if (list.length < neighbors[v].length) {
+            int length = list.length;
+            list = Arrays.copyOf(list, neighbors[v].length);
+            Arrays.fill(list, length, list.length, 1.0);
+        }
+        list[position] = weight;
+        weights[v] = list;
+    }
+
+    /**
+     * Removes the neighbour at a position, moving the last neighbour into its place
+     */
+    private void removeAt(int v, int position) {
+        int last = --degrees[v];
+        int[] list = neighbors[v];
+        int removed = list[position];
+        list[position] = list[last];
+        if (weights != null && weights[v] != null) {
+            weights[v][position] = weights[v][last];
+            weights[v][last] = 1.0;
+        }
+        if (positions[v] != null) {
+            positions[v].remove(removed);
+            if (position != last) positions[v].put(list[position], position);
+        }
+    }
+}
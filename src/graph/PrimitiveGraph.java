@@ -0,0 +1,126 @@
+package graph;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The part of {@link IntGraph} and {@link LongGraph} that doesn't depend on the id type: the
+ * vertices, their data and their edges by dense vertex number, kept in a
+ * {@link PrimitiveAdjacency}. Subclasses map their ids to vertex numbers and keep the id of
+ * every number.
+ * @param <V> Type of the vertices
+ */
+abstract class PrimitiveGraph<V> {
+
+    final PrimitiveAdjacency adjacency;
+
+    PrimitiveGraph(int expectedVertices) {
+        adjacency = new PrimitiveAdjacency(expectedVertices);
+    }
+
+    /**
+     * Get the id of a vertex, boxed, as its key in a frozen graph
+     */
+    abstract Object key(int v);
+
+    /**
+     * Gives the id of a vertex to another number, after the vertex was moved there
+     */
+    abstract void renumber(int from, int to);
+
+    /**
+     * Adds a vertex, or replaces its data if it is already in the graph
+     * @param v the number of the vertex, or -1 if it is not in the graph
+     * @return the number of the new vertex, or -1 if it was already in the graph
+     */
+    final int add(int v, V data) {
+        if (v >= 0) {
+            adjacency.setData(v, data);
+            return -1;
+        }
+        return adjacency.add(data);
+    }
+
+    /**
+     * Removes a vertex and its edges, and renumbers the vertex moved into its number
+     */
+    final void remove(int v) {
+        int moved = adjacency.remove(v);
+        if (moved != v) renumber(moved, v);
+    }
+
+    final void connect(int v, int w) {
+        adjacency.addEdge(v, w, 1.0, false);
+    }
+
+    final void connect(int v, int w, double weight) {
+        if (Double.isNaN(weight)) throw new IllegalArgumentException("edge weight must be a number");
+        adjacency.addEdge(v, w, weight, true);
+    }
+
+    /**
+     * Removes the edge between two vertices, if both are in the graph and the edge exists
+     * @param v the number of one vertex, or -1
+     * @param w the number of the other vertex, or -1
+     */
+    final void disconnect(int v, int w) {
+        if (v >= 0 && w >= 0) adjacency.removeEdge(v, w);
+    }
+
+    /**
+     * Checks if there is an edge between two vertices
+     * @param v the number of one vertex, or -1
+     * @param w the number of the other vertex, or -1
+     */
+    final boolean connected(int v, int w) {
+        return v >= 0 && w >= 0 && adjacency.positionOf(v, w) >= 0;
+    }
+
+    /**
+     * Get the weight of the edge between two vertices, or NaN if there is no such edge
+     */
+    final double weight(int v, int w) {
+        int position = adjacency.positionOf(v, w);
+        return position < 0 ? Double.NaN : adjacency.weight(v, position);
+    }
+
+    @SuppressWarnings("unchecked")
+    final V data(int v) {
+        return (V) adjacency.data(v);
+    }
+
+    /**
+     * Get the number of vertices in the graph
+     * @return the number of vertices
+     */
+    public int vertexCount() {
+        return adjacency.size();
+    }
+
+    /**
+     * Get the number of edges in the graph
+     * @return the number of edges
+     */
+    public long edgeCount() {
+        return adjacency.edgeCount();
+    }
+
+    /**
+     * Copies the graph into a {@link CompactGraph}, boxing every id once as its key
+     */
+    @SuppressWarnings("unchecked")
+    final <K> CompactGraph<K, V> freezeWithKeys() {
+        int size = adjacency.size();
+        Object[] keys = new Object[size];
+        Map<K, Integer> keyIndices = new HashMap<>(size * 4 / 3 + 1);
+        for (int v = 0; v < size; v++) {
+            keys[v] = key(v);
+            keyIndices.put((K) keys[v], v);
+        }
+        return adjacency.freeze(keys, keyIndices);
+    }
+
+    static VertexNotInGraphException notInGraph(Object id) {
+        return new VertexNotInGraphException("Vertex{" + id + "} is not a member of the graph");
+    }
+}
@@ -0,0 +1,89 @@
+package graph;
+
+/**
+ * The slots of an open-addressing hash map from primitive keys to non-negative int values,
+ * with linear probing. Values are stored plus one, so that 0 marks an empty slot, and removal
+ * shifts the following entries back instead of leaving tombstones. Subclasses keep the keys,
+ * in an array of their own type, and look them up; this class keeps the values and does the
+ * removal and resizing.
+ */
+abstract class PrimitiveIndexMap {
+
+    int[] values;
+    int shift;
+    private int size;
+
+    /**
+     * Constructor
+     * @param expected the number of entries to make room for
+     */
+    PrimitiveIndexMap(int expected) {
+        int capacity = GraphFile.tableSize(expected);
+        values = new int[capacity];
+        shift = Integer.numberOfLeadingZeros(capacity - 1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the slot the key in a slot hashes to
+     */
+    abstract int homeSlot(int slot);
+
+    /**
+     * Moves the key in a slot to another slot
+     */
+    abstract void moveKey(int from, int to);
+
+    /**
+     * Replaces the keys with an empty array as large as the values, and puts every key of
+     * the old array whose old value is not 0 back into its new slot with {@link #freeSlot}
+     * @param oldValues the values before the resize
+     */
+    abstract void rehash(int[] oldValues);
+
+    /**
+     * Finds the first empty slot from a home slot on
+     */
+    final int freeSlot(int slot) {
+        int mask = values.length - 1;
+        while (values[slot] != 0) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /**
+     * Sets the value of a new key, which the subclass has stored in an empty slot
+     */
+    final void added(int slot, int value) {
+        values[slot] = value + 1;
+        if (++size * 2 > values.length) {
+            int[] oldValues = values;
+            values = new int[oldValues.length * 2];
+            shift--;
+            rehash(oldValues);
+        }
+    }
+
+    /**
+     * Empties a slot, moving back every following entry that the hole cuts off from its
+     * home slot
+     * @return the value the slot had
+     */
+    final int removeAt(int slot) {
+        int mask = values.length - 1;
+        int removed = values[slot] - 1;
+        size--;
+        for (int next = (slot + 1) & mask; values[next] != 0; next = (next + 1) & mask) {
+            int home = homeSlot(next);
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                moveKey(next, slot);
+                values[slot] = values[next];
+                slot = next;
+            }
+        }
+        values[slot] = 0;
+        return removed;
+    }
+}
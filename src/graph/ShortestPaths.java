@@ -0,0 +1,169 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Weighted shortest paths in an {@link IndexedGraph}, with Dijkstra's algorithm and A*. Edge
+ * weights must not be negative.
+ *
+ * An instance holds the distance, parent and heap arrays for its graph and reuses them for
+ * every query. The arrays are marked with a per-query stamp instead of being cleared, so a
+ * point-to-point query only touches the vertices it reaches, and no query allocates anything
+ * per vertex or per edge. An instance must only be used by one thread at a time; create one
+ * per thread to run queries in parallel.
+ */
+public final class ShortestPaths {
+
+    private static final int[] NO_PATH = new int[0];
+
+    private final IndexedGraph<?, ?> graph;
+    private final double[] distance;
+    private final int[] parent;
+    // reached[v] == query once v has a distance in this query, settled[v] == query once it is final
+    private final int[] reached;
+    private final int[] settled;
+    private final DoubleHeap heap;
+    private int query;
+
+    /**
+     * Constructor
+     * @param graph the graph to find paths in
+     */
+    public ShortestPaths(IndexedGraph<?, ?> graph) {
+        int size = graph.vertexCount();
+        this.graph = graph;
+        this.distance = new double[size];
+        this.parent = new int[size];
+        this.reached = new int[size];
+        this.settled = new int[size];
+        this.heap = new DoubleHeap(size);
+    }
+
+    /**
+     * Finds the length of a shortest path from a source to every vertex
+     * @param source the index of the vertex to start from
+     * @return the distance of every vertex, by index, or positive infinity for vertices that
+     * can't be reached
+     */
+    public double[] from(int source) {
+        search(source, -1, null);
+        double[] distances = new double[distance.length];
+        for (int v = 0; v < distances.length; v++) {
+            distances[v] = reached[v] == query ? distance[v] : Double.POSITIVE_INFINITY;
+        }
+        return distances;
+    }
+
+    /**
+     * Finds the length of a shortest path between two vertices with Dijkstra's algorithm,
+     * stopping once the target is settled
+     * @param source the index of the vertex to start from
+     * @param target the index of the vertex to reach
+     * @return the length of the path, or positive infinity if there is none
+     */
+    public double distance(int source, int target) {
+        return search(source, target, null) ? distance[target] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Finds the length of a shortest path between two vertices with A*. The heuristic must
+     * never overestimate the distance from a vertex to the target; it costs the fewest vertex
+     * visits when it also never drops by more than an edge's weight along the edge.
+     * @param source the index of the vertex to start from
+     * @param target the index of the vertex to reach
+     * @param heuristic a lower bound on the distance from a vertex, by index, to the target
+     * @return the length of the path, or positive infinity if there is none
+     */
+    public double distance(int source, int target, IntToDoubleFunction heuristic) {
+        return search(source, target, heuristic) ? distance[target] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Finds a shortest path between two vertices with Dijkstra's algorithm
+     * @param source the index of the vertex to start from
+     * @param target the index of the vertex to reach
+     * @return the indices of the vertices on the path, from source to target, or an empty
+     * array if there is none
+     */
+    public int[] path(int source, int target) {
+        return search(source, target, null) ? trace(source, target) : NO_PATH;
+    }
+
+    /**
+     * Finds a shortest path between two vertices with A*
+     * @param source the index of the vertex to start from
+     * @param target the index of the vertex to reach
+     * @param heuristic a lower bound on the distance from a vertex, by index, to the target
+     * @return the indices of the vertices on the path, from source to target, or an empty
+     * array if there is none
+     * @see #distance(int, int, IntToDoubleFunction)
+     */
+    public int[] path(int source, int target, IntToDoubleFunction heuristic) {
+        return search(source, target, heuristic) ? trace(source, target) : NO_PATH;
+    }
+
+    /**
+     * Runs Dijkstra's algorithm, or A* if there is a heuristic, until the target is settled
+     * or, without a target, until every reachable vertex is
+     * @return true if the target was reached
+     */
+    private boolean search(int source, int target, IntToDoubleFunction heuristic) {
+        if (++query == Integer.MAX_VALUE) {
+            Arrays.fill(reached, 0);
+            Arrays.fill(settled, 0);
+            query = 1;
+        }
+        heap.clear();
+
+        distance[source] = 0;
+        parent[source] = -1;
+        reached[source] = query;
+        heap.insert(source, heuristic == null ? 0 : heuristic.applyAsDouble(source));
+        while (!heap.isEmpty()) {
+            int v = heap.poll();
+            settled[v] = query;
+            if (v == target) return true;
+
+            double base = distance[v];
+            int degree = graph.degree(v);
+            for (int i = 0; i < degree; i++) {
+                double weight = graph.weight(v, i);
+                if (weight < 0) throw new IllegalArgumentException("negative edge weight " + weight + " at vertex " + v);
+                int w = graph.neighbor(v, i);
+                double candidate = base + weight;
+
+                if (reached[w] != query) {
+                    reached[w] = query;
+                    distance[w] = candidate;
+                    parent[w] = v;
+                    heap.insert(w, heuristic == null ? candidate : candidate + heuristic.applyAsDouble(w));
+                } else if (candidate < distance[w]) {
+                    double estimate = heuristic == null ? candidate : candidate + heuristic.applyAsDouble(w);
+                    distance[w] = candidate;
+                    parent[w] = v;
+                    if (settled[w] == query) {
+                        // only an inconsistent heuristic can improve a settled vertex
+                        settled[w] = 0;
+                        heap.insert(w, estimate);
+                    } else {
+                        heap.decrease(w, estimate);
+                    }
+                }
+            }
+        }
+        return target < 0 || reached[target] == query;
+    }
+
+    private int[] trace(int source, int target) {
+        int length = 1;
+        for (int v = target; v != source; v = parent[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = target; length > 0; v = parent[v]) {
+            path[--length] = v;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,139 @@
+package graph;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+class ShortestPathsTest {
+
+    private static CompactGraph<Integer, Integer> weightedGraph(int size, int edges, long seed) {
+        GraphLoader<Integer, Integer> loader = GraphLoader.create();
+        for (int i = 0; i < size; i++) {
+            loader.addVertex(i, i);
+        }
+        Random random = new Random(seed);
+        for (int i = 0; i < edges; i++) {
+            loader.addEdge(random.nextInt(size), random.nextInt(size), 1 + random.nextInt(20));
+        }
+        return loader.load().freeze();
+    }
+
+    /**
+     * Relaxes every edge until nothing changes
+     */
+    private static double[] bellmanFord(IndexedGraph<?, ?> graph, int source) {
+        double[] distance = new double[graph.vertexCount()];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        distance[source] = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                for (int i = 0; i < graph.degree(v); i++) {
+                    int w = graph.neighbor(v, i);
+                    if (distance[v] + graph.weight(v, i) < distance[w]) {
+                        distance[w] = distance[v] + graph.weight(v, i);
+                        changed = true;
+                    }
+                }
+            }
+        }
+        return distance;
+    }
+
+    @Test
+    @DisplayName("Edge weights are kept by the graph, its snapshot and its file")
+    void testWeights() throws IOException {
+        Graph<String, Integer> graph = Graph.<String, Integer>create()
+                .addVertex("a", 1)
+                .addVertex("b", 2)
+                .addVertex("c", 3)
+                .addEdge("a", "b", 2.5)
+                .addEdge("b", "c")
+                .addEdge("a", "c", 7);
+        graph.addEdge("a", "c", 6);
+
+        Assertions.assertEquals(2.5, graph.getWeight("b", "a"));
+        Assertions.assertEquals(1.0, graph.getWeight("c", "b"));
+        Assertions.assertEquals(6.0, graph.getWeight("c", "a"));
+        graph.removeEdge("a", "b");
+        Assertions.assertTrue(Double.isNaN(graph.getWeight("a", "b")));
+        Assertions.assertEquals(6.0, graph.getWeight("a", "c"));
+
+        CompactGraph<String, Integer> compact = graph.freeze();
+        int a = compact.indexOf("a");
+        Assertions.assertTrue(compact.isWeighted());
+        Assertions.assertEquals(6.0, compact.weight(a, 0));
+
+        Path file = Files.createTempFile("graph", ".bin");
+        try {
+            GraphFile.write(compact, file, Codec.strings());
+            MappedGraph<String, Integer> mapped = GraphFile.map(file, Codec.strings(), null);
+            Assertions.assertEquals(6.0, mapped.weight(a, 0));
+            Assertions.assertEquals(7.0, new ShortestPaths(mapped).distance(a, mapped.indexOf("b")));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Dijkstra finds the same distances as relaxing every edge until nothing changes")
+    void testDijkstra(){
+        CompactGraph<Integer, Integer> graph = weightedGraph(2000, 8000, 18);
+        ShortestPaths paths = new ShortestPaths(graph);
+
+        for (int source = 0; source < 5; source++) {
+            double[] expected = bellmanFord(graph, source);
+            Assertions.assertArrayEquals(expected, paths.from(source));
+            for (int target = 100; target < 2000; target += 100) {
+                Assertions.assertEquals(expected[target], paths.distance(source, target));
+                int[] path = paths.path(source, target);
+                double length = 0;
+                for (int i = 1; i < path.length; i++) {
+                    Assertions.assertTrue(graph.hasEdge(path[i - 1], path[i]));
+                    for (int n = 0; n < graph.degree(path[i - 1]); n++) {
+                        if (graph.neighbor(path[i - 1], n) == path[i]) length += graph.weight(path[i - 1], n);
+                    }
+                }
+                Assertions.assertEquals(expected[target], length);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A* on a grid finds shortest paths with a Manhattan heuristic")
+    void testAStar(){
+        int side = 60;
+        GraphLoader<Integer, Integer> loader = GraphLoader.create();
+        for (int i = 0; i < side * side; i++) {
+            loader.addVertex(i, i);
+        }
+        Random random = new Random(19);
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                int v = y * side + x;
+                if (x + 1 < side) loader.addEdge(v, v + 1, 1 + random.nextInt(5));
+                if (y + 1 < side) loader.addEdge(v, v + side, 1 + random.nextInt(5));
+            }
+        }
+        CompactGraph<Integer, Integer> grid = loader.load().freeze();
+        ShortestPaths paths = new ShortestPaths(grid);
+
+        for (int query = 0; query < 50; query++) {
+            int source = grid.indexOf(random.nextInt(side * side));
+            int target = grid.indexOf(random.nextInt(side * side));
+            int tx = grid.keyAt(target) % side;
+            int ty = grid.keyAt(target) / side;
+            double aStar = paths.distance(source, target,
+                    v -> Math.abs(grid.keyAt(v) % side - tx) + Math.abs(grid.keyAt(v) / side - ty));
+
+            Assertions.assertEquals(paths.distance(source, target), aStar);
+        }
+    }
+}
@@ -0,0 +1,528 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Breadth-first and depth-first traversal, hop distances and connected components of an
+ * {@link IndexedGraph}, and topological order and strongly connected components of a
+ * {@link DirectedIndexedGraph}. Vertices are identified by their dense indices, and visited
+ * vertices are tracked in bitsets over those indices, so a traversal allocates a few int and
+ * long arrays and nothing per vertex. Traversals of a directed graph follow its edges
+ * forwards; traverse {@link DirectedIndexedGraph#reverse()} to follow them backwards.
+ */
+public final class Traversal {
+
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
+    // switch to bottom-up once the frontier has more than 1/ALPHA of the unexplored edges,
+    // and back to top-down once it holds fewer than 1/BETA of the vertices
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    private Traversal() {}
+
+    /**
+     * Visits the vertices reachable from a source in breadth-first order
+     * @param graph the graph to traverse
+     * @param source the index of the vertex to start from
+     * @return the indices of the reachable vertices, in the order they were visited
+     */
+    public static int[] breadthFirst(IndexedGraph<?, ?> graph, int source) {
+        long[] visited = new long[words(graph.vertexCount())];
+        int[] queue = new int[graph.vertexCount()];
+        int length = breadthFirst(graph, source, visited, queue, 0);
+        return Arrays.copyOf(queue, length);
+    }
+
+    /**
+     * Visits the vertices reachable from a source in depth-first preorder, taking the
+     * neighbours of every vertex in their stored order
+     * @param graph the graph to traverse
+     * @param source the index of the vertex to start from
+     * @return the indices of the reachable vertices, in the order they were first visited
+     */
+    public static int[] depthFirst(IndexedGraph<?, ?> graph, int source) {
+        int size = graph.vertexCount();
+        long[] visited = new long[words(size)];
+        int[] order = new int[size];
+        int[] stack = new int[size];
+        int[] positions = new int[size];
+        int count = 0;
+        int top = 0;
+
+        set(visited, source);
+        order[count++] = source;
+        stack[top++] = source;
+        while (top > 0) {
+            int v = stack[top - 1];
+            if (positions[top - 1] == graph.degree(v)) {
+                top--;
+                continue;
+            }
+            int w = graph.neighbor(v, positions[top - 1]++);
+            if (!isSet(visited, w)) {
+                set(visited, w);
+                order[count++] = w;
+                positions[top] = 0;
+                stack[top++] = w;
+            }
+        }
+        return Arrays.copyOf(order, count);
+    }
+
+    /**
+     * Finds the number of edges on a shortest path from a source to every vertex
+     * @param graph the graph to traverse
+     * @param source the index of the vertex to start from
+     * @return the hop distance of every vertex, by index, or -1 for vertices that can't be
+     * reached from the source
+     */
+    public static int[] distances(IndexedGraph<?, ?> graph, int source) {
+        int size = graph.vertexCount();
+        int[] distance = new int[size];
+        Arrays.fill(distance, -1);
+        int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+
+        distance[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int v = queue[head++];
+            int degree = graph.degree(v);
+            for (int i = 0; i < degree; i++) {
+                int w = graph.neighbor(v, i);
+                if (distance[w] < 0) {
+                    distance[w] = distance[v] + 1;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Finds the number of edges on a shortest path between two vertices. The search stops
+     * as soon as the target is reached.
+     * @param graph the graph to traverse
+     * @param source the index of the vertex on one end of the path
+     * @param target the index of the vertex on the other end of the path
+     * @return the hop distance, or -1 if there is no path
+     */
+    public static int hopDistance(IndexedGraph<?, ?> graph, int source, int target) {
+        if (source == target) return 0;
+        int size = graph.vertexCount();
+        long[] visited = new long[words(size)];
+        int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+        int levelEnd = 1;
+        int level = 1;
+
+        set(visited, source);
+        queue[tail++] = source;
+        while (head < tail) {
+            int v = queue[head++];
+            int degree = graph.degree(v);
+            for (int i = 0; i < degree; i++) {
+                int w = graph.neighbor(v, i);
+                if (w == target) return level;
+                if (!isSet(visited, w)) {
+                    set(visited, w);
+                    queue[tail++] = w;
+                }
+            }
+            if (head == levelEnd) {
+                levelEnd = tail;
+                level++;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds hop distances like {@link #distances(IndexedGraph, int)}, one level at a time on
+     * all cores of the common fork-join pool. Each level is expanded either top-down, with
+     * the frontier split across threads and every thread claiming unvisited neighbours in an
+     * atomic bitset, or bottom-up, with the unvisited vertices split across threads and
+     * every vertex looking for a neighbour in the frontier. Bottom-up is cheaper once the
+     * frontier reaches a large part of the graph, since each unvisited vertex stops at its
+     * first neighbour in the frontier; the direction is chosen again at every level.
+     * @param graph the graph to traverse
+     * @param source the index of the vertex to start from
+     * @return the hop distance of every vertex, by index, or -1 for vertices that can't be
+     * reached from the source
+     */
+    public static int[] parallelDistances(IndexedGraph<?, ?> graph, int source) {
+        int size = graph.vertexCount();
+        int[] distance = new int[size];
+        Arrays.fill(distance, -1);
+        AtomicLongArray visited = new AtomicLongArray(words(size));
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        // bottom-up, a vertex looks for the frontier among the vertices with an edge to it
+        IndexedGraph<?, ?> parents = graph instanceof DirectedIndexedGraph
+                ? ((DirectedIndexedGraph<?, ?>) graph).reverse()
+                : graph;
+
+        long unexploredEdges = 0;
+        for (int v = 0; v < size; v++) {
+            unexploredEdges += graph.degree(v);
+        }
+        distance[source] = 0;
+        visited.set(source >>> 6, 1L << source);
+        int[] frontier = {source};
+        long frontierEdges = graph.degree(source);
+        unexploredEdges -= frontierEdges;
+        boolean bottomUp = false;
+
+        for (int level = 1; frontier.length > 0; level++) {
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && frontier.length < size / BETA) {
+                bottomUp = false;
+            }
+
+            if (bottomUp) {
+                long[] inFrontier = new long[words(size)];
+                for (int v : frontier) {
+                    set(inFrontier, v);
+                }
+                frontier = pool.invoke(new BottomUp(parents, distance, visited, inFrontier, level, 0, size));
+            } else {
+                frontier = pool.invoke(new TopDown(graph, distance, visited, frontier, level, 0, frontier.length));
+            }
+
+            frontierEdges = 0;
+            for (int v : frontier) {
+                frontierEdges += graph.degree(v);
+            }
+            unexploredEdges -= frontierEdges;
+        }
+        return distance;
+    }
+
+    /**
+     * Labels the connected components of a graph. The components of a directed graph are
+     * its weakly connected components, found by following edges in both directions.
+     * @param graph the graph to split
+     * @return the component of every vertex, by index, numbered from 0 in the order of the
+     * components' smallest vertex index
+     */
+    public static int[] components(IndexedGraph<?, ?> graph) {
+        int size = graph.vertexCount();
+        int[] labels = new int[size];
+        long[] visited = new long[words(size)];
+        int[] queue = new int[size];
+        DirectedIndexedGraph<?, ?> reverse = graph instanceof DirectedIndexedGraph
+                ? ((DirectedIndexedGraph<?, ?>) graph).reverse()
+                : null;
+        int label = 0;
+        int start = 0;
+        for (int v = 0; v < size; v++) {
+            if (isSet(visited, v)) continue;
+            int end = reverse == null
+                    ? breadthFirst(graph, v, visited, queue, start)
+                    : breadthFirst(graph, reverse, v, visited, queue, start);
+            for (int i = start; i < end; i++) {
+                labels[queue[i]] = label;
+            }
+            label++;
+            start = end;
+        }
+        return labels;
+    }
+
+    /**
+     * Get the number of components in a labelling returned by {@link #components(IndexedGraph)}
+     * @param labels the component of every vertex
+     * @return the number of components
+     */
+    public static int componentCount(int[] labels) {
+        int max = -1;
+        for (int label : labels) {
+            if (label > max) max = label;
+        }
+        return max + 1;
+    }
+
+    /**
+     * Orders the vertices of a directed acyclic graph so that every edge points from an
+     * earlier vertex to a later one, with Kahn's algorithm. Of the vertices that are ready at
+     * the same time, the ones with smaller indices come first.
+     * @param graph the graph to order
+     * @return the indices of all vertices in topological order
+     * @throws IllegalArgumentException if the graph has a cycle
+     */
+    public static int[] topologicalOrder(DirectedIndexedGraph<?, ?> graph) {
+        int size = graph.vertexCount();
+        int[] remaining = new int[size];
+        int[] order = new int[size];
+        int head = 0;
+        int tail = 0;
+        for (int v = 0; v < size; v++) {
+            remaining[v] = graph.inDegree(v);
+            if (remaining[v] == 0) order[tail++] = v;
+        }
+        while (head < tail) {
+            int v = order[head++];
+            int degree = graph.degree(v);
+            for (int i = 0; i < degree; i++) {
+                int w = graph.neighbor(v, i);
+                if (--remaining[w] == 0) order[tail++] = w;
+            }
+        }
+        if (tail < size) {
+            throw new IllegalArgumentException("graph has a cycle through " + (size - tail) + " vertices");
+        }
+        return order;
+    }
+
+    /**
+     * Labels the strongly connected components of a directed graph, the largest sets of
+     * vertices that can all reach each other, with an iterative version of Tarjan's
+     * algorithm. Components are numbered in reverse topological order: every edge between
+     * two components points from a larger label to a smaller or equal one.
+     * @param graph the graph to split
+     * @return the component of every vertex, by index
+     */
+    public static int[] stronglyConnectedComponents(DirectedIndexedGraph<?, ?> graph) {
+        int size = graph.vertexCount();
+        int[] labels = new int[size];
+        Arrays.fill(labels, -1);
+        // preorder number of every vertex plus one, 0 while unvisited
+        int[] number = new int[size];
+        int[] low = new int[size];
+        int[] callStack = new int[size];
+        int[] positions = new int[size];
+        int[] component = new int[size];
+        int counter = 0;
+        int label = 0;
+        int componentTop = 0;
+
+        for (int root = 0; root < size; root++) {
+            if (number[root] != 0) continue;
+            int top = 0;
+            number[root] = low[root] = ++counter;
+            component[componentTop++] = root;
+            positions[top] = 0;
+            callStack[top++] = root;
+            while (top > 0) {
+                int v = callStack[top - 1];
+                if (positions[top - 1] < graph.degree(v)) {
+                    int w = graph.neighbor(v, positions[top - 1]++);
+                    if (number[w] == 0) {
+                        number[w] = low[w] = ++counter;
+                        component[componentTop++] = w;
+                        positions[top] = 0;
+                        callStack[top++] = w;
+                    } else if (labels[w] < 0 && number[w] < low[v]) {
+                        low[v] = number[w];
+                    }
+                    continue;
+                }
+
+                top--;
+                if (low[v] == number[v]) {
+                    int w;
+                    do {
+                        w = component[--componentTop];
+                        labels[w] = label;
+                    } while (w != v);
+                    label++;
+                }
+                if (top > 0) {
+                    int parent = callStack[top - 1];
+                    if (low[v] < low[parent]) low[parent] = low[v];
+                }
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Appends the unvisited vertices reachable from a source along edges in either direction
+     * to a queue, in breadth-first order, marking them visited
+     * @return the length of the queue afterwards
+     */
+    private static int breadthFirst(IndexedGraph<?, ?> graph, IndexedGraph<?, ?> reverse, int source, long[] visited, int[] queue, int tail) {
+        int head = tail;
+        set(visited, source);
+        queue[tail++] = source;
+        while (head < tail) {
+            int v = queue[head++];
+            tail = enqueue(graph, v, visited, queue, tail);
+            tail = enqueue(reverse, v, visited, queue, tail);
+        }
+        return tail;
+    }
+
+    private static int enqueue(IndexedGraph<?, ?> graph, int v, long[] visited, int[] queue, int tail) {
+        int degree = graph.degree(v);
+        for (int i = 0; i < degree; i++) {
+            int w = graph.neighbor(v, i);
+            if (!isSet(visited, w)) {
+                set(visited, w);
+                queue[tail++] = w;
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Appends the unvisited vertices reachable from a source to a queue, in breadth-first
+     * order, marking them visited
+     * @return the length of the queue afterwards
+     */
+    private static int breadthFirst(IndexedGraph<?, ?> graph, int source, long[] visited, int[] queue, int tail) {
+        int head = tail;
+        set(visited, source);
+        queue[tail++] = source;
+        while (head < tail) {
+            int v = queue[head++];
+            int degree = graph.degree(v);
+            for (int i = 0; i < degree; i++) {
+                int w = graph.neighbor(v, i);
+                if (!isSet(visited, w)) {
+                    set(visited, w);
+                    queue[tail++] = w;
+                }
+            }
+        }
+        return tail;
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    private static boolean isSet(long[] bits, int bit) {
+        return (bits[bit >>> 6] & 1L << bit) != 0;
+    }
+
+    private static void set(long[] bits, int bit) {
+        bits[bit >>> 6] |= 1L << bit;
+    }
+
+    private static int[] concat(int[] left, int[] right) {
+        if (left.length == 0) return right;
+        if (right.length == 0) return left;
+        int[] joined = Arrays.copyOf(left, left.length + right.length);
+        System.arraycopy(right, 0, joined, left.length, right.length);
+        return joined;
+    }
+
+    /**
+     * Expands a range of the frontier, returning the vertices it claimed for the next level
+     */
+    private static final class TopDown extends RecursiveTask<int[]> {
+        private final IndexedGraph<?, ?> graph;
+        private final int[] distance;
+        private final AtomicLongArray visited;
+        private final int[] frontier;
+        private final int level;
+        private final int from;
+        private final int to;
+
+        TopDown(IndexedGraph<?, ?> graph, int[] distance, AtomicLongArray visited, int[] frontier, int level, int from, int to) {
+            this.graph = graph;
+            this.distance = distance;
+            this.visited = visited;
+            this.frontier = frontier;
+            this.level = level;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from > SEQUENTIAL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                TopDown left = new TopDown(graph, distance, visited, frontier, level, from, middle);
+                left.fork();
+                int[] right = new TopDown(graph, distance, visited, frontier, level, middle, to).compute();
+                return concat(left.join(), right);
+            }
+
+            int[] next = new int[16];
+            int count = 0;
+            for (int f = from; f < to; f++) {
+                int v = frontier[f];
+                int degree = graph.degree(v);
+                for (int i = 0; i < degree; i++) {
+                    int w = graph.neighbor(v, i);
+                    if (claim(w)) {
+                        distance[w] = level;
+                        if (count == next.length) next = Arrays.copyOf(next, count * 2);
+                        next[count++] = w;
+                    }
+                }
+            }
+            return Arrays.copyOf(next, count);
+        }
+
+        private boolean claim(int vertex) {
+            int word = vertex >>> 6;
+            long bit = 1L << vertex;
+            while (true) {
+                long bits = visited.get(word);
+                if ((bits & bit) != 0) return false;
+                if (visited.compareAndSet(word, bits, bits | bit)) return true;
+            }
+        }
+    }
+
+    /**
+     * Looks for a neighbour in the frontier for every unvisited vertex in a range, returning
+     * the vertices that found one. Ranges are split on 64-vertex boundaries, so every word of
+     * the visited bitset is written by a single task.
+     */
+    private static final class BottomUp extends RecursiveTask<int[]> {
+        private final IndexedGraph<?, ?> graph;
+        private final int[] distance;
+        private final AtomicLongArray visited;
+        private final long[] frontier;
+        private final int level;
+        private final int from;
+        private final int to;
+
+        BottomUp(IndexedGraph<?, ?> graph, int[] distance, AtomicLongArray visited, long[] frontier, int level, int from, int to) {
+            this.graph = graph;
+            this.distance = distance;
+            this.visited = visited;
+            this.frontier = frontier;
+            this.level = level;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from > 4 * SEQUENTIAL_THRESHOLD) {
+                int middle = ((from + to) >>> 1) & ~63;
+                BottomUp left = new BottomUp(graph, distance, visited, frontier, level, from, middle);
+                left.fork();
+                int[] right = new BottomUp(graph, distance, visited, frontier, level, middle, to).compute();
+                return concat(left.join(), right);
+            }
+
+            int[] next = new int[16];
+            int count = 0;
+            for (int v = from; v < to; v++) {
+                if ((visited.get(v >>> 6) & 1L << v) != 0) continue;
+                int degree = graph.degree(v);
+                for (int i = 0; i < degree; i++) {
+                    if (isSet(frontier, graph.neighbor(v, i))) {
+                        distance[v] = level;
+                        visited.set(v >>> 6, visited.get(v >>> 6) | 1L << v);
+                        if (count == next.length) next = Arrays.copyOf(next, count * 2);
+                        next[count++] = v;
+                        break;
+                    }
+                }
+            }
+            return Arrays.copyOf(next, count);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package graph;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TraversalTest {
+
+    private static CompactGraph<Integer, Integer> twoPaths() {
+        Graph<Integer, Integer> graph = Graph.create();
+        for (int i = 0; i < 7; i++) {
+            graph.addVertex(i, i);
+        }
+        return graph.addEdge(0, 1).addEdge(1, 2).addEdge(2, 3).addEdge(0, 3)
+                .addEdge(4, 5)
+                .freeze();
+    }
+
+    @Test
+    @DisplayName("Breadth-first and depth-first visit every reachable vertex once")
+    void testOrders(){
+        CompactGraph<Integer, Integer> graph = twoPaths();
+        int source = graph.indexOf(0);
+
+        int[] breadth = Traversal.breadthFirst(graph, source);
+        int[] depth = Traversal.depthFirst(graph, source);
+
+        Assertions.assertEquals(4, breadth.length);
+        Assertions.assertEquals(4, depth.length);
+        Assertions.assertEquals(graph.indexOf(2), breadth[3]);
+        Assertions.assertEquals(source, depth[0]);
+        Assertions.assertTrue(graph.hasEdge(depth[1], depth[2]));
+        Assertions.assertTrue(graph.hasEdge(depth[2], depth[3]));
+    }
+
+    @Test
+    @DisplayName("Hop distances are the lengths of shortest paths, -1 when unreachable")
+    void testDistances(){
+        CompactGraph<Integer, Integer> graph = twoPaths();
+        int[] distance = Traversal.distances(graph, graph.indexOf(0));
+
+        Assertions.assertEquals(2, distance[graph.indexOf(2)]);
+        Assertions.assertEquals(1, distance[graph.indexOf(3)]);
+        Assertions.assertEquals(-1, distance[graph.indexOf(5)]);
+        Assertions.assertEquals(2, Traversal.hopDistance(graph, graph.indexOf(0), graph.indexOf(2)));
+        Assertions.assertEquals(-1, Traversal.hopDistance(graph, graph.indexOf(0), graph.indexOf(4)));
+    }
+
+    @Test
+    @DisplayName("Parallel distances match sequential ones on a large graph")
+    void testParallelDistances(){
+        CompactGraph<Integer, Integer> graph = GraphColoringTest.randomGraph(100000, 300000, 17);
+
+        Assertions.assertArrayEquals(Traversal.distances(graph, 0), Traversal.parallelDistances(graph, 0));
+        Assertions.assertArrayEquals(Traversal.distances(graph, 99), Traversal.parallelDistances(graph, 99));
+    }
+
+    @Test
+    @DisplayName("Components are labelled, and coloured independently")
+    void testComponents(){
+        CompactGraph<Integer, Integer> graph = twoPaths();
+        int[] labels = Traversal.components(graph);
+
+        Assertions.assertEquals(3, Traversal.componentCount(labels));
+        Assertions.assertEquals(labels[graph.indexOf(0)], labels[graph.indexOf(2)]);
+        Assertions.assertNotEquals(labels[graph.indexOf(0)], labels[graph.indexOf(4)]);
+
+        CompactGraph<Integer, Integer> random = GraphColoringTest.randomGraph(5000, 4000, 18);
+        Coloring<Integer, Integer> coloring = GraphColoring.colorComponents(random, ColoringStrategy.DSATUR);
+        Assertions.assertTrue(GraphColoring.isValid(random, coloring.toArray()));
+        Assertions.assertEquals(2, GraphColoring.colorComponents(graph, ColoringStrategy.DSATUR).colorCount());
+    }
+}
@@ -0,0 +1,123 @@
+package graph;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * A hash index of the vertices of a {@link Graph} by a value computed from their data, created
+ * with {@link Graph#indexBy(Function)}. The graph keeps the index up to date as vertices are
+ * added and removed and as {@link Vertex#setData(Object)} replaces their data, so looking up
+ * the vertices with a given value takes O(1) time instead of a scan over all vertices.
+ *
+ * The index can't see changes made inside a data object, such as a setter called on it. After
+ * such a change, call {@link #refresh(Object)} for the vertex.
+ * @param <K> Type of the keys
+ * @param <V> Type of the vertices
+ * @param <T> Type of the indexed values
+ */
+public final class ValueIndex<K, V, T> {
+
+    private final Graph<K, V> graph;
+    private final Function<? super V, ? extends T> function;
+    private final Map<K, T> values = new HashMap<>();
+    // a single Vertex for unique values, a LinkedHashMap of key to Vertex for shared ones
+    private final Map<T, Object> entries = new HashMap<>();
+
+    ValueIndex(Graph<K, V> graph, Function<? super V, ? extends T> function) {
+        this.graph = graph;
+        this.function = function;
+    }
+
+    /**
+     * Get the vertices whose data has the given value
+     * @param value the value to look up
+     * @return an unmodifiable collection of the vertices, in the order they were indexed
+     */
+    @SuppressWarnings("unchecked")
+    public Collection<Vertex<K, V>> get(T value) {
+        Object entry = entries.get(value);
+        if (entry == null) return Collections.emptyList();
+        if (entry instanceof Vertex) return Collections.singletonList((Vertex<K, V>) entry);
+        return Collections.unmodifiableCollection(((Map<K, Vertex<K, V>>) entry).values());
+    }
+
+    /**
+     * Get a vertex whose data has the given value
+     * @param value the value to look up
+     * @return the first vertex indexed with the value, or an empty Optional if there is none
+     */
+    public Optional<Vertex<K, V>> first(T value) {
+        Collection<Vertex<K, V>> vertices = get(value);
+        return vertices.isEmpty() ? Optional.empty() : Optional.of(vertices.iterator().next());
+    }
+
+    /**
+     * Checks if any vertex's data has the given value
+     * @param value the value to look up
+     * @return true if there is such a vertex, false otherwise
+     */
+    public boolean contains(T value) {
+        return entries.containsKey(value);
+    }
+
+    /**
+     * Get the number of distinct values in the index
+     * @return the number of values
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Indexes a vertex again, after its data object was changed in place
+     * @param key the vertex key
+     * @return the index
+     */
+    public ValueIndex<K, V, T> refresh(K key) {
+        Vertex<K, V> vertex = graph.vertexFor(key);
+        if (vertex == null) throw new VertexNotInGraphException("Vertex{" + key + "} is not a member of the graph");
+        remove(vertex);
+        add(vertex);
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    void add(Vertex<K, V> vertex) {
+        V data = vertex.getData();
+        T value = data == null ? null : function.apply(data);
+        values.put(vertex.getId(), value);
+
+        Object entry = entries.get(value);
+        if (entry == null) {
+            entries.put(value, vertex);
+        } else if (entry instanceof Vertex) {
+            Map<K, Vertex<K, V>> shared = new LinkedHashMap<>();
+            Vertex<K, V> first = (Vertex<K, V>) entry;
+            shared.put(first.getId(), first);
+            shared.put(vertex.getId(), vertex);
+            entries.put(value, shared);
+        } else {
+            ((Map<K, Vertex<K, V>>) entry).put(vertex.getId(), vertex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void remove(Vertex<K, V> vertex) {
+        if (!values.containsKey(vertex.getId())) return;
+        T value = values.remove(vertex.getId());
+
+        Object entry = entries.get(value);
+        if (entry instanceof Vertex) {
+            entries.remove(value);
+        } else if (entry != null) {
+            Map<K, Vertex<K, V>> shared = (Map<K, Vertex<K, V>>) entry;
+            shared.remove(vertex.getId());
+            if (shared.size() == 1) entries.put(value, shared.values().iterator().next());
+        }
+    }
+}
@@ -1,20 +1,36 @@
 package graph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
- * A vertex (node) in a graph.
+ * A vertex (node) in a graph. The adjacency list holds each neighbour at most once. Once a
+ * vertex has more than a handful of neighbours, their positions in the list are also kept
+ * in a hash index so that membership checks and edge removal don't scan the list.
  * @param <V> Type of data contained in the vertex
  * @param <K> Type of the vertex id
  */
 public class Vertex<K, V> {
 
+    static final int INDEX_THRESHOLD = 8;
+
     private K id;
 
     private V data;
 
-    private List<Vertex<K, V>> adjacentVertices = new ArrayList<>();
+    private ArrayList<Vertex<K, V>> adjacentVertices;
+
+    private Map<K, Integer> positions;
+
+    // the weight of the edge to each neighbour, by position; null while every weight is 1
+    private double[] weights;
+
+    Graph<K, V> owner;
 
     /**
      * Constructor
@@ -22,9 +38,22 @@ public class Vertex<K, V> {
      * @param data the vertex data
      */
     Vertex(K key, V data) {
+        this(key, data, 10);
+    }
+
+    /**
+     * Constructor that sizes the adjacency list for the expected number of neighbours
+     * @param key the vertex key
+     * @param data the vertex data
+     * @param expectedDegree the number of neighbours to make room for
+     */
+    Vertex(K key, V data, int expectedDegree) {
         this.id = key;
         this.data = data;
-
+        this.adjacentVertices = new ArrayList<>(expectedDegree);
+        if (expectedDegree > INDEX_THRESHOLD) {
+            this.positions = new HashMap<>(expectedDegree * 4 / 3 + 1);
+        }
     }
 
     /**
@@ -51,40 +80,158 @@ public class Vertex<K, V> {
         return adjacentVertices.size();
     }
 
+    /**
+     * Replaces the object stored in the vertex, updating the value indexes of the graph the
+     * vertex belongs to
+     * @param data the new object
+     */
     public void setData(V data) {
         this.data = data;
+        if (owner != null) owner.dataChanged(this);
     }
 
     /**
-     * Adds an edge between this vertex and the passed vertex
+     * Adds an edge between this vertex and the passed vertex, unless there already is one
      * @param vertex
-     * @return this vertex with the edge removed
+     * @return this vertex with the edge added
      */
     Vertex<K,V> addEdge(Vertex<K, V> vertex) {
+        if (positionOf(vertex.getId()) >= 0) return this;
 
-        adjacentVertices.add(vertex);
+        append(vertex, 1.0);
+        return this;
+    }
 
+    /**
+     * Adds a weighted edge between this vertex and the passed vertex, or changes the weight
+     * of the edge if there already is one
+     * @param vertex the other vertex
+     * @param weight the weight of the edge
+     * @return this vertex with the edge added
+     */
+    Vertex<K, V> addEdge(Vertex<K, V> vertex, double weight) {
+        int position = positionOf(vertex.getId());
+        if (position >= 0) {
+            setWeight(position, weight);
+        } else {
+            append(vertex, weight);
+        }
         return this;
     }
 
+    private void append(Vertex<K, V> vertex, double weight) {
+        adjacentVertices.add(vertex);
+        if (weights != null || weight != 1.0) setWeight(adjacentVertices.size() - 1, weight);
+        if (positions != null) {
+            positions.put(vertex.getId(), adjacentVertices.size() - 1);
+        } else if (adjacentVertices.size() > INDEX_THRESHOLD) {
+            positions = new HashMap<>();
+            for (int i = 0; i < adjacentVertices.size(); i++) {
+                positions.put(adjacentVertices.get(i).getId(), i);
+            }
+        }
+    }
+
+    private void setWeight(int position, double weight) {
+        if (weights == null) {
+            if (weight == 1.0) return;
+            weights = new double[Math.max(adjacentVertices.size(), 10)];
+            Arrays.fill(weights, 1.0);
+        } else if (position >= weights.length) {
+            int length = weights.length;
+            weights = Arrays.copyOf(weights, Math.max(position + 1, length + (length >> 1)));
+            Arrays.fill(weights, length, weights.length, 1.0);
+        }
+        weights[position] = weight;
+    }
+
     Vertex<K, V> addEdges(List<Vertex<K, V>> vertices) {
-        this.adjacentVertices.addAll(vertices);
+        for (Vertex<K, V> vertex : vertices) {
+            addEdge(vertex);
+        }
         return this;
     }
 
+    /**
+     * Get the vertices adjacent to this vertex. Each neighbour appears once.
+     * @return an unmodifiable view of the adjacency list
+     */
+    public List<Vertex<K, V>> getAdjacentVertices() {
+        return Collections.unmodifiableList(adjacentVertices);
+    }
 
+    /**
+     * Get the weight of the edge to the neighbour at a position in the adjacency list
+     * @param position the position of the neighbour
+     * @return the weight of the edge
+     */
+    double weightAt(int position) {
+        return weights == null ? 1.0 : weights[position];
+    }
 
+    /**
+     * Get the weight of the edge to the vertex with the given key
+     * @param key the key of the other vertex
+     * @return the weight of the edge, or NaN if there is no such edge
+     */
+    double weightTo(K key) {
+        int position = positionOf(key);
+        return position < 0 ? Double.NaN : weightAt(position);
+    }
 
-    public List<Vertex<K, V>> getAdjacentVertices() {
-        return adjacentVertices;
+    /**
+     * Checks if any edge of this vertex has a weight other than 1
+     * @return true if the vertex stores weights, false otherwise
+     */
+    boolean isWeighted() {
+        return weights != null;
     }
 
+    /**
+     * Checks if the vertex with the given key is adjacent to this vertex
+     * @param key the key of the other vertex
+     * @return true if there is an edge between the two vertices, false otherwise
+     */
+    boolean isAdjacentTo(K key) {
+        return positionOf(key) >= 0;
+    }
 
+    /**
+     * Removes the edge between this vertex and the passed vertex, if there is one. The last
+     * neighbour in the adjacency list takes the place of the removed one.
+     * @param vertex
+     * @return this vertex with the edge removed
+     */
     Vertex<K, V> removeEdge(Vertex<K, V> vertex) {
-        adjacentVertices.remove(vertex);
+        if (vertex == null) return this;
+        int position = positionOf(vertex.getId());
+        if (position < 0) return this;
+
+        int last = adjacentVertices.size() - 1;
+        Vertex<K, V> moved = adjacentVertices.remove(last);
+        if (position != last) adjacentVertices.set(position, moved);
+        if (weights != null) {
+            weights[position] = weights[last];
+            weights[last] = 1.0;
+        }
+        if (positions != null) {
+            positions.remove(vertex.getId());
+            if (position != last) positions.put(moved.getId(), position);
+        }
         return this;
     }
 
+    private int positionOf(K key) {
+        if (positions != null) {
+            Integer position = positions.get(key);
+            return position == null ? -1 : position;
+        }
+        for (int i = 0; i < adjacentVertices.size(); i++) {
+            if (Objects.equals(adjacentVertices.get(i).getId(), key)) return i;
+        }
+        return -1;
+    }
+
     @Override
     public String toString() {
         return "Vertex{" +
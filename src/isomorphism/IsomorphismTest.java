@@ -0,0 +1,139 @@
+package isomorphism;
+
+import graph.Graph;
+import graph.Pair;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class IsomorphismTest {
+
+    private Graph<String, Person> friends() {
+        List<Person> people = Arrays.asList(
+                new Person("abe", 70),
+                new Person("bob", 45),
+                new Person("con", 55),
+                new Person("dan", 54),
+                new Person("gil", 69),
+                new Person("ida", 68),
+                new Person("jon", 71),
+                new Person("hil", 69)
+        );
+
+        return Graph.<String, Person>create()
+                .addVertices(people, Person::getName)
+                .addEdges(Arrays.asList(
+                        new Pair<>("abe", "gil"),
+                        new Pair<>("abe", "hil"),
+                        new Pair<>("abe", "ida"),
+                        new Pair<>("bob", "gil"),
+                        new Pair<>("bob", "hil"),
+                        new Pair<>("bob", "jon"),
+                        new Pair<>("con", "gil"),
+                        new Pair<>("con", "ida"),
+                        new Pair<>("con", "jon"),
+                        new Pair<>("dan", "hil"),
+                        new Pair<>("dan", "ida"),
+                        new Pair<>("dan", "jon"),
+                        new Pair<>("dan", "gil")));
+    }
+
+    private Graph<Integer, Integer> ints() {
+        return Graph.<Integer, Integer>create()
+                .addVertices(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8), Integer::intValue)
+                .addEdges(Arrays.asList(
+                        new Pair<>(1, 2),
+                        new Pair<>(1, 5),
+                        new Pair<>(1, 4),
+                        new Pair<>(6, 2),
+                        new Pair<>(6, 5),
+                        new Pair<>(6, 7),
+                        new Pair<>(8, 5),
+                        new Pair<>(8, 7),
+                        new Pair<>(8, 4),
+                        new Pair<>(3, 7),
+                        new Pair<>(3, 4),
+                        new Pair<>(3, 2),
+                        new Pair<>(3, 5)));
+    }
+
+    private Graph<Integer, Integer> randomGraph(int size, int edges, long seed, int offset) {
+        List<Integer> keys = IntStream.range(0, size).boxed().collect(Collectors.toList());
+        List<Integer> shuffled = IntStream.range(0, size).boxed().collect(Collectors.toList());
+        Collections.shuffle(shuffled, new Random(seed + offset));
+
+        Graph<Integer, Integer> graph = Graph.<Integer, Integer>create().addVertices(keys, Integer::intValue);
+        Random random = new Random(seed);
+        for (int i = 0; i < edges; i++) {
+            graph.addEdge(shuffled.get(random.nextInt(size)), shuffled.get(random.nextInt(size)));
+        }
+        return graph;
+    }
+
+    @Test
+    @DisplayName("The people and integers graphs are isomorphic, and the found mapping proves it")
+    void testFindIsomorphism(){
+        Graph<String, Person> friendsGraph = friends();
+        Graph<Integer, Integer> ints = ints();
+
+        Optional<Map<String, Integer>> mapping = friendsGraph.findIsomorphism(ints);
+
+        Assertions.assertTrue(mapping.isPresent());
+        Assertions.assertEquals(8, mapping.get().size());
+        Assertions.assertTrue(friendsGraph.isIsomorphic(ints, mapping.get()));
+    }
+
+    @Test
+    @DisplayName("Graphs with one edge moved are not isomorphic")
+    void testNotIsomorphic(){
+        Graph<Integer, Integer> ints = ints()
+                .removeEdge(3, 5)
+                .addEdge(1, 6);
+
+        Assertions.assertFalse(friends().findIsomorphism(ints).isPresent());
+    }
+
+    @Test
+    @DisplayName("Relabelled random graphs with thousands of vertices are found to be isomorphic")
+    void testLargeRandomGraphs(){
+        Graph<Integer, Integer> graph = randomGraph(3000, 9000, 7, 0);
+        Graph<Integer, Integer> relabelled = randomGraph(3000, 9000, 7, 1);
+
+        Optional<Map<Integer, Integer>> mapping = graph.findIsomorphism(relabelled);
+
+        Assertions.assertTrue(mapping.isPresent());
+        Assertions.assertTrue(graph.isIsomorphic(relabelled, mapping.get()));
+    }
+
+    @Test
+    @DisplayName("A supplied mapping is checked edge by edge, and must be one-to-one")
+    void testIsIsomorphicWithMapping(){
+        Map<String, Integer> map = new HashMap<>();
+        map.put("abe", 1);
+        map.put("bob", 6);
+        map.put("con", 8);
+        map.put("dan", 3);
+        map.put("gil", 5);
+        map.put("hil", 2);
+        map.put("ida", 4);
+        map.put("jon", 7);
+        Assertions.assertTrue(friends().isIsomorphic(ints(), map));
+
+        map.put("abe", 2);
+        map.put("hil", 1);
+        Assertions.assertFalse(friends().isIsomorphic(ints(), map));
+
+        map.put("hil", 2);
+        Assertions.assertFalse(friends().isIsomorphic(ints(), map));
+    }
+}
@@ -83,5 +83,10 @@ public class Main {
 
         System.out.println(friendsGraph.isIsomorphic(ints, map));
 
+        friendsGraph.findIsomorphism(ints).ifPresent(found -> {
+            System.out.println(friendsGraph.isIsomorphic(ints, found));
+            found.forEach((name, number) -> System.out.println(name + " -> " + number));
+        });
+
     }
 }